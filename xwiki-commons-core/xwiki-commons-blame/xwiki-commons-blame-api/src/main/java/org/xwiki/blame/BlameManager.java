@@ -47,4 +47,29 @@
      * @return the updated annotated content.
      */
     <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R revision, List<E> previous);
+
+    /**
+     * Annotate a range of the content with current revision based on a diff with a previous revision. Only the
+     * elements of the range are returned by the annotated content, and the analysis stops as soon as they all received
+     * their revision.
+     *
+     * @param <R> type of the revision object that old metadata about the revision.
+     * @param <E> type of the element to annotate (ie: String holding a line).
+     * @param content the annotated content (up to the revision preceding the one given), use null to start a new
+     *                blame.
+     * @param revision the revision metadata to associate with the given revision.
+     * @param previous the content of the previous revision to diff against the currently annotated content, use the
+     *                 latest revision to start a new blame.
+     * @param fromIndex the index of the first element to annotate (inclusive) in the latest revision, only used when
+     *                  starting a new blame
+     * @param toIndex the index of the last element to annotate (exclusive) in the latest revision, only used when
+     *                starting a new blame
+     * @return the updated annotated content.
+     * @since 18.8.0RC1
+     */
+    default <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R revision, List<E> previous,
+        int fromIndex, int toIndex)
+    {
+        return blame(content, revision, previous);
+    }
 }
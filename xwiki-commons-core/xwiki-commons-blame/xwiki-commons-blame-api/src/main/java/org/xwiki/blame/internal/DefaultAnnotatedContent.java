@@ -20,8 +20,11 @@
 package org.xwiki.blame.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.xwiki.blame.AnnotatedContent;
@@ -33,6 +36,10 @@
 
 /**
  * Hold content during blame analysis and provides actual results.
+ * <p>
+ * The elements are analysed through an integer identifier associated to each distinct element so that the (potentially
+ * expensive) elements equals() is only called once per element, and the elements of the current revision which are
+ * still to be annotated are tracked so that the analysis can stop as soon as all of them have their revision.
  *
  * @param <R> type of the revision object that old metadata about the revision.
  * @param <E> type of the element to annotate (ie: String holding a line).
@@ -41,25 +48,67 @@
  */
 public class DefaultAnnotatedContent<R, E> implements AnnotatedContent<R, E>
 {
+    private static final int NOT_ANNOTATED = -1;
+
     private final List<R> sourceRevisions;
     private final List<E> initialContent;
-    private final List<E> currentRevisionContent;
-    private R currentRevision;
-    private final List<Integer> elementList;
+    private final int fromIndex;
     private final int size;
+    private R currentRevision;
+
+    /**
+     * The identifier associated to each distinct element.
+     */
+    private final Map<E, Integer> identifiers = new HashMap<>();
+
+    /**
+     * The elements of the current revision, as identifiers.
+     */
+    private int[] currentRevisionContent;
+
+    /**
+     * The index in the initial content of each element of the current revision, or {@link #NOT_ANNOTATED} if the
+     * element is not part of the initial content or not part of the annotated range.
+     */
+    private int[] elementList;
+
+    /**
+     * The number of elements which don't have a revision yet.
+     */
+    private int remaining;
 
     DefaultAnnotatedContent(R revision, List<E> initialContent)
     {
-        this.size = initialContent.size();
+        this(revision, initialContent, 0, initialContent.size());
+    }
+
+    /**
+     * @param revision the revision of the initial content
+     * @param initialContent the content to annotate
+     * @param fromIndex the index of the first element to annotate (inclusive)
+     * @param toIndex the index of the last element to annotate (exclusive)
+     * @since 18.8.0RC1
+     */
+    DefaultAnnotatedContent(R revision, List<E> initialContent, int fromIndex, int toIndex)
+    {
+        if (fromIndex < 0 || toIndex > initialContent.size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(String.format("Invalid range [%d, %d] for a content of size [%d]",
+                fromIndex, toIndex, initialContent.size()));
+        }
+
+        this.fromIndex = fromIndex;
+        this.size = toIndex - fromIndex;
         this.sourceRevisions = new ArrayList<>(this.size);
         this.initialContent = initialContent;
-        this.currentRevisionContent = new ArrayList<>(initialContent);
+        this.currentRevisionContent = toIdentifiers(initialContent);
         this.currentRevision = revision;
-        this.elementList = new ArrayList<>(this.size);
-        for (int i = 0; i < size; i++) {
+        this.elementList = new int[initialContent.size()];
+        Arrays.fill(this.elementList, NOT_ANNOTATED);
+        for (int i = 0; i < this.size; i++) {
             this.sourceRevisions.add(null);
-            this.elementList.add(i);
+            this.elementList[fromIndex + i] = i;
         }
+        this.remaining = this.size;
     }
 
     private final class AnnotatedContentIterator implements Iterator<AnnotatedElement<R, E>>
@@ -80,7 +129,7 @@ public AnnotatedElement<R, E> next()
             }
 
             index += 1;
-            return new DefaultAnnotatedElement<>(sourceRevisions.get(index), initialContent.get(index));
+            return new DefaultAnnotatedElement<>(sourceRevisions.get(index), initialContent.get(fromIndex + index));
         }
 
         @Override
@@ -105,12 +154,7 @@ public R getOldestRevision()
     @Override
     public boolean isEntirelyAnnotated()
     {
-        for (int i = 0; i < this.size; i++) {
-            if (this.sourceRevisions.get(i) == null) {
-                return false;
-            }
-        }
-        return true;
+        return this.remaining == 0;
     }
 
     /**
@@ -125,47 +169,105 @@ void analyseRevision(R revision, List<E> previous)
             return;
         }
 
+        // There is nothing left to learn from older revisions
+        if (isEntirelyAnnotated()) {
+            currentRevision = revision;
+
+            return;
+        }
+
         if (previous == null || previous.isEmpty()) {
             resolveRemainingToCurrent();
         } else {
-            resolveToCurrent(DiffUtils.diff(currentRevisionContent, previous).getDeltas());
-            assert currentRevisionContent.equals(previous) : "Patch application failed";
+            resolveToCurrent(toIdentifiers(previous));
         }
 
         currentRevision = revision;
     }
 
+    private int[] toIdentifiers(List<E> elements)
+    {
+        int[] result = new int[elements.size()];
+
+        int i = 0;
+        for (E element : elements) {
+            result[i++] = this.identifiers.computeIfAbsent(element, key -> this.identifiers.size());
+        }
+
+        return result;
+    }
+
     /**
      * Resolve revision of line to current revision based on given previous content.
      *
      * Thanks to Michael Schierl &lt;schierlm%40gmx.de&gt; for sharing this code on StackOverflow.
      *
-     * @param deltas the delta to apply to current content to move to previous revision.
+     * @param previous the content in a previous revision, as identifiers
      */
-    private void resolveToCurrent(List<AbstractDelta<E>> deltas)
+    private void resolveToCurrent(int[] previous)
     {
-        int lineOffset = 0;
+        int[] current = this.currentRevisionContent;
+
+        // Skip the common prefix and suffix, which cannot contain any difference
+        int minSize = Math.min(current.length, previous.length);
+        int prefix = 0;
+        while (prefix < minSize && current[prefix] == previous[prefix]) {
+            ++prefix;
+        }
+        int suffix = 0;
+        while (suffix < minSize - prefix
+            && current[current.length - 1 - suffix] == previous[previous.length - 1 - suffix]) {
+            ++suffix;
+        }
 
-        for (AbstractDelta<E> d : deltas) {
-            Chunk<E> original = d.getSource();
-            Chunk<E> revised = d.getTarget();
+        List<AbstractDelta<Integer>> deltas = DiffUtils.diff(toList(current, prefix, current.length - suffix),
+            toList(previous, prefix, previous.length - suffix)).getDeltas();
 
-            int pos = original.getPosition() + lineOffset;
-            // delete lines
+        // Build the previous revision elements in one pass instead of moving the elements for each delta
+        int[] previousElementList = new int[previous.length];
+        int currentIndex = 0;
+        int previousIndex = 0;
+        for (AbstractDelta<Integer> d : deltas) {
+            Chunk<Integer> original = d.getSource();
+            Chunk<Integer> revised = d.getTarget();
+
+            int pos = prefix + original.getPosition();
+            int length = pos - currentIndex;
+            System.arraycopy(this.elementList, currentIndex, previousElementList, previousIndex, length);
+            previousIndex += length;
+
+            // deleted lines
             for (int i = 0; i < original.size(); i++) {
-                int origLine = elementList.remove(pos);
-                currentRevisionContent.remove(pos);
-                if (origLine != -1) {
-                    sourceRevisions.set(origLine, currentRevision);
-                }
+                resolve(this.elementList[pos + i]);
             }
+            currentIndex = pos + original.size();
 
-            for (int i = 0; i < revised.size(); i++) {
-                currentRevisionContent.add(pos + i, revised.getLines().get(i));
-                elementList.add(pos + i, -1);
-            }
+            // added lines
+            Arrays.fill(previousElementList, previousIndex, previousIndex + revised.size(), NOT_ANNOTATED);
+            previousIndex += revised.size();
+        }
+        System.arraycopy(this.elementList, currentIndex, previousElementList, previousIndex,
+            current.length - currentIndex);
+
+        this.currentRevisionContent = previous;
+        this.elementList = previousElementList;
+    }
 
-            lineOffset += revised.size() - original.size();
+    private static List<Integer> toList(int[] elements, int fromIndex, int toIndex)
+    {
+        List<Integer> list = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            list.add(elements[i]);
+        }
+
+        return list;
+    }
+
+    private void resolve(int element)
+    {
+        if (element != NOT_ANNOTATED) {
+            this.sourceRevisions.set(element, currentRevision);
+            --this.remaining;
         }
     }
 
@@ -179,5 +281,6 @@ private void resolveRemainingToCurrent()
                 sourceRevisions.set(i, currentRevision);
             }
         }
+        this.remaining = 0;
     }
 }
@@ -48,6 +48,26 @@ public <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R rev
             return new DefaultAnnotatedContent<>(revision, previous);
         }
 
+        return analyseRevision(content, revision, previous);
+    }
+
+    @Override
+    public <R, E> AnnotatedContent<R, E> blame(AnnotatedContent<R, E> content, R revision, List<E> previous,
+        int fromIndex, int toIndex)
+    {
+        if (content == null) {
+            if (previous == null || revision == null) {
+                return null;
+            }
+            return new DefaultAnnotatedContent<>(revision, previous, fromIndex, toIndex);
+        }
+
+        return analyseRevision(content, revision, previous);
+    }
+
+    private <R, E> AnnotatedContent<R, E> analyseRevision(AnnotatedContent<R, E> content, R revision,
+        List<E> previous)
+    {
         if (!(content instanceof DefaultAnnotatedContent)) {
             throw new IllegalArgumentException("Incompatible annotated content type provided");
         }
@@ -23,6 +23,7 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.junit.jupiter.api.Test;
@@ -141,4 +142,54 @@ void blame()
         Throwable exception = assertThrows(NoSuchElementException.class, iter::next);
         assertEquals("No more annotated content", exception.getMessage());
     }
+
+    @Test
+    void blameRange()
+    {
+        Revision rev1 = new Revision("rev1");
+        Revision rev2 = new Revision("rev2");
+        Revision rev3 = new Revision("rev3");
+
+        AnnotatedContent<Revision, String> annotatedContent = this.blameManager.blame(null, rev3,
+            Arrays.asList("line1", "line2 changed", "line3", "line4 changed"), 1, 3);
+
+        assertThat(annotatedContent.isEntirelyAnnotated(), is(false));
+
+        annotatedContent = this.blameManager.blame(annotatedContent, rev2,
+            Arrays.asList("line0", "line1", "line2", "line3", "line4"));
+
+        assertThat(annotatedContent.isEntirelyAnnotated(), is(false));
+        assertThat(annotatedContent.getOldestRevision(), sameInstance(rev2));
+
+        annotatedContent = this.blameManager.blame(annotatedContent, rev1, Arrays.asList("line2"));
+
+        // The range is fully annotated even if "line1" and "line4 changed" are not
+        assertThat(annotatedContent.isEntirelyAnnotated(), is(true));
+        assertThat(annotatedContent.getOldestRevision(), sameInstance(rev1));
+
+        // Further revisions don't change anything
+        annotatedContent = this.blameManager.blame(annotatedContent, null, Arrays.asList("line3"));
+        assertThat(annotatedContent.getOldestRevision(), nullValue());
+
+        Iterator<AnnotatedElement<Revision, String>> iter = annotatedContent.iterator();
+
+        AnnotatedElement<Revision, String> annotatedElement = iter.next();
+        assertThat(annotatedElement.getElement(), is("line2 changed"));
+        assertThat(annotatedElement.getRevision(), sameInstance(rev3));
+
+        annotatedElement = iter.next();
+        assertThat(annotatedElement.getElement(), is("line3"));
+        assertThat(annotatedElement.getRevision(), sameInstance(rev2));
+
+        assertThat(iter.hasNext(), is(false));
+    }
+
+    @Test
+    void blameInvalidRange()
+    {
+        List<String> content = Arrays.asList("line1", "line2");
+        Revision revision = new Revision("rev");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> this.blameManager.blame(null, revision, content, 1, 3));
+    }
 }
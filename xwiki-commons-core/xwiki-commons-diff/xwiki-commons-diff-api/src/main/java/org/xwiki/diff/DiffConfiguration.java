@@ -29,5 +29,76 @@
  */
 public class DiffConfiguration<E> extends HashMap<String, Object>
 {
+    /**
+     * The name of the key used to setup the algorithm used to compute the diff.
+     *
+     * @since 18.8.0RC1
+     */
+    public static final String KEY_ALGORITHM = "algorithm";
+
+    /**
+     * The name of the key used to setup the maximum time spent computing the diff.
+     *
+     * @since 18.8.0RC1
+     */
+    public static final String KEY_TIMEOUT = "timeout";
+
     private static final long serialVersionUID = 1L;
+
+    /**
+     * The algorithms which can be used to compute the diff.
+     *
+     * @version $Id$
+     * @since 18.8.0RC1
+     */
+    public enum Algorithm
+    {
+        /**
+         * The Myers algorithm, fast but using memory proportional to the square of the number of differences.
+         */
+        MYERS,
+
+        /**
+         * A variant of the Myers algorithm using memory proportional to the size of the compared lists.
+         */
+        MYERS_LINEAR_SPACE
+    }
+
+    /**
+     * @param algorithm the algorithm to use to compute the diff. Default is {@link Algorithm#MYERS}.
+     * @since 18.8.0RC1
+     */
+    public void setAlgorithm(Algorithm algorithm)
+    {
+        put(KEY_ALGORITHM, algorithm);
+    }
+
+    /**
+     * @return the algorithm to use to compute the diff. Default is {@link Algorithm#MYERS}.
+     * @since 18.8.0RC1
+     */
+    public Algorithm getAlgorithm()
+    {
+        return containsKey(KEY_ALGORITHM) ? (Algorithm) get(KEY_ALGORITHM) : Algorithm.MYERS;
+    }
+
+    /**
+     * @param timeout the maximum number of milliseconds to spend computing the diff, after which the differing part of
+     *            the lists is reported as a single change. 0 or less means no limit, which is the default.
+     * @since 18.8.0RC1
+     */
+    public void setTimeout(long timeout)
+    {
+        put(KEY_TIMEOUT, timeout);
+    }
+
+    /**
+     * @return the maximum number of milliseconds to spend computing the diff, after which the differing part of the
+     *         lists is reported as a single change. 0 or less means no limit, which is the default.
+     * @since 18.8.0RC1
+     */
+    public long getTimeout()
+    {
+        return containsKey(KEY_TIMEOUT) ? ((Number) get(KEY_TIMEOUT)).longValue() : 0;
+    }
 }
@@ -19,9 +19,12 @@
  */
 package org.xwiki.diff;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.xwiki.component.annotation.Role;
+import org.xwiki.logging.LogQueue;
 
 /**
  * Various diff/merge tools.
@@ -73,4 +76,42 @@
      */
     <E> MergeResult<E> merge(List<E> commonAncestor, List<E> next, List<E> current, MergeConfiguration<E> configuration)
         throws MergeException;
+
+    /**
+     * Execute a 3-way merge on provided versions, reading them progressively and reporting the merged elements and the
+     * conflicts to the given sink as soon as they are known, instead of keeping everything in memory.
+     * <p>
+     * The versions are read by chunks (see {@link MergeConfiguration#setStreamingChunkSize(int)}) and merged up to the
+     * last element of the common ancestor left unchanged in both next and current versions. The memory used is thus
+     * proportional to the size of the chunks and of the largest modified part, and not to the size of the versions.
+     * Conflicts are handled as in {@link #merge(List, List, List, MergeConfiguration)}, their index being the index in
+     * the whole common ancestor.
+     *
+     * @param <E> the type of compared elements
+     * @param commonAncestor the common ancestor of the two versions of the content to compare
+     * @param next the next version of the content to compare
+     * @param current the current version of the content to compare
+     * @param configuration the configuration of the merge behavior
+     * @param sink receive the merged elements and the conflicts
+     * @return the log of the merge
+     * @throws MergeException error when executing the merge
+     * @since 18.8.0RC1
+     */
+    default <E> LogQueue merge(Iterator<E> commonAncestor, Iterator<E> next, Iterator<E> current,
+        MergeConfiguration<E> configuration, MergeSink<E> sink) throws MergeException
+    {
+        List<E> commonAncestorList = new ArrayList<>();
+        commonAncestor.forEachRemaining(commonAncestorList::add);
+        List<E> nextList = new ArrayList<>();
+        next.forEachRemaining(nextList::add);
+        List<E> currentList = new ArrayList<>();
+        current.forEachRemaining(currentList::add);
+
+        MergeResult<E> result = merge(commonAncestorList, nextList, currentList, configuration);
+
+        result.getConflicts().forEach(sink::onConflict);
+        result.getMerged().forEach(sink::onElement);
+
+        return result.getLog();
+    }
 }
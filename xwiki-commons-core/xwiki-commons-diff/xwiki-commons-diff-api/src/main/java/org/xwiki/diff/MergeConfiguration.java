@@ -36,6 +36,20 @@
      */
     public static final String KEY_FALLBACKONCONFLICT = "fallbackonconflict";
 
+    /**
+     * The name of the key used to setup the number of elements read at once from each version by the streaming merge.
+     *
+     * @since 18.8.0RC1
+     */
+    public static final String KEY_STREAMINGCHUNKSIZE = "streamingchunksize";
+
+    /**
+     * The default number of elements read at once from each version by the streaming merge.
+     *
+     * @since 18.8.0RC1
+     */
+    public static final int DEFAULT_STREAMINGCHUNKSIZE = 1000;
+
     private static final long serialVersionUID = 1L;
 
     private List<ConflictDecision<E>> conflictDecisionList;
@@ -110,6 +124,29 @@ public Version getFallbackOnConflict()
         return containsKey(KEY_FALLBACKONCONFLICT) ? (Version) get(KEY_FALLBACKONCONFLICT) : Version.CURRENT;
     }
 
+    /**
+     * @param chunkSize the number of elements read at once from each version by the streaming merge (see
+     *            {@link DiffManager#merge(java.util.Iterator, java.util.Iterator, java.util.Iterator,
+     *            MergeConfiguration, MergeSink)}). Default is {@value #DEFAULT_STREAMINGCHUNKSIZE}.
+     * @since 18.8.0RC1
+     */
+    public void setStreamingChunkSize(int chunkSize)
+    {
+        put(KEY_STREAMINGCHUNKSIZE, chunkSize);
+    }
+
+    /**
+     * @return the number of elements read at once from each version by the streaming merge (see
+     *         {@link DiffManager#merge(java.util.Iterator, java.util.Iterator, java.util.Iterator, MergeConfiguration,
+     *         MergeSink)}). Default is {@value #DEFAULT_STREAMINGCHUNKSIZE}.
+     * @since 18.8.0RC1
+     */
+    public int getStreamingChunkSize()
+    {
+        return containsKey(KEY_STREAMINGCHUNKSIZE) ? ((Number) get(KEY_STREAMINGCHUNKSIZE)).intValue()
+            : DEFAULT_STREAMINGCHUNKSIZE;
+    }
+
     /**
      * @return the list of decisions to be taken in case of conflicts.
      * @since 11.7RC1
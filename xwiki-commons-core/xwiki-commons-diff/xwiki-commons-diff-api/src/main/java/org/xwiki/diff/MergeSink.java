@@ -0,0 +1,51 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff;
+
+/**
+ * Receive the result of a streaming merge.
+ * <p>
+ * See {@link DiffManager#merge(java.util.Iterator, java.util.Iterator, java.util.Iterator, MergeConfiguration,
+ * MergeSink)}.
+ *
+ * @param <E> the type of merged elements
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public interface MergeSink<E>
+{
+    /**
+     * Called for each merged element, in order.
+     *
+     * @param element the merged element
+     */
+    void onElement(E element);
+
+    /**
+     * Called for each conflict found during the merge, before the merged elements resulting from the fallback or the
+     * decision taken to solve it.
+     *
+     * @param conflict the conflict
+     */
+    default void onConflict(Conflict<E> conflict)
+    {
+        // Do nothing by default
+    }
+}
@@ -21,6 +21,7 @@
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -40,9 +41,9 @@
 import org.xwiki.diff.MergeConfiguration.Version;
 import org.xwiki.diff.MergeException;
 import org.xwiki.diff.MergeResult;
+import org.xwiki.diff.MergeSink;
 import org.xwiki.diff.Patch;
-
-import com.github.difflib.DiffUtils;
+import org.xwiki.logging.LogQueue;
 
 /**
  * Default implementation of {@link DiffManager}.
@@ -51,6 +52,7 @@
  */
 @Component
 @Singleton
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
 public class DefaultDiffManager implements DiffManager
 {
     @Inject
@@ -74,7 +76,7 @@ public <E> DiffResult<E> diff(List<E> previous, List<E> next, DiffConfiguration<
             patch.add(new DeleteDelta<>(new DefaultChunk<>(0, previous),
                 new DefaultChunk<>(0, Collections.emptyList())));
         } else {
-            patch = new DefaultPatch<>(DiffUtils.diff(previous, next));
+            patch = DiffComputer.diff(previous, next, diff, result.getLog());
         }
 
         result.setPatch(patch);
@@ -155,6 +157,13 @@ public <E> MergeResult<E> merge(List<E> commonAncestor, List<E> next, List<E> cu
         return mergeResult;
     }
 
+    @Override
+    public <E> LogQueue merge(Iterator<E> commonAncestor, Iterator<E> next, Iterator<E> current,
+        MergeConfiguration<E> configuration, MergeSink<E> sink) throws MergeException
+    {
+        return new StreamingMerge<>(this, commonAncestor, next, current, configuration, sink).merge();
+    }
+
     private <E> ConflictDecision<E> findDecision(List<ConflictDecision<E>> decisions, int currentIndex)
     {
         ConflictDecision<E> result = null;
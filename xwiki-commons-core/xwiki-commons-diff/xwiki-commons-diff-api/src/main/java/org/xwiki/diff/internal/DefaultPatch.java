@@ -70,13 +70,7 @@ public DefaultPatch(com.github.difflib.patch.Patch<E> patch) throws DiffExceptio
      */
     private Delta<E> toDelta(com.github.difflib.patch.AbstractDelta<E> delta) throws DiffException
     {
-        try {
-            return DeltaFactory
-                .createDelta(delta.getSource(), delta.getTarget(), Delta.Type.valueOf(delta.getType().name()));
-        } catch (IllegalArgumentException e) {
-            throw new DiffException(String.format("Failed to convert [%s] info [%s]. Unknown type [%s]", delta
-                .getClass().getName(), Delta.class.getName(), delta.getType().toString()), e);
-        }
+        return DeltaFactory.createDelta(delta.getSource(), delta.getTarget(), DeltaFactory.toType(delta));
     }
 
     @Override
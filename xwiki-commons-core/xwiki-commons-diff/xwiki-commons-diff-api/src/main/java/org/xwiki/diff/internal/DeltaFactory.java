@@ -21,6 +21,7 @@
 
 import org.xwiki.diff.Chunk;
 import org.xwiki.diff.Delta;
+import org.xwiki.diff.DiffException;
 
 /**
  * A factory for creating delta element based on their type.
@@ -91,4 +92,21 @@ public static <E> Delta<E> createDelta(com.github.difflib.patch.Chunk<E> origina
         }
     }
 
+    /**
+     * Convert the type of a {@link com.github.difflib.patch.AbstractDelta}.
+     *
+     * @param delta the delta computed by the diff library
+     * @return the corresponding {@link Delta.Type}
+     * @throws DiffException when the type is unknown
+     * @since 18.8.0RC1
+     */
+    public static Delta.Type toType(com.github.difflib.patch.AbstractDelta<?> delta) throws DiffException
+    {
+        try {
+            return Delta.Type.valueOf(delta.getType().name());
+        } catch (IllegalArgumentException e) {
+            throw new DiffException(String.format("Failed to convert [%s] info [%s]. Unknown type [%s]",
+                delta.getClass().getName(), Delta.class.getName(), delta.getType().toString()), e);
+        }
+    }
 }
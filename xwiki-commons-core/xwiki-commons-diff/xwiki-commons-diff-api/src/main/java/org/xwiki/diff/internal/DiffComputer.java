@@ -0,0 +1,218 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.xwiki.diff.Chunk;
+import org.xwiki.diff.Delta;
+import org.xwiki.diff.DiffConfiguration;
+import org.xwiki.diff.DiffException;
+import org.xwiki.diff.Patch;
+import org.xwiki.logging.LogQueue;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.algorithm.DiffAlgorithmI;
+import com.github.difflib.algorithm.DiffAlgorithmListener;
+import com.github.difflib.algorithm.myers.MyersDiff;
+import com.github.difflib.algorithm.myers.MyersDiffWithLinearSpace;
+
+/**
+ * Compute the differences between two non empty lists.
+ * <p>
+ * The common prefix and suffix of the lists are skipped before running the configured algorithm on what remains, and
+ * if the algorithm takes more than the configured timeout the remaining part is reported as a single change. The
+ * algorithm works on an integer identifier associated to each distinct element instead of the elements themselves.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public final class DiffComputer
+{
+    /**
+     * Thrown by the algorithm listener to stop a diff taking too long.
+     */
+    private static final class DiffTimeoutException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static final class TimeoutListener implements DiffAlgorithmListener
+    {
+        private final long deadline;
+
+        TimeoutListener(long timeout)
+        {
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        }
+
+        @Override
+        public void diffStart()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void diffStep(int value, int max)
+        {
+            if (System.nanoTime() - this.deadline > 0) {
+                throw new DiffTimeoutException();
+            }
+        }
+
+        @Override
+        public void diffEnd()
+        {
+            // Nothing to do
+        }
+    }
+
+    private DiffComputer()
+    {
+    }
+
+    /**
+     * @param <E> the type of compared elements
+     * @param previous the previous version of the content to compare, not empty
+     * @param next the next version of the content to compare, not empty
+     * @param configuration the configuration of the diff behavior, can be null
+     * @param log where to report the diffs which could not be computed precisely
+     * @return the differences between the two lists
+     * @throws DiffException when failing to compute the diff
+     */
+    public static <E> Patch<E> diff(List<E> previous, List<E> next, DiffConfiguration<E> configuration, LogQueue log)
+        throws DiffException
+    {
+        // Skip the common prefix and suffix, which cannot contain any difference
+        int prefix = getCommonPrefix(previous, next);
+        int suffix = getCommonSuffix(previous, next, prefix);
+
+        List<E> previousMiddle = new ArrayList<>(previous.subList(prefix, previous.size() - suffix));
+        List<E> nextMiddle = new ArrayList<>(next.subList(prefix, next.size() - suffix));
+
+        DefaultPatch<E> patch = new DefaultPatch<>();
+
+        if (previousMiddle.isEmpty()) {
+            if (!nextMiddle.isEmpty()) {
+                patch.add(new InsertDelta<>(new DefaultChunk<>(prefix, previousMiddle),
+                    new DefaultChunk<>(prefix, nextMiddle)));
+            }
+        } else if (nextMiddle.isEmpty()) {
+            patch.add(new DeleteDelta<>(new DefaultChunk<>(prefix, previousMiddle),
+                new DefaultChunk<>(prefix, nextMiddle)));
+        } else {
+            diff(previousMiddle, nextMiddle, prefix,
+                configuration != null ? configuration : new DiffConfiguration<>(), patch, log);
+        }
+
+        return patch;
+    }
+
+    private static <E> int getCommonPrefix(List<E> previous, List<E> next)
+    {
+        int minSize = Math.min(previous.size(), next.size());
+
+        int prefix = 0;
+        while (prefix < minSize && Objects.equals(previous.get(prefix), next.get(prefix))) {
+            ++prefix;
+        }
+
+        return prefix;
+    }
+
+    private static <E> int getCommonSuffix(List<E> previous, List<E> next, int prefix)
+    {
+        int maxSuffix = Math.min(previous.size(), next.size()) - prefix;
+
+        int suffix = 0;
+        while (suffix < maxSuffix && Objects.equals(previous.get(previous.size() - 1 - suffix),
+            next.get(next.size() - 1 - suffix))) {
+            ++suffix;
+        }
+
+        return suffix;
+    }
+
+    private static <E> void diff(List<E> previous, List<E> next, int offset, DiffConfiguration<E> configuration,
+        DefaultPatch<E> patch, LogQueue log) throws DiffException
+    {
+        long timeout = configuration.getTimeout();
+
+        // Compare identifiers instead of the elements themselves to not call the (potentially expensive) elements
+        // equals() over and over
+        Map<E, Integer> identifiers = new HashMap<>();
+        List<Integer> previousIdentifiers = toIdentifiers(previous, identifiers);
+        List<Integer> nextIdentifiers = toIdentifiers(next, identifiers);
+
+        try {
+            com.github.difflib.patch.Patch<Integer> difflibPatch = DiffUtils.diff(previousIdentifiers,
+                nextIdentifiers, createAlgorithm(configuration), timeout > 0 ? new TimeoutListener(timeout) : null);
+
+            for (com.github.difflib.patch.AbstractDelta<Integer> delta : difflibPatch.getDeltas()) {
+                patch.add(toDelta(delta, previous, next, offset));
+            }
+        } catch (DiffTimeoutException e) {
+            log.warn("The diff took more than [{}] milliseconds, falling back on a single change", timeout);
+
+            patch.clear();
+            patch.add(new ChangeDelta<>(new DefaultChunk<>(offset, previous), new DefaultChunk<>(offset, next)));
+        }
+    }
+
+    private static <E> List<Integer> toIdentifiers(List<E> elements, Map<E, Integer> identifiers)
+    {
+        List<Integer> result = new ArrayList<>(elements.size());
+
+        for (E element : elements) {
+            result.add(identifiers.computeIfAbsent(element, key -> identifiers.size()));
+        }
+
+        return result;
+    }
+
+    private static DiffAlgorithmI<Integer> createAlgorithm(DiffConfiguration<?> configuration)
+    {
+        if (configuration.getAlgorithm() == DiffConfiguration.Algorithm.MYERS_LINEAR_SPACE) {
+            return new MyersDiffWithLinearSpace<>(Integer::equals);
+        }
+
+        return new MyersDiff<>(Integer::equals);
+    }
+
+    private static <E> Delta<E> toDelta(com.github.difflib.patch.AbstractDelta<Integer> delta, List<E> previous,
+        List<E> next, int offset) throws DiffException
+    {
+        return DeltaFactory.createDelta(toChunk(delta.getSource(), previous, offset),
+            toChunk(delta.getTarget(), next, offset), DeltaFactory.toType(delta));
+    }
+
+    private static <E> Chunk<E> toChunk(com.github.difflib.patch.Chunk<Integer> chunk, List<E> elements, int offset)
+    {
+        int position = chunk.getPosition();
+
+        return new DefaultChunk<>(position + offset,
+            new ArrayList<>(elements.subList(position, position + chunk.size())));
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.xwiki.diff.Chunk;
+import org.xwiki.diff.Conflict;
+import org.xwiki.diff.ConflictDecision;
+import org.xwiki.diff.Delta;
+import org.xwiki.diff.DiffException;
+import org.xwiki.diff.DiffManager;
+import org.xwiki.diff.MergeConfiguration;
+import org.xwiki.diff.MergeException;
+import org.xwiki.diff.MergeResult;
+import org.xwiki.diff.MergeSink;
+import org.xwiki.diff.Patch;
+import org.xwiki.logging.LogQueue;
+
+/**
+ * A 3-way merge reading the versions progressively.
+ * <p>
+ * A chunk of each version is read and the chunks are merged up to the last element of the common ancestor left
+ * unchanged in both next and current versions (called an anchor): since this element is identical in the three
+ * versions, what comes before it can be merged independently of what comes after it. If no anchor can be found, more
+ * elements are read until one is found or the versions are entirely read.
+ *
+ * @param <E> the type of merged elements
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class StreamingMerge<E>
+{
+    private final DiffManager diffManager;
+
+    private final MergeConfiguration<E> configuration;
+
+    private final MergeSink<E> sink;
+
+    private final Source<E> commonAncestor;
+
+    private final Source<E> next;
+
+    private final Source<E> current;
+
+    private final LogQueue log = new LogQueue();
+
+    /**
+     * The index in the whole common ancestor of the first element of the common ancestor chunk.
+     */
+    private int commonAncestorOffset;
+
+    /**
+     * The index in the whole next version of the first element of the next version chunk.
+     */
+    private int nextOffset;
+
+    /**
+     * The index in the whole current version of the first element of the current version chunk.
+     */
+    private int currentOffset;
+
+    /**
+     * A version being read.
+     *
+     * @param <E> the type of merged elements
+     * @version $Id$
+     */
+    private static final class Source<E>
+    {
+        private final Iterator<E> iterator;
+
+        private final List<E> buffer = new ArrayList<>();
+
+        Source(Iterator<E> iterator)
+        {
+            this.iterator = iterator;
+        }
+
+        void fill(int size)
+        {
+            while (this.buffer.size() < size && this.iterator.hasNext()) {
+                this.buffer.add(this.iterator.next());
+            }
+        }
+
+        boolean isExhausted()
+        {
+            return !this.iterator.hasNext();
+        }
+
+        List<E> consume(int size)
+        {
+            List<E> elements = new ArrayList<>(this.buffer.subList(0, size));
+            this.buffer.subList(0, size).clear();
+
+            return elements;
+        }
+    }
+
+    /**
+     * @param diffManager used to merge the chunks
+     * @param commonAncestor the common ancestor of the two versions of the content to compare
+     * @param next the next version of the content to compare
+     * @param current the current version of the content to compare
+     * @param configuration the configuration of the merge behavior
+     * @param sink receive the merged elements and the conflicts
+     */
+    public StreamingMerge(DiffManager diffManager, Iterator<E> commonAncestor, Iterator<E> next,
+        Iterator<E> current, MergeConfiguration<E> configuration, MergeSink<E> sink)
+    {
+        this.diffManager = diffManager;
+        this.commonAncestor = new Source<>(commonAncestor);
+        this.next = new Source<>(next);
+        this.current = new Source<>(current);
+        this.configuration = configuration;
+        this.sink = sink;
+    }
+
+    /**
+     * @return the log of the merge
+     * @throws MergeException error when executing the merge
+     */
+    public LogQueue merge() throws MergeException
+    {
+        int chunkSize = Math.max(1, this.configuration != null ? this.configuration.getStreamingChunkSize()
+            : MergeConfiguration.DEFAULT_STREAMINGCHUNKSIZE);
+
+        int size = chunkSize;
+        while (true) {
+            this.commonAncestor.fill(size);
+            this.next.fill(size);
+            this.current.fill(size);
+
+            if (this.commonAncestor.isExhausted() && this.next.isExhausted() && this.current.isExhausted()) {
+                merge(this.commonAncestor.buffer.size(), this.next.buffer.size(), this.current.buffer.size());
+
+                break;
+            }
+
+            int[] anchor = findAnchor();
+            if (anchor != null) {
+                merge(anchor[0] + 1, anchor[1] + 1, anchor[2] + 1);
+
+                size = chunkSize;
+            } else {
+                // Read more, the current chunks are entirely part of a modification. The size is doubled so that the
+                // total size of the re-diffed buffers stays proportional to the size of the modification.
+                size = size > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : size * 2;
+            }
+        }
+
+        return this.log;
+    }
+
+    /**
+     * @return the index of the last anchor in each version chunk, or null if there is none
+     */
+    private int[] findAnchor() throws MergeException
+    {
+        List<E> commonAncestorBuffer = this.commonAncestor.buffer;
+
+        Patch<E> patchNext = diff(commonAncestorBuffer, this.next.buffer);
+        Patch<E> patchCurrent = diff(commonAncestorBuffer, this.current.buffer);
+
+        boolean[] modified = new boolean[commonAncestorBuffer.size()];
+        markModified(patchNext, modified);
+        markModified(patchCurrent, modified);
+
+        // Don't use the last element of the chunk when there is more to read, it might be followed by an insert
+        int index = this.commonAncestor.isExhausted() ? modified.length - 1 : modified.length - 2;
+        while (index >= 0 && modified[index]) {
+            --index;
+        }
+
+        return index >= 0 ? new int[] {index, getIndex(patchNext, index), getIndex(patchCurrent, index)} : null;
+    }
+
+    private Patch<E> diff(List<E> previous, List<E> next) throws MergeException
+    {
+        try {
+            return this.diffManager.diff(previous, next, null).getPatch();
+        } catch (DiffException e) {
+            throw new MergeException("Failed to diff the versions chunks", e);
+        }
+    }
+
+    private void markModified(Patch<E> patch, boolean[] modified)
+    {
+        for (Delta<E> delta : patch) {
+            Chunk<E> previous = delta.getPrevious();
+
+            if (previous.size() > 0) {
+                for (int i = previous.getIndex(); i <= previous.getLastIndex(); ++i) {
+                    modified[i] = true;
+                }
+            } else if (previous.getIndex() > 0) {
+                // Keep the insert and the element preceding it in the same merge
+                modified[previous.getIndex() - 1] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the index in the modified version of the given unmodified element of the common ancestor
+     */
+    private int getIndex(Patch<E> patch, int commonAncestorIndex)
+    {
+        int index = commonAncestorIndex;
+
+        for (Delta<E> delta : patch) {
+            if (delta.getPrevious().getIndex() > commonAncestorIndex) {
+                break;
+            }
+
+            index += delta.getNext().size() - delta.getPrevious().size();
+        }
+
+        return index;
+    }
+
+    private void merge(int commonAncestorSize, int nextSize, int currentSize) throws MergeException
+    {
+        List<E> commonAncestorElements = this.commonAncestor.consume(commonAncestorSize);
+
+        MergeResult<E> result = this.diffManager.merge(commonAncestorElements, this.next.consume(nextSize),
+            this.current.consume(currentSize), getConfiguration(commonAncestorSize));
+
+        this.log.addAll(result.getLog());
+        for (Conflict<E> conflict : result.getConflicts()) {
+            this.sink.onConflict(
+                shift(conflict, this.commonAncestorOffset, this.nextOffset, this.currentOffset));
+        }
+        result.getMerged().forEach(this.sink::onElement);
+
+        this.commonAncestorOffset += commonAncestorSize;
+        this.nextOffset += nextSize;
+        this.currentOffset += currentSize;
+    }
+
+    /**
+     * @return the configuration to use to merge the current chunks, with the decisions shifted to the chunks indexes
+     */
+    private MergeConfiguration<E> getConfiguration(int commonAncestorSize)
+    {
+        if (this.configuration == null) {
+            return null;
+        }
+
+        List<ConflictDecision<E>> decisions = this.configuration.getConflictDecisionList();
+        List<ConflictDecision<E>> chunkDecisions;
+        if (decisions == null || decisions.isEmpty()) {
+            chunkDecisions = Collections.emptyList();
+        } else {
+            chunkDecisions = new ArrayList<>();
+            for (ConflictDecision<E> decision : decisions) {
+                int index = decision.getConflict().getIndex() - this.commonAncestorOffset;
+                if (index >= 0 && index < commonAncestorSize) {
+                    chunkDecisions.add(
+                        shift(decision, -this.commonAncestorOffset, -this.nextOffset, -this.currentOffset));
+                }
+            }
+        }
+
+        return new MergeConfiguration<>(this.configuration.getFallbackOnConflict(), chunkDecisions);
+    }
+
+    private ConflictDecision<E> shift(ConflictDecision<E> decision, int commonAncestorShift, int nextShift,
+        int currentShift)
+    {
+        DefaultConflictDecision<E> shiftedDecision = new DefaultConflictDecision<>(
+            shift(decision.getConflict(), commonAncestorShift, nextShift, currentShift));
+        if (decision.getType() == ConflictDecision.DecisionType.CUSTOM) {
+            shiftedDecision.setCustom(decision.getChunk().getElements());
+        } else {
+            shiftedDecision.setType(decision.getType());
+        }
+
+        return shiftedDecision;
+    }
+
+    /**
+     * The previous chunks of the deltas are located in the common ancestor while their next chunks are located in the
+     * version they come from, so each of them is shifted by the offset of its own version.
+     */
+    private Conflict<E> shift(Conflict<E> conflict, int commonAncestorShift, int nextShift, int currentShift)
+    {
+        if (commonAncestorShift == 0 && nextShift == 0 && currentShift == 0) {
+            return conflict;
+        }
+
+        return new DefaultConflict<>(conflict.getIndex() + commonAncestorShift,
+            shift(conflict.getDeltaCurrent(), commonAncestorShift, currentShift),
+            shift(conflict.getDeltaNext(), commonAncestorShift, nextShift));
+    }
+
+    private Delta<E> shift(Delta<E> delta, int previousShift, int nextShift)
+    {
+        return DeltaFactory.createDelta(shift(delta.getPrevious(), previousShift), shift(delta.getNext(), nextShift),
+            delta.getType());
+    }
+
+    private Chunk<E> shift(Chunk<E> chunk, int shift)
+    {
+        return new DefaultChunk<>(chunk.getIndex() + shift, chunk.getElements());
+    }
+}
@@ -33,15 +33,19 @@
 import org.xwiki.diff.ConflictDecision;
 import org.xwiki.diff.Delta;
 import org.xwiki.diff.Delta.Type;
+import org.xwiki.diff.DiffConfiguration;
 import org.xwiki.diff.DiffResult;
 import org.xwiki.diff.MergeConfiguration;
 import org.xwiki.diff.MergeResult;
+import org.xwiki.diff.MergeSink;
 import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.LogQueue;
 import org.xwiki.logging.event.LogEvent;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ComponentTest
@@ -151,6 +155,74 @@ void diffCharList() throws Exception
         assertEquals(Type.CHANGE, result.getPatch().get(0).getType());
     }
 
+    @Test
+    void diffWithAlgorithm() throws Exception
+    {
+        List<Character> previous = toCharacters("common prefix a middle b common suffix");
+        List<Character> next = toCharacters("common prefix c middle common suffix d");
+
+        DiffResult<Character> expected = this.diffManager.diff(previous, next, null);
+
+        DiffConfiguration<Character> configuration = new DiffConfiguration<>();
+        configuration.setAlgorithm(DiffConfiguration.Algorithm.MYERS_LINEAR_SPACE);
+        DiffResult<Character> result = this.diffManager.diff(previous, next, configuration);
+
+        assertEquals(toString(next), toString(result.getPatch().apply(previous)));
+        assertEquals(toString(next), toString(expected.getPatch().apply(previous)));
+
+        // The common prefix is not part of any delta
+        assertEquals(14, expected.getPatch().get(0).getPrevious().getIndex());
+        assertEquals(14, result.getPatch().get(0).getPrevious().getIndex());
+    }
+
+    @Test
+    void diffReturnsOriginalElements() throws Exception
+    {
+        String previousElement = new String("previous");
+        String nextElement = new String("next");
+        String insertedElement = new String("inserted");
+        List<String> previous = Arrays.asList("a", previousElement, "b", "c");
+        List<String> next = Arrays.asList("a", nextElement, "b", "c", insertedElement);
+
+        DiffResult<String> result = this.diffManager.diff(previous, next, null);
+
+        assertEquals(next, result.getPatch().apply(previous));
+        assertEquals(2, result.getPatch().size());
+
+        Delta<String> delta = result.getPatch().get(0);
+        assertEquals(Type.CHANGE, delta.getType());
+        assertEquals(1, delta.getPrevious().getIndex());
+        assertSame(previousElement, delta.getPrevious().getElements().get(0));
+        assertSame(nextElement, delta.getNext().getElements().get(0));
+
+        delta = result.getPatch().get(1);
+        assertEquals(Type.INSERT, delta.getType());
+        assertEquals(4, delta.getNext().getIndex());
+        assertSame(insertedElement, delta.getNext().getElements().get(0));
+    }
+
+    @Test
+    void diffWithTimeout() throws Exception
+    {
+        List<Integer> previous = new ArrayList<>();
+        List<Integer> next = new ArrayList<>();
+        for (int i = 0; i < 20000; ++i) {
+            previous.add(i % 2 == 0 ? i : -i);
+            next.add(i % 3 == 0 ? i : -i);
+        }
+
+        DiffConfiguration<Integer> configuration = new DiffConfiguration<>();
+        configuration.setTimeout(1);
+        DiffResult<Integer> result = this.diffManager.diff(previous, next, configuration);
+
+        assertEquals(1, result.getPatch().size());
+        assertEquals(Type.CHANGE, result.getPatch().get(0).getType());
+        // The common prefix is not part of the change
+        assertEquals(2, result.getPatch().get(0).getPrevious().getIndex());
+        assertEquals(next, result.getPatch().apply(previous));
+        assertEquals(1, result.getLog().getLogs(LogLevel.WARN).size());
+    }
+
     @ParameterizedTest
     @MethodSource("createConfigurations")
     void mergeStringList(MergeConfiguration<String> mergeConfiguration) throws Exception
@@ -1803,4 +1875,125 @@ void applyDecisionsOnLinesConflicts() throws Exception
             "Seventh line."
         ), result.getMerged());
     }
+
+    private MergeResult<Character> streamingMerge(String commonAncestor, String next, String current,
+        MergeConfiguration<Character> configuration) throws Exception
+    {
+        DefaultMergeResult<Character> result = new DefaultMergeResult<>(toCharacters(commonAncestor),
+            toCharacters(next), toCharacters(current));
+        result.setMerged(new ArrayList<>());
+
+        LogQueue log = this.diffManager.merge(toCharacters(commonAncestor).iterator(), toCharacters(next).iterator(),
+            toCharacters(current).iterator(), configuration, new MergeSink<Character>()
+            {
+                @Override
+                public void onElement(Character element)
+                {
+                    result.getMerged().add(element);
+                }
+
+                @Override
+                public void onConflict(Conflict<Character> conflict)
+                {
+                    result.addConflict(conflict);
+                }
+            });
+        result.getLog().addAll(log);
+
+        return result;
+    }
+
+    @Test
+    void streamingMerge() throws Exception
+    {
+        MergeConfiguration<Character> configuration = new MergeConfiguration<>();
+        configuration.setStreamingChunkSize(3);
+
+        MergeResult<Character> result = streamingMerge("abcdefghijklmnop", "abXcdefghijkYlmnop",
+            "abcdefZghijklmnoWp", configuration);
+
+        assertEquals("abXcdefZghijkYlmnoWp", toString(result.getMerged()));
+        assertTrue(result.getConflicts().isEmpty());
+
+        // Same result with everything read at once
+        configuration.setStreamingChunkSize(100);
+        result = streamingMerge("abcdefghijklmnop", "abXcdefghijkYlmnop", "abcdefZghijklmnoWp", configuration);
+        assertEquals("abXcdefZghijkYlmnoWp", toString(result.getMerged()));
+
+        // Insertions at the beginning and the end
+        configuration.setStreamingChunkSize(2);
+        result = streamingMerge("bcdefgh", "abcdefgh", "bcdefghi", configuration);
+        assertEquals("abcdefghi", toString(result.getMerged()));
+
+        result = streamingMerge("", "abc", "", configuration);
+        assertEquals("abc", toString(result.getMerged()));
+    }
+
+    @Test
+    void streamingMergeWithConflict() throws Exception
+    {
+        MergeConfiguration<Character> configuration = new MergeConfiguration<>();
+        configuration.setStreamingChunkSize(2);
+
+        MergeResult<Character> streamingResult = streamingMerge("abcdefghij", "abcdeXghij", "abcdeYghij",
+            configuration);
+        MergeResult<Character> result = this.diffManager.merge(toCharacters("abcdefghij"),
+            toCharacters("abcdeXghij"), toCharacters("abcdeYghij"), configuration);
+
+        assertEquals("abcdeYghij", toString(streamingResult.getMerged()));
+        assertEquals(result.getMerged(), streamingResult.getMerged());
+        assertEquals(1, streamingResult.getLog().getLogs(LogLevel.ERROR).size());
+        assertEquals(1, streamingResult.getConflicts().size());
+        assertEquals(5, streamingResult.getConflicts().get(0).getIndex());
+        assertEquals(result.getConflicts().get(0).getIndex(), streamingResult.getConflicts().get(0).getIndex());
+
+        // Decisions are matched using the index in the whole common ancestor
+        DefaultConflictDecision<Character> decision = new DefaultConflictDecision<>(result.getConflicts().get(0));
+        decision.setType(ConflictDecision.DecisionType.NEXT);
+        configuration.setConflictDecisionList(Collections.singletonList(decision));
+
+        streamingResult = streamingMerge("abcdefghij", "abcdeXghij", "abcdeYghij", configuration);
+
+        assertEquals("abcdeXghij", toString(streamingResult.getMerged()));
+        assertTrue(streamingResult.getConflicts().isEmpty());
+    }
+
+    @Test
+    void streamingMergeWithConflictAfterFirstChunkAndDifferentLengths() throws Exception
+    {
+        MergeConfiguration<Character> configuration = new MergeConfiguration<>();
+        configuration.setStreamingChunkSize(3);
+
+        // The next version is longer and the current version shorter than the common ancestor before the conflict
+        String commonAncestor = "abcdefghijklmnop";
+        String next = "XXXXabcdefghijklNnop";
+        String current = "acdefghijklMnop";
+
+        MergeResult<Character> streamingResult = streamingMerge(commonAncestor, next, current, configuration);
+        MergeResult<Character> result = this.diffManager.merge(toCharacters(commonAncestor), toCharacters(next),
+            toCharacters(current), configuration);
+
+        assertEquals(result.getMerged(), streamingResult.getMerged());
+        assertEquals(1, streamingResult.getConflicts().size());
+
+        // Each chunk of the conflict is located in the whole version it comes from
+        Conflict<Character> conflict = streamingResult.getConflicts().get(0);
+        assertEquals(12, conflict.getIndex());
+        assertEquals(12, conflict.getDeltaCurrent().getPrevious().getIndex());
+        assertEquals(11, conflict.getDeltaCurrent().getNext().getIndex());
+        assertEquals(List.of('M'), conflict.getDeltaCurrent().getNext().getElements());
+        assertEquals(12, conflict.getDeltaNext().getPrevious().getIndex());
+        assertEquals(16, conflict.getDeltaNext().getNext().getIndex());
+        assertEquals(List.of('N'), conflict.getDeltaNext().getNext().getElements());
+
+        // The decisions taken on the conflicts of the whole versions are applied
+        DefaultConflictDecision<Character> decision = new DefaultConflictDecision<>(conflict);
+        decision.setType(ConflictDecision.DecisionType.NEXT);
+        configuration.setConflictDecisionList(Collections.singletonList(decision));
+
+        streamingResult = streamingMerge(commonAncestor, next, current, configuration);
+
+        assertEquals("XXXXacdefghijklNnop", toString(streamingResult.getMerged()));
+        assertTrue(streamingResult.getConflicts().isEmpty());
+    }
 }
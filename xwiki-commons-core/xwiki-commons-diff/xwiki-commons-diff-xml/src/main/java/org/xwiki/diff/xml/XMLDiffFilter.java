@@ -39,6 +39,20 @@
      */
     void before(Document document);
 
+    /**
+     * Filters the two compared XML documents before the comparison. This allows a filter to share the work done on the
+     * content the two documents have in common.
+     *
+     * @param previousDocument the previous version of the content, to filter
+     * @param nextDocument the next version of the content, to filter
+     * @since 18.8.0RC1
+     */
+    default void before(Document previousDocument, Document nextDocument)
+    {
+        before(previousDocument);
+        before(nextDocument);
+    }
+
     /**
      * Filters the given XML document after the comparison.
      * 
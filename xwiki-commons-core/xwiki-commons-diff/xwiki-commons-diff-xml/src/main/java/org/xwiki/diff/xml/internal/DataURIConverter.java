@@ -40,4 +40,38 @@
      * @throws DiffException if the conversion fails
      */
     String convert(String url) throws DiffException;
+
+    /**
+     * Converts the given URL to a Data URI, unless the Data URI would be longer than the given limit.
+     * <p>
+     * Implementations should stop reading the response data as soon as the limit is reached. The default
+     * implementation converts the whole response and checks the length of the result.
+     *
+     * @param url the URL to convert
+     * @param maxLength the maximum length of the returned Data URI
+     * @return the data URI, or {@code null} if it would be longer than {@code maxLength}
+     * @throws DiffException if the conversion fails
+     * @since 18.8.0RC1
+     */
+    default String convert(String url, int maxLength) throws DiffException
+    {
+        String dataURI = convert(url);
+
+        return dataURI != null && dataURI.length() > maxLength ? null : dataURI;
+    }
+
+    /**
+     * The result of the conversion of an URL can be reused for a short time by the following conversions with the same
+     * key. Since the response usually depends on the context (e.g. the current user rights or the current wiki when the
+     * URL is relative), the key must include everything the response depends on, or be {@code null} to not reuse it.
+     *
+     * @param url the URL to convert
+     * @return the key identifying the conversion of the given URL in the current context, {@code null} (the default)
+     *         if the result of the conversion should not be reused
+     * @since 18.8.0RC1
+     */
+    default String getCacheKey(String url)
+    {
+        return null;
+    }
 }
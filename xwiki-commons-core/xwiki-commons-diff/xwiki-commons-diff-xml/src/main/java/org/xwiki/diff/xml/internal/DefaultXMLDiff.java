@@ -64,12 +64,14 @@ public class DefaultXMLDiff implements XMLDiff
     @Override
     public Map<Node, Patch<?>> diff(Node left, Node right, XMLDiffConfiguration config) throws DiffException
     {
+        XMLDiffContext context = XMLDiffContext.wrap(config);
         Map<Node, Patch<?>> patches = new LinkedHashMap<>();
         Patch<Node> rootPatch = new DefaultPatch<>();
 
         if (areSimilar(left, right)) {
-            if (left != null) {
-                patches.putAll(diffSimilarNodes(left, right, config));
+            // Equal subtrees don't have any difference.
+            if (!context.areEqual(left, right)) {
+                patches.putAll(diffSimilarNodes(left, right, context));
             }
         } else if (left == null) {
             // Insert right.
@@ -123,14 +125,14 @@ private Map<Node, Patch<?>> diffSimilarNodes(Node left, Node right, XMLDiffConfi
     @Override
     public Map<Node, Patch<?>> diff(NodeList left, NodeList right, XMLDiffConfiguration config) throws DiffException
     {
-        return diff(XMLDiffUtils.asList(left), XMLDiffUtils.asList(right), config);
+        return diff(XMLDiffUtils.asList(left), XMLDiffUtils.asList(right), XMLDiffContext.wrap(config));
     }
 
     @Override
     public Map<Node, Patch<?>> diff(NamedNodeMap left, NamedNodeMap right, XMLDiffConfiguration config)
         throws DiffException
     {
-        return diff(asMap(left), asMap(right), config);
+        return diff(asMap(left), asMap(right), XMLDiffContext.wrap(config));
     }
 
     private Map<String, Node> asMap(NamedNodeMap namedNodeMap)
@@ -253,17 +255,63 @@ protected boolean areSimilar(List<Node> left, List<Node> right)
 
     protected boolean areVerySimilar(Node left, Node right, XMLDiffConfiguration config)
     {
-        return areSimilar(left, right) && (left == null || getDiffPercentage(left.getTextContent(),
-            right.getTextContent(), config) < config.getSimilarityThreshold());
+        if (!areSimilar(left, right)) {
+            return false;
+        }
+
+        double threshold = config.getSimilarityThreshold();
+        if (left == null || threshold <= 0) {
+            // The difference percentage is never negative.
+            return left == null;
+        }
+
+        XMLDiffContext context = XMLDiffContext.wrap(config);
+        if (context.areEqual(left, right)) {
+            // Equal nodes have the same text content.
+            return true;
+        }
+
+        List<Object> leftList = context.getTextTokens(left);
+        List<Object> rightList = context.getTextTokens(right);
+        if (leftList != null && rightList != null && !leftList.equals(rightList)
+            && getMinDiffPercentage(left, right, context) >= threshold) {
+            // No need to compute the actual difference percentage.
+            return false;
+        }
+
+        return getDiffPercentage(leftList, rightList) < threshold;
+    }
+
+    /**
+     * Compute a lower bound of the difference percentage of two different texts, much cheaper than the actual
+     * difference percentage: each token which cannot be paired with an identical token from the other text is part of
+     * a delta.
+     */
+    private double getMinDiffPercentage(Node left, Node right, XMLDiffContext context)
+    {
+        List<Object> leftList = context.getTextTokens(left);
+        List<Object> rightList = context.getTextTokens(right);
+        // Note that the max length can't be zero because leftList and rightList are different.
+        int maxLength = Math.max(leftList.size(), rightList.size());
+
+        // The length difference is a first lower bound.
+        if ((double) Math.abs(leftList.size() - rightList.size()) / maxLength >= context.getSimilarityThreshold()) {
+            return 1;
+        }
+
+        Map<Object, Integer> leftCounts = context.getTextTokenCounts(left);
+        Map<Object, Integer> rightCounts = context.getTextTokenCounts(right);
+        int common = 0;
+        for (Map.Entry<Object, Integer> entry : leftCounts.entrySet()) {
+            common += Math.min(entry.getValue(), rightCounts.getOrDefault(entry.getKey(), 0));
+        }
+
+        return (double) (maxLength - common) / maxLength;
     }
 
-    private double getDiffPercentage(String left, String right, XMLDiffConfiguration config)
+    private double getDiffPercentage(List<Object> leftList, List<Object> rightList)
     {
-        if (left != null && right != null) {
-            // Use the text node splitter because the difference percentage is computed on the inner text.
-            StringSplitter splitter = config.getSplitterForNodeType(Node.TEXT_NODE);
-            List<Object> leftList = splitter.split(left);
-            List<Object> rightList = splitter.split(right);
+        if (leftList != null && rightList != null) {
             if (leftList.equals(rightList)) {
                 return 0;
             } else {
@@ -280,7 +328,7 @@ private double getDiffPercentage(String left, String right, XMLDiffConfiguration
                     return 1;
                 }
             }
-        } else if (left == right) {
+        } else if (leftList == rightList) {
             // Both are null.
             return 0;
         } else {
@@ -19,13 +19,26 @@
  */
 package org.xwiki.diff.xml.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.w3c.dom.Document;
@@ -33,11 +46,23 @@
 import org.w3c.dom.Node;
 import org.w3c.dom.UserDataHandler;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.diff.DiffException;
 import org.xwiki.diff.xml.XMLDiffFilter;
 
 /**
  * Embeds the images in the HTML before computing the changes and restores the original image location afterwards. The
  * goal is to compute the changes using the image content (ignoring the image location).
+ * <p>
+ * Each distinct image location of the two compared documents is converted only once, and the distinct locations are
+ * converted concurrently. When the {@link DataURIConverter} provides a cache key for a location (which includes
+ * everything the conversion depends on, like the current user and wiki), the data URI is also kept in a small cache for
+ * a short time so that the following diffs don't fetch the same image again. Images producing very large data URIs are
+ * not embedded.
  * 
  * @version $Id$
  * @since 11.10.1
@@ -46,7 +71,7 @@
 @Component
 @Singleton
 @Named("html/imageEmbedder")
-public class HTMLImageEmbedder implements XMLDiffFilter
+public class HTMLImageEmbedder implements XMLDiffFilter, Disposable
 {
     private static final String ATTRIBUTE_SRC = "src";
 
@@ -54,6 +79,27 @@ public class HTMLImageEmbedder implements XMLDiffFilter
 
     private static final String USER_DATA_IMAGE_DATA_URI = "xwiki-html-diff-image-dataURI";
 
+    /**
+     * The maximum number of images converted at the same time.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * The maximum length of an embedded data URI (about 1MB of image data).
+     */
+    private static final int MAX_DATA_URI_LENGTH = 1400000;
+
+    /**
+     * The maximum number of data URIs kept in the cache.
+     */
+    private static final int CACHE_SIZE = 100;
+
+    /**
+     * How long the data URIs are kept in the cache. We don't know when the image behind an URL changes so this must
+     * remain short.
+     */
+    private static final long CACHE_DURATION = TimeUnit.MINUTES.toNanos(1);
+
     private static final UserDataHandler USER_DATA_HANDLER = new UserDataHandler()
     {
         @Override
@@ -65,6 +111,16 @@ public void handle(short operation, String key, Object data, Node source, Node d
         }
     };
 
+    /**
+     * A cached data URI.
+     *
+     * @param dataURI the data URI, or {@code null} if the image is too large to be embedded
+     * @param time when the data URI was computed, as returned by {@link System#nanoTime()}
+     */
+    private record CachedDataURI(String dataURI, long time)
+    {
+    }
+
     @Inject
     private Logger logger;
 
@@ -75,10 +131,73 @@ public void handle(short operation, String key, Object data, Node source, Node d
     @Inject
     private Provider<DataURIConverter> dataURIConverterProvider;
 
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    /**
+     * The threads converting the images, shared by all the documents.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The data URI for each conversion cache key, least recently used first.
+     */
+    private final Map<String, CachedDataURI> cache =
+        Collections.synchronizedMap(new LinkedHashMap<>(CACHE_SIZE, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDataURI> eldest)
+            {
+                return size() > CACHE_SIZE;
+            }
+        });
+
+    /**
+     * Create the threads converting the images.
+     */
+    public HTMLImageEmbedder()
+    {
+        BasicThreadFactory threadFactory =
+            new BasicThreadFactory.Builder().namingPattern("HTML diff image embedder %d").daemon(true).build();
+        this.executor =
+            new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.executor.shutdownNow();
+    }
+
     @Override
     public void before(Document document)
     {
-        getImages(document).forEach(this::before);
+        embed(getImages(document));
+    }
+
+    @Override
+    public void before(Document previousDocument, Document nextDocument)
+    {
+        // The images the two versions have in common are converted only once
+        List<Element> images = new ArrayList<>(getImages(previousDocument));
+        images.addAll(getImages(nextDocument));
+
+        embed(images);
+    }
+
+    private void embed(List<Element> images)
+    {
+        Set<String> sources = new LinkedHashSet<>();
+        images.forEach(image -> sources.add(image.getAttribute(ATTRIBUTE_SRC)));
+        Map<String, String> dataURIs = convert(sources);
+
+        images.forEach(image -> before(image, dataURIs.get(image.getAttribute(ATTRIBUTE_SRC))));
     }
 
     @Override
@@ -93,11 +212,133 @@ private List<Element> getImages(Document document)
             .map(Element.class::cast).toList();
     }
 
-    private void before(Element image)
+    /**
+     * @param sources the image locations to convert
+     * @return the data URI of each image location which could be converted and is not too large
+     */
+    private Map<String, String> convert(Set<String> sources)
+    {
+        Map<String, String> dataURIs = new HashMap<>();
+
+        // The cache keys depend on the current context so they are computed before converting in other threads
+        DataURIConverter converter = this.dataURIConverterProvider.get();
+        Map<String, String> cacheKeys = new HashMap<>();
+        List<String> toConvert = new ArrayList<>();
+        for (String source : sources) {
+            String cacheKey = converter.getCacheKey(source);
+            CachedDataURI cached = cacheKey != null ? this.cache.get(cacheKey) : null;
+            if (cached != null && System.nanoTime() - cached.time() < CACHE_DURATION) {
+                dataURIs.put(source, cached.dataURI());
+            } else {
+                toConvert.add(source);
+                if (cacheKey != null) {
+                    cacheKeys.put(source, cacheKey);
+                }
+            }
+        }
+
+        if (toConvert.size() > 1) {
+            convertConcurrently(toConvert, dataURIs);
+        } else {
+            for (String source : toConvert) {
+                try {
+                    dataURIs.put(source, convert(source));
+                } catch (Exception e) {
+                    logFailure(source, e);
+                }
+            }
+        }
+
+        // Remember the converted images (including the too large ones) but not the failures
+        long time = System.nanoTime();
+        cacheKeys.forEach((source, cacheKey) -> {
+            if (dataURIs.containsKey(source)) {
+                this.cache.put(cacheKey, new CachedDataURI(dataURIs.get(source), time));
+            }
+        });
+
+        return dataURIs;
+    }
+
+    private void convertConcurrently(List<String> sources, Map<String, String> dataURIs)
     {
-        String source = image.getAttribute(ATTRIBUTE_SRC);
+        List<Future<String>> futures = new ArrayList<>(sources.size());
         try {
-            String dataURI = this.dataURIConverterProvider.get().convert(source);
+            for (String source : sources) {
+                // The conversion may need the current execution context (e.g. to access the current user rights).
+                ExecutionContext context = cloneExecutionContext();
+                futures.add(this.executor.submit(() -> convert(source, context)));
+            }
+
+            for (int i = 0; i < sources.size(); i++) {
+                try {
+                    dataURIs.put(sources.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    logFailure(sources.get(i), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            this.logger.warn("Interrupted while embedding the images");
+        } finally {
+            // Don't start converting images nobody is waiting for anymore (without interrupting the running conversions
+            // since they access the network)
+            futures.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private ExecutionContext cloneExecutionContext()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        if (context != null) {
+            try {
+                return this.executionContextManager.clone(context);
+            } catch (Exception e) {
+                this.logger.debug("Failed to clone the execution context, the image will be embedded without it", e);
+            }
+        }
+
+        return null;
+    }
+
+    private String convert(String source, ExecutionContext context) throws DiffException
+    {
+        if (context != null) {
+            this.execution.setContext(context);
+        }
+
+        try {
+            return convert(source);
+        } finally {
+            if (context != null) {
+                this.execution.removeContext();
+            }
+        }
+    }
+
+    private String convert(String source) throws DiffException
+    {
+        String dataURI = this.dataURIConverterProvider.get().convert(source, MAX_DATA_URI_LENGTH);
+
+        if (dataURI == null) {
+            this.logger.debug("Image [{}] is too large to be embedded", source);
+        }
+
+        return dataURI;
+    }
+
+    private void logFailure(String source, Throwable e)
+    {
+        this.logger.warn("Failed to embed image [{}]. Root cause is [{}].", source,
+            ExceptionUtils.getRootCauseMessage(e));
+    }
+
+    private void before(Element image, String dataURI)
+    {
+        if (dataURI != null) {
+            String source = image.getAttribute(ATTRIBUTE_SRC);
             image.setAttribute(ATTRIBUTE_SRC, dataURI);
             // The user data handler is needed in order to copy the user data when nodes are cloned, which happens when
             // DOM changes are being marked.
@@ -105,9 +346,6 @@ private void before(Element image)
             // changes are being marked and this should invalidate the original image source.
             image.setUserData(USER_DATA_IMAGE_DATA_URI, dataURI, USER_DATA_HANDLER);
             image.setUserData(USER_DATA_IMAGE_SRC, source, USER_DATA_HANDLER);
-        } catch (Exception e) {
-            this.logger.warn("Failed to embed image [{}]. Root cause is [{}].", source,
-                ExceptionUtils.getRootCauseMessage(e));
         }
     }
 
@@ -95,8 +95,9 @@ public void initialize() throws InitializationException
     public String diff(String previousHTML, String nextHTML, XMLDiffConfiguration config) throws DiffException
     {
         List<XMLDiffFilter> filters = config.getFilters();
-        Document previousDocument = filterBeforeDiff(parseHTML(previousHTML), filters);
-        Document nextDocument = filterBeforeDiff(parseHTML(nextHTML), filters);
+        Document previousDocument = parseHTML(previousHTML);
+        Document nextDocument = parseHTML(nextHTML);
+        filterBeforeDiff(previousDocument, nextDocument, filters);
         if (!this.htmlDiffMarker.markDiff(previousDocument, nextDocument, config)) {
             // No changes detected.
             return "";
@@ -141,16 +142,15 @@ private String unwrap(String html)
         return html.substring(start, end);
     }
 
-    private Document filterBeforeDiff(Document document, List<XMLDiffFilter> filters)
+    private void filterBeforeDiff(Document previousDocument, Document nextDocument, List<XMLDiffFilter> filters)
     {
         for (XMLDiffFilter filter : filters) {
             try {
-                filter.before(document);
+                filter.before(previousDocument, nextDocument);
             } catch (Exception e) {
                 this.logger.warn("Failed to apply filter before diff: [{}]", ExceptionUtils.getRootCauseMessage(e));
             }
         }
-        return document;
     }
 
     private Document filterAfterDiff(Document document, List<XMLDiffFilter> filters)
@@ -0,0 +1,174 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff.xml.internal;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xwiki.diff.xml.StringSplitter;
+import org.xwiki.diff.xml.XMLDiffConfiguration;
+import org.xwiki.diff.xml.XMLDiffFilter;
+
+/**
+ * The configuration of an XML diff along with the information computed about the compared nodes, so that it's computed
+ * only once per node while the diff is in progress. The compared nodes must not be modified during the diff.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class XMLDiffContext implements XMLDiffConfiguration
+{
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final XMLDiffConfiguration configuration;
+
+    private final Map<Node, Long> fingerprints = new IdentityHashMap<>();
+
+    private final Map<Node, List<Object>> textTokens = new IdentityHashMap<>();
+
+    private final Map<Node, Map<Object, Integer>> textTokenCounts = new IdentityHashMap<>();
+
+    /**
+     * @param configuration the configuration of the diff
+     */
+    public XMLDiffContext(XMLDiffConfiguration configuration)
+    {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @param configuration the configuration of the diff
+     * @return the given configuration if it's already a context, a new context wrapping it otherwise
+     */
+    public static XMLDiffContext wrap(XMLDiffConfiguration configuration)
+    {
+        return configuration instanceof XMLDiffContext context ? context : new XMLDiffContext(configuration);
+    }
+
+    @Override
+    public List<XMLDiffFilter> getFilters()
+    {
+        return this.configuration.getFilters();
+    }
+
+    @Override
+    public StringSplitter getSplitterForNodeType(short nodeType)
+    {
+        return this.configuration.getSplitterForNodeType(nodeType);
+    }
+
+    @Override
+    public double getSimilarityThreshold()
+    {
+        return this.configuration.getSimilarityThreshold();
+    }
+
+    /**
+     * @param left the left side of the comparison
+     * @param right the right side of the comparison
+     * @return {@code true} if the given nodes are equal, including their descendants (see {@link Node#isEqualNode})
+     */
+    public boolean areEqual(Node left, Node right)
+    {
+        if (left == null || right == null) {
+            return left == right;
+        }
+
+        // The fingerprints are compared first so that different subtrees are (most of the time) not walked.
+        return left == right || (getFingerprint(left) == getFingerprint(right) && left.isEqualNode(right));
+    }
+
+    /**
+     * @param node a node
+     * @return a hash of the node and its descendants, computed bottom-up and cached, consistent with
+     *         {@link Node#isEqualNode(Node)}
+     */
+    public long getFingerprint(Node node)
+    {
+        Long fingerprint = this.fingerprints.get(node);
+
+        if (fingerprint == null) {
+            long hash = node.getNodeType();
+            hash = HASH_MULTIPLIER * hash + Objects.hashCode(node.getNodeName());
+            hash = HASH_MULTIPLIER * hash + Objects.hashCode(node.getLocalName());
+            hash = HASH_MULTIPLIER * hash + Objects.hashCode(node.getNamespaceURI());
+            hash = HASH_MULTIPLIER * hash + Objects.hashCode(node.getPrefix());
+            hash = HASH_MULTIPLIER * hash + Objects.hashCode(node.getNodeValue());
+
+            // The attributes order doesn't matter.
+            NamedNodeMap attributes = node.getAttributes();
+            if (attributes != null) {
+                long attributesHash = 0;
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    attributesHash += getFingerprint(attributes.item(i));
+                }
+                hash = HASH_MULTIPLIER * hash + attributesHash;
+            }
+
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                hash = HASH_MULTIPLIER * hash + getFingerprint(child);
+            }
+
+            fingerprint = hash;
+            this.fingerprints.put(node, fingerprint);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * @param node a node
+     * @return the text content of the node split using the text node splitter, or {@code null} if the node has no
+     *         text content
+     */
+    public List<Object> getTextTokens(Node node)
+    {
+        if (this.textTokens.containsKey(node)) {
+            return this.textTokens.get(node);
+        }
+
+        String textContent = node.getTextContent();
+        List<Object> tokens =
+            textContent != null ? getSplitterForNodeType(Node.TEXT_NODE).split(textContent) : null;
+        this.textTokens.put(node, tokens);
+
+        return tokens;
+    }
+
+    /**
+     * @param node a node with a text content
+     * @return the number of occurrences of each token of the text content of the node
+     */
+    public Map<Object, Integer> getTextTokenCounts(Node node)
+    {
+        return this.textTokenCounts.computeIfAbsent(node, key -> {
+            Map<Object, Integer> counts = new HashMap<>();
+            for (Object token : getTextTokens(key)) {
+                counts.merge(token, 1, Integer::sum);
+            }
+            return counts;
+        });
+    }
+}
@@ -38,6 +38,9 @@
 import org.xwiki.xml.XMLUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for {@link DefaultXMLDiff}.
@@ -55,14 +58,20 @@
 
     private Document document;
 
+    private DOMImplementationLS lsImpl;
+
     @BeforeEach
     void setUp() throws Exception
     {
-        DOMImplementationLS lsImpl =
-            (DOMImplementationLS) DOMImplementationRegistry.newInstance().getDOMImplementation("LS 3.0");
-        LSInput input = lsImpl.createLSInput();
-        input.setStringData("<root><child/>text</root>");
-        this.document = XMLUtils.parse(input);
+        this.lsImpl = (DOMImplementationLS) DOMImplementationRegistry.newInstance().getDOMImplementation("LS 3.0");
+        this.document = parse("<root><child/>text</root>");
+    }
+
+    private Document parse(String xml)
+    {
+        LSInput input = this.lsImpl.createLSInput();
+        input.setStringData(xml);
+        return XMLUtils.parse(input);
     }
 
     @Test
@@ -113,4 +122,42 @@ void nonSimilarNodeChange() throws Exception
         assertEquals(Collections.singletonList(child), delta.getPrevious().getElements());
         assertEquals(Collections.singletonList(text), delta.getNext().getElements());
     }
+
+    @Test
+    void equalSubtrees() throws Exception
+    {
+        Document otherDocument = parse("<root><child/>text</root>");
+
+        assertTrue(this.defaultXMLDiff.diff(this.document, otherDocument, this.config).isEmpty());
+
+        XMLDiffContext context = new XMLDiffContext(this.config);
+        assertEquals(context.getFingerprint(this.document.getDocumentElement()),
+            context.getFingerprint(otherDocument.getDocumentElement()));
+        assertTrue(context.areEqual(this.document.getDocumentElement(), otherDocument.getDocumentElement()));
+        assertFalse(context.areEqual(this.document.getDocumentElement().getFirstChild(),
+            this.document.getDocumentElement().getLastChild()));
+    }
+
+    @Test
+    void areVerySimilar()
+    {
+        when(this.config.getSimilarityThreshold()).thenReturn(.5);
+        when(this.config.getSplitterForNodeType(Node.TEXT_NODE)).thenReturn(new CharacterStringSplitter());
+
+        Node left = parse("<p>abcdefgh</p>").getDocumentElement();
+
+        assertTrue(this.defaultXMLDiff.areVerySimilar(left, parse("<p>abcdefgh</p>").getDocumentElement(),
+            this.config));
+        assertTrue(this.defaultXMLDiff.areVerySimilar(left, parse("<p>abcdXfgh</p>").getDocumentElement(),
+            this.config));
+        // Same characters in a different order.
+        assertFalse(this.defaultXMLDiff.areVerySimilar(left, parse("<p>hgfedcba</p>").getDocumentElement(),
+            this.config));
+        // Too many different characters.
+        assertFalse(this.defaultXMLDiff.areVerySimilar(left, parse("<p>abXYZWVh</p>").getDocumentElement(),
+            this.config));
+        // Too different lengths.
+        assertFalse(this.defaultXMLDiff.areVerySimilar(left, parse("<p>ab</p>").getDocumentElement(),
+            this.config));
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.diff.xml.internal;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.bootstrap.DOMImplementationRegistry;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.diff.DiffException;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.xml.XMLUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link HTMLImageEmbedder}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HTMLImageEmbedderTest
+{
+    @InjectMockComponents
+    private HTMLImageEmbedder imageEmbedder;
+
+    @MockComponent
+    private DataURIConverter dataURIConverter;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    private DOMImplementationLS lsImpl;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        this.lsImpl = (DOMImplementationLS) DOMImplementationRegistry.newInstance().getDOMImplementation("LS 3.0");
+
+        when(this.dataURIConverter.convert(anyString(), anyInt())).thenCallRealMethod();
+        when(this.dataURIConverter.convert("alice.png")).thenReturn("data:image/png;base64,ABCD");
+        when(this.dataURIConverter.convert("bob.png")).thenReturn("data:image/png;base64,DCBA");
+    }
+
+    private Document parse(String xml)
+    {
+        LSInput input = this.lsImpl.createLSInput();
+        input.setStringData(xml);
+        return XMLUtils.parse(input);
+    }
+
+    private String getSource(Document document, int index)
+    {
+        return ((Element) document.getElementsByTagName("img").item(index)).getAttribute("src");
+    }
+
+    @Test
+    void beforeAndAfter() throws Exception
+    {
+        ExecutionContext context = new ExecutionContext();
+        ExecutionContext clonedContext = new ExecutionContext();
+        when(this.execution.getContext()).thenReturn(context);
+        when(this.executionContextManager.clone(context)).thenReturn(clonedContext);
+
+        Document document = parse("<p><img src=\"alice.png\"/><img src=\"bob.png\"/><img src=\"alice.png\"/></p>");
+
+        this.imageEmbedder.before(document);
+
+        assertEquals("data:image/png;base64,ABCD", getSource(document, 0));
+        assertEquals("data:image/png;base64,DCBA", getSource(document, 1));
+        assertEquals("data:image/png;base64,ABCD", getSource(document, 2));
+
+        // Each image is converted only once, with the current execution context
+        verify(this.dataURIConverter).convert("alice.png");
+        verify(this.dataURIConverter).convert("bob.png");
+        verify(this.execution, times(2)).setContext(clonedContext);
+        verify(this.execution, times(2)).removeContext();
+
+        this.imageEmbedder.after(document);
+
+        assertEquals("alice.png", getSource(document, 0));
+        assertEquals("bob.png", getSource(document, 1));
+        assertEquals("alice.png", getSource(document, 2));
+
+        // The data URIs are not shared between documents since they depend on the current user and wiki
+        Document otherDocument = parse("<p><img src=\"bob.png\"/></p>");
+        this.imageEmbedder.before(otherDocument);
+
+        assertEquals("data:image/png;base64,DCBA", getSource(otherDocument, 0));
+        verify(this.dataURIConverter, times(2)).convert("bob.png");
+    }
+
+    @Test
+    void beforeWithBothDocuments() throws Exception
+    {
+        Document previousDocument = parse("<p><img src=\"alice.png\"/><img src=\"bob.png\"/></p>");
+        Document nextDocument = parse("<p><img src=\"bob.png\"/></p>");
+
+        this.imageEmbedder.before(previousDocument, nextDocument);
+
+        assertEquals("data:image/png;base64,ABCD", getSource(previousDocument, 0));
+        assertEquals("data:image/png;base64,DCBA", getSource(previousDocument, 1));
+        assertEquals("data:image/png;base64,DCBA", getSource(nextDocument, 0));
+
+        // The image both versions have in common is converted only once
+        verify(this.dataURIConverter).convert("alice.png");
+        verify(this.dataURIConverter).convert("bob.png");
+    }
+
+    @Test
+    void beforeWithCacheKey() throws Exception
+    {
+        when(this.dataURIConverter.getCacheKey(anyString()))
+            .then(invocation -> "alice@wiki:" + invocation.getArgument(0));
+        when(this.dataURIConverter.convert("large.png"))
+            .thenReturn("data:image/png;base64," + StringUtils.repeat('A', 2000000));
+
+        this.imageEmbedder.before(parse("<p><img src=\"bob.png\"/><img src=\"large.png\"/></p>"));
+
+        Document document = parse("<p><img src=\"bob.png\"/><img src=\"large.png\"/></p>");
+        this.imageEmbedder.before(document);
+
+        assertEquals("data:image/png;base64,DCBA", getSource(document, 0));
+        assertEquals("large.png", getSource(document, 1));
+
+        // The conversions are reused for the same cache key, including the too large images
+        verify(this.dataURIConverter).convert("bob.png");
+        verify(this.dataURIConverter).convert("large.png");
+
+        // But not for another one (e.g. another user)
+        when(this.dataURIConverter.getCacheKey(anyString()))
+            .then(invocation -> "bob@wiki:" + invocation.getArgument(0));
+        this.imageEmbedder.before(parse("<p><img src=\"bob.png\"/></p>"));
+
+        verify(this.dataURIConverter, times(2)).convert("bob.png");
+    }
+
+    @Test
+    void beforeWithFailureAndLargeImage() throws Exception
+    {
+        when(this.dataURIConverter.convert("carol.png")).thenThrow(new DiffException("Not found"));
+        when(this.dataURIConverter.convert("large.png"))
+            .thenReturn("data:image/png;base64," + StringUtils.repeat('A', 2000000));
+
+        Document document = parse("<p><img src=\"alice.png\"/><img src=\"carol.png\"/><img src=\"large.png\"/></p>");
+
+        this.imageEmbedder.before(document);
+
+        assertEquals("data:image/png;base64,ABCD", getSource(document, 0));
+        assertEquals("carol.png", getSource(document, 1));
+        assertEquals("large.png", getSource(document, 2));
+
+        assertEquals("Failed to embed image [carol.png]. Root cause is [DiffException: Not found].",
+            this.logCapture.getMessage(0));
+
+        // Nothing is remembered between documents without cache key
+        this.imageEmbedder.before(parse("<p><img src=\"carol.png\"/><img src=\"large.png\"/></p>"));
+
+        verify(this.dataURIConverter, times(2)).convert("large.png");
+        verify(this.dataURIConverter, times(2)).convert("carol.png");
+        assertEquals("Failed to embed image [carol.png]. Root cause is [DiffException: Not found].",
+            this.logCapture.getMessage(1));
+    }
+}
@@ -50,6 +50,8 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -94,6 +96,7 @@ void configure(MockitoComponentManager componentManager) throws Exception
         this.images.put("bob.png", "data:image/png;base64,DCBA");
         this.images.put("images/bob.png", "data:image/png;base64,DCBA");
 
+        when(this.dataURIConverter.convert(any(String.class), anyInt())).thenCallRealMethod();
         when(this.dataURIConverter.convert(any(String.class))).thenAnswer(
             (Answer<String>) invocation -> images.getOrDefault(invocation.getArgument(0),
                 invocation.getArgument(0)));
@@ -132,19 +135,20 @@ void verifyXMLDiffFiltersThrowingExceptions() throws Exception
         XMLDiffFilter alice = mock("alice");
         doThrow(new RuntimeException("before alice failed!")).when(alice).before(any(Document.class));
         doThrow(new RuntimeException("after alice failed!")).when(alice).after(any(Document.class));
+        doCallRealMethod().when(alice).before(any(Document.class), any(Document.class));
 
         XMLDiffFilter bob = mock("bob");
+        doCallRealMethod().when(bob).before(any(Document.class), any(Document.class));
         this.config.getFilters().addFirst(alice);
         this.config.getFilters().add(bob);
 
         this.unifiedHTMLDiffManager.diff("<p>one</p>", "<p>two</p>", this.config);
 
+        // The two documents are filtered at once
         assertEquals("Failed to apply filter before diff: [RuntimeException: before alice failed!]",
             this.logCapture.getMessage(0));
-        assertEquals("Failed to apply filter before diff: [RuntimeException: before alice failed!]",
-            this.logCapture.getMessage(1));
         assertEquals("Failed to apply filter after diff: [RuntimeException: after alice failed!]",
-            this.logCapture.getMessage(2));
+            this.logCapture.getMessage(1));
 
         verify(bob, times(2)).before(any(Document.class));
         verify(bob).after(any(Document.class));
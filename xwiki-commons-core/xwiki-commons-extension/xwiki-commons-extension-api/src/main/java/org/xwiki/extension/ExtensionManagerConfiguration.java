@@ -116,4 +116,84 @@ default int getIndexInterval()
     {
         return DEFAULT_INDEX_INTERVAL;
     }
+
+    /**
+     * @return true if the configured repositories should be queried concurrently when resolving an extension
+     * @since 18.8.0RC1
+     */
+    default boolean isParallelResolveEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * @return the number of milliseconds to wait for the answer of a repository before also querying the next one when
+     *         resolving an extension in parallel, 0 or less to query all of them at the same time
+     * @since 18.8.0RC1
+     */
+    default long getParallelResolveHedgingDelay()
+    {
+        return 0;
+    }
+
+    /**
+     * @return the number of extension dependencies resolved at the same time before computing an install plan, 0 or
+     *         less to resolve them while computing the plan. The default is 0 (disabled).
+     * @since 18.8.0RC1
+     */
+    default int getInstallPlanPrefetchThreads()
+    {
+        return 0;
+    }
+
+    /**
+     * @return the number of extension files downloaded at the same time before storing them in the local repository
+     *         during an install, 0 or less to download them one after the other while storing them. The default is 0
+     *         (disabled).
+     * @since 18.8.0RC1
+     */
+    default int getInstallDownloadThreads()
+    {
+        return 0;
+    }
+
+    /**
+     * @return true if the list of the local extensions descriptors should be stored in an index file to not have to
+     *         go through the whole local repository folder at each restart
+     * @since 18.8.0RC1
+     */
+    default boolean isLocalRepositoryIndexEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * @return true if the configured repositories should be searched concurrently
+     * @since 18.8.0RC1
+     */
+    default boolean isParallelSearchEnabled()
+    {
+        return false;
+    }
+
+    /**
+     * @return the number of milliseconds to wait for the answer of each repository when searching them in parallel,
+     *         the repositories which did not answer in time being ignored, 0 or less to wait as long as needed. The
+     *         default is 10000 (10 seconds).
+     * @since 18.8.0RC1
+     */
+    default long getParallelSearchTimeout()
+    {
+        return 10000;
+    }
+
+    /**
+     * @return the number of seconds during which the descriptor of an extension resolved in a remote repository is
+     *         reused without asking the repository again, 0 or less to not cache them
+     * @since 18.8.0RC1
+     */
+    default long getRemoteMetadataCacheTTL()
+    {
+        return 0;
+    }
 }
@@ -92,6 +92,14 @@ public class DefaultExtensionManagerConfiguration implements ExtensionManagerCon
 
     private static final String CK_IGNORED_DEPENDENCIES = CK_PREFIX + "ignoredDependencies";
 
+    private static final String CK_RESOLVE_PREFIX = CK_PREFIX + "resolve.";
+
+    private static final String CK_SEARCH_PREFIX = CK_PREFIX + "search.";
+
+    private static final String CK_PARALLEL = "parallel";
+
+    private static final long DEFAULT_SEARCH_TIMEOUT = 10000;
+
     private static final Set<String> DEFAULT_IGNORED_DEPENDENCIES =
         new HashSet<>(Arrays.asList("stax:stax", "javax.xml.stream:stax-api", "stax:stax-api", "xalan:xalan",
             "xalan:serializer", "xml-apis:xml-apis", "xerces:xmlParserAPIs"));
@@ -373,4 +381,52 @@ public boolean isIgnoredDependency(ExtensionDependency dependency)
 
         return ignoredDependencies.contains(dependency.getId());
     }
+
+    @Override
+    public boolean isParallelResolveEnabled()
+    {
+        return this.configuration.get().getProperty(CK_RESOLVE_PREFIX + CK_PARALLEL, false);
+    }
+
+    @Override
+    public long getParallelResolveHedgingDelay()
+    {
+        return this.configuration.get().getProperty(CK_RESOLVE_PREFIX + "hedgingDelay", 0L);
+    }
+
+    @Override
+    public int getInstallPlanPrefetchThreads()
+    {
+        return this.configuration.get().getProperty(CK_RESOLVE_PREFIX + "prefetchThreads", 0);
+    }
+
+    @Override
+    public int getInstallDownloadThreads()
+    {
+        return this.configuration.get().getProperty(CK_PREFIX + "install.downloadThreads", 0);
+    }
+
+    @Override
+    public boolean isLocalRepositoryIndexEnabled()
+    {
+        return this.configuration.get().getProperty(CK_PREFIX + "localRepository.index", false);
+    }
+
+    @Override
+    public boolean isParallelSearchEnabled()
+    {
+        return this.configuration.get().getProperty(CK_SEARCH_PREFIX + CK_PARALLEL, false);
+    }
+
+    @Override
+    public long getParallelSearchTimeout()
+    {
+        return this.configuration.get().getProperty(CK_SEARCH_PREFIX + "timeout", DEFAULT_SEARCH_TIMEOUT);
+    }
+
+    @Override
+    public long getRemoteMetadataCacheTTL()
+    {
+        return this.configuration.get().getProperty(CK_REPOSITORIES_PREFIX + "cacheTTL", 0L);
+    }
 }
@@ -167,6 +167,16 @@ public void setChildren(Collection<? extends ExtensionPlanNode> children)
          */
         private final Map<String, Set<String>> previousExtensions = new HashMap<>();
 
+        /**
+         * {@code <id, extension>}
+         */
+        private final Map<ExtensionId, Extension> resolvedExtensions = new HashMap<>();
+
+        /**
+         * {@code <dependency, extension>}
+         */
+        private final Map<ExtensionDependency, Extension> resolvedDependencies = new HashMap<>();
+
         private ModifableExtensionPlanNode getExtensionNode(String id, String namespace)
         {
             Map<String, ModifableExtensionPlanNode> extensionsById = this.extensionsNode.get(id);
@@ -247,6 +257,8 @@ public void clear()
         {
             this.extensionsNode.clear();
             this.previousExtensions.clear();
+            this.resolvedExtensions.clear();
+            this.resolvedDependencies.clear();
         }
     }
 
@@ -294,6 +306,8 @@ protected void addExtensionToProcess(Map<ExtensionId, Collection<String>> extens
 
     protected void start(Map<ExtensionId, Collection<String>> extensionsByNamespace) throws Exception
     {
+        prefetch(extensionsByNamespace);
+
         this.progressManager.pushLevelProgress(extensionsByNamespace.size(), this);
 
         try {
@@ -328,6 +342,46 @@ protected void start(Map<ExtensionId, Collection<String>> extensionsByNamespace)
         }
     }
 
+    /**
+     * Resolve concurrently the dependencies of the extensions to install so that the plan, which is computed one
+     * dependency after the other, is not slowed down by the repositories latency.
+     *
+     * @param extensionsByNamespace the extensions to install and the namespaces where to install them
+     */
+    private void prefetch(Map<ExtensionId, Collection<String>> extensionsByNamespace)
+    {
+        int threads = this.configuration.getInstallPlanPrefetchThreads();
+        if (threads <= 0) {
+            return;
+        }
+
+        Set<String> namespaces = new HashSet<>();
+        List<Extension> extensions = new ArrayList<>(extensionsByNamespace.size());
+        for (Map.Entry<ExtensionId, Collection<String>> entry : extensionsByNamespace.entrySet()) {
+            ExtensionId extensionId = entry.getKey();
+            if (entry.getValue() != null) {
+                namespaces.addAll(entry.getValue());
+            } else {
+                namespaces.add(null);
+            }
+
+            try {
+                Extension extension = resolveExtension(extensionId);
+                this.extensionsCache.resolvedExtensions.put(extensionId, extension);
+                extensions.add(extension);
+            } catch (InstallException e) {
+                // The planner will report it
+                this.logger.debug("Failed to prefetch extension [{}]", extensionId, e);
+            }
+        }
+
+        InstallPlanPrefetcher prefetcher = new InstallPlanPrefetcher(this.configuration, this.factory,
+            this.coreExtensionRepository, getRequest().isInstalledIgnored() ? null : this.installedExtensionRepository,
+            this.extensionContext, this.logger);
+        this.extensionsCache.resolvedDependencies.putAll(prefetcher.prefetch(extensions, namespaces,
+            getRequest().getRewriter(), this::resolveExtensionDependency, threads));
+    }
+
     /**
      * Install provided extension.
      *
@@ -952,8 +1006,14 @@ private Extension resolveExtension(ExtensionId extensionId) throws InstallExcept
             return extensionExtensionId.getExtension();
         }
 
+        // Check if the extension was prefetched
+        Extension extension = this.extensionsCache.resolvedExtensions.get(extensionId);
+        if (extension != null) {
+            return extension;
+        }
+
         // Check if the extension is already in local repository
-        Extension extension = this.localExtensionRepository.getLocalExtension(extensionId);
+        extension = this.localExtensionRepository.getLocalExtension(extensionId);
 
         if (extension == null) {
             this.logger.debug("Can't find extension in local repository, trying to download it.");
@@ -975,6 +1035,22 @@ private Extension resolveExtension(ExtensionId extensionId) throws InstallExcept
      * @throws InstallException error when trying to resolve extension
      */
     private Extension resolveExtension(ExtensionDependency extensionDependency) throws InstallException
+    {
+        // Check if the extension was prefetched
+        Extension extension = this.extensionsCache.resolvedDependencies.get(extensionDependency);
+        if (extension != null) {
+            return extension;
+        }
+
+        return resolveExtensionDependency(extensionDependency);
+    }
+
+    /**
+     * @param extensionDependency describe the extension to install
+     * @return the extension
+     * @throws InstallException error when trying to resolve extension
+     */
+    private Extension resolveExtensionDependency(ExtensionDependency extensionDependency) throws InstallException
     {
         // Check is the extension is already in local repository
         Extension extension;
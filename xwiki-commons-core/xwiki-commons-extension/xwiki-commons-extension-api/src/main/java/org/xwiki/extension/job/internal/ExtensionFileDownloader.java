@@ -0,0 +1,209 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.job.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionFile;
+import org.xwiki.extension.repository.internal.local.MovableLocalExtensionFile;
+import org.xwiki.extension.wrap.WrappingExtension;
+import org.xwiki.job.event.status.JobProgressManager;
+
+/**
+ * Download concurrently the files of the extensions an install plan is about to store in the local repository so that
+ * the extensions, which are stored one after the other, are not slowed down by the repositories latency.
+ * <p>
+ * The download is best effort: the extensions which file cannot be downloaded are returned as is and their file is
+ * downloaded again when storing them, which reports the error.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class ExtensionFileDownloader implements AutoCloseable
+{
+    private final File parentFolder;
+
+    private final ExtensionContext extensionContext;
+
+    private final JobProgressManager progressManager;
+
+    private final Logger logger;
+
+    private File folder;
+
+    /**
+     * An extension with a file already downloaded.
+     *
+     * @version $Id$
+     */
+    private static final class DownloadedExtension extends WrappingExtension<Extension>
+    {
+        private final ExtensionFile file;
+
+        DownloadedExtension(Extension extension, File file)
+        {
+            super(extension);
+
+            this.file = new MovableLocalExtensionFile(file);
+        }
+
+        @Override
+        public ExtensionFile getFile()
+        {
+            return this.file;
+        }
+    }
+
+    /**
+     * @param parentFolder the folder where to create the temporary download folder
+     * @param extensionContext used to create an extension session in each download thread
+     * @param progressManager used to report the progress of the downloads
+     * @param logger the logger to log
+     */
+    public ExtensionFileDownloader(File parentFolder, ExtensionContext extensionContext,
+        JobProgressManager progressManager, Logger logger)
+    {
+        this.parentFolder = parentFolder;
+        this.extensionContext = extensionContext;
+        this.progressManager = progressManager;
+        this.logger = logger;
+    }
+
+    /**
+     * @param extensions the extensions to download
+     * @param threads the number of files to download at the same time
+     * @return the extensions in the same order, the successfully downloaded ones being replaced by an extension which
+     *         file is stored in a temporary folder until it's moved to the local repository or {@link #close()} is
+     *         called
+     */
+    public List<Extension> download(List<Extension> extensions, int threads)
+    {
+        List<Extension> downloaded = new ArrayList<>(extensions);
+
+        BasicThreadFactory threadFactory =
+            new BasicThreadFactory.Builder().namingPattern("Extension download %d").daemon(true).build();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+
+        this.progressManager.pushLevelProgress(extensions.size(), this);
+
+        List<Future<File>> futures = new ArrayList<>(extensions.size());
+        try {
+            this.parentFolder.mkdirs();
+            this.folder = Files.createTempDirectory(this.parentFolder.toPath(), "download").toFile();
+
+            for (int i = 0; i < extensions.size(); ++i) {
+                Extension extension = extensions.get(i);
+                File target = new File(this.folder, String.valueOf(i));
+                futures.add(extension.getFile() != null ? executor.submit(() -> download(extension, target)) : null);
+            }
+
+            // Move the progress forward as the downloads complete
+            for (int i = 0; i < futures.size(); ++i) {
+                this.progressManager.startStep(this);
+
+                File file = futures.get(i) != null ? get(futures.get(i), extensions.get(i)) : null;
+
+                if (file != null) {
+                    downloaded.set(i, new DownloadedExtension(extensions.get(i), file));
+                }
+
+                this.progressManager.endStep(this);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            this.logger.debug("The download of the extensions files was interrupted");
+        } catch (IOException e) {
+            this.logger.warn("Failed to create the extensions download folder: {}", e.getMessage());
+        } finally {
+            // Cancel the remaining downloads without interrupting the running ones since it's generally not supported
+            // by the repositories clients, and let the threads stop once they are done
+            futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(false));
+            executor.shutdown();
+
+            this.progressManager.popLevelProgress(this);
+        }
+
+        return downloaded;
+    }
+
+    private File download(Extension extension, File target) throws IOException
+    {
+        // Some repositories rely on the extension session (to reuse connections, etc.)
+        this.extensionContext.pushSession();
+
+        try {
+            ExtensionFile extensionFile = extension.getFile();
+
+            try (InputStream stream = extensionFile.openStream()) {
+                Files.copy(stream, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // Make sure the whole file was received
+            long length = extensionFile.getLength();
+            if (length >= 0 && target.length() != length) {
+                throw new IOException(String.format("Received [%s] bytes instead of the expected [%s] bytes",
+                    target.length(), length));
+            }
+
+            return target;
+        } finally {
+            this.extensionContext.popSession();
+        }
+    }
+
+    private File get(Future<File> future, Extension extension) throws InterruptedException
+    {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            this.logger.debug("Failed to download the file of extension [{}]", extension.getId(), e.getCause());
+
+            return null;
+        }
+    }
+
+    /**
+     * Delete the downloaded files which were not moved to the local repository.
+     */
+    @Override
+    public void close()
+    {
+        if (this.folder != null) {
+            FileUtils.deleteQuietly(this.folder);
+        }
+    }
+}
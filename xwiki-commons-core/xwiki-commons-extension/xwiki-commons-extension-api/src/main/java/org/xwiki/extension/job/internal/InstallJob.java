@@ -19,8 +19,12 @@
  */
 package org.xwiki.extension.job.internal;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,7 +32,10 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.environment.Environment;
 import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
 import org.xwiki.extension.InstallException;
 import org.xwiki.extension.job.InstallRequest;
 import org.xwiki.extension.job.plan.ExtensionPlan;
@@ -58,6 +65,8 @@ public class InstallJob extends AbstractExtensionJob<InstallRequest, DefaultJobS
 
     private static final TranslationMarker LOG_DOWNLOADING = new TranslationMarker("extension.log.job.downloading");
 
+    private static final String DOWNLOAD_FOLDER = "extension/download/";
+
     /**
      * Used to generate the install plan.
      */
@@ -71,6 +80,12 @@ public class InstallJob extends AbstractExtensionJob<InstallRequest, DefaultJobS
     @Inject
     private Execution execution;
 
+    @Inject
+    private ExtensionManagerConfiguration configuration;
+
+    @Inject
+    private Environment environment;
+
     @Override
     public String getType()
     {
@@ -117,6 +132,33 @@ protected void runInternal() throws Exception
 
             // Download all extensions
 
+            store(actions);
+
+            this.progressManager.endStep(this);
+
+            this.progressManager.startStep(this);
+
+            // Install all extensions
+
+            applyActions(actions);
+        } finally {
+            this.progressManager.popLevelProgress(this);
+
+            // Clean context
+            context.removeProperty(CONTEXTKEY_PLAN);
+        }
+    }
+
+    /**
+     * @param actions the actions containing the extensions to download
+     * @throws LocalExtensionRepositoryException failed to store extension
+     */
+    private void store(Collection<ExtensionPlanAction> actions) throws LocalExtensionRepositoryException
+    {
+        int threads = this.configuration.getInstallDownloadThreads();
+        if (threads > 0) {
+            storeConcurrently(actions, threads);
+        } else {
             this.progressManager.pushLevelProgress(actions.size(), actions);
 
             try {
@@ -130,43 +172,110 @@ protected void runInternal() throws Exception
             } finally {
                 this.progressManager.popLevelProgress(actions);
             }
+        }
+    }
 
-            this.progressManager.endStep(this);
+    /**
+     * @param action the action containing the extension to download
+     * @throws LocalExtensionRepositoryException failed to store extension
+     */
+    private void store(ExtensionPlanAction action) throws LocalExtensionRepositoryException
+    {
+        if (isStored(action)) {
+            storeExtension(action.getExtension(), true);
+        }
+    }
 
-            this.progressManager.startStep(this);
+    private boolean isStored(ExtensionPlanAction action)
+    {
+        return action.getAction() == Action.INSTALL || action.getAction() == Action.UPGRADE
+            || action.getAction() == Action.DOWNGRADE;
+    }
 
-            // Install all extensions
+    /**
+     * Download the extensions files concurrently before storing the extensions one after the other.
+     *
+     * @param actions the actions containing the extensions to download
+     * @param threads the number of files to download at the same time
+     * @throws LocalExtensionRepositoryException failed to store extension
+     */
+    private void storeConcurrently(Collection<ExtensionPlanAction> actions, int threads)
+        throws LocalExtensionRepositoryException
+    {
+        Map<ExtensionId, Extension> extensions = new LinkedHashMap<>();
+        for (ExtensionPlanAction action : actions) {
+            if (isStored(action) && !this.localExtensionRepository.exists(action.getExtension().getId())) {
+                extensions.putIfAbsent(action.getExtension().getId(), action.getExtension());
+            }
+        }
 
-            applyActions(actions);
+        List<Extension> toStore = new ArrayList<>(extensions.values());
+
+        boolean parallel = toStore.size() > 1;
+
+        this.progressManager.pushLevelProgress(2, extensions);
+
+        try (ExtensionFileDownloader downloader = new ExtensionFileDownloader(
+            new File(this.environment.getTemporaryDirectory(), DOWNLOAD_FOLDER), this.extensionContext,
+            this.progressManager, this.logger)) {
+            // Download the files concurrently
+            this.progressManager.startStep(extensions);
+
+            if (parallel) {
+                for (Extension extension : toStore) {
+                    logDownloading(extension);
+                }
+
+                toStore = downloader.download(toStore, threads);
+            }
+
+            this.progressManager.endStep(extensions);
+
+            // Store the extensions in the plan order
+            this.progressManager.startStep(extensions);
+
+            store(toStore, !parallel);
+
+            this.progressManager.endStep(extensions);
         } finally {
-            this.progressManager.popLevelProgress(this);
+            this.progressManager.popLevelProgress(extensions);
+        }
+    }
 
-            // Clean context
-            context.removeProperty(CONTEXTKEY_PLAN);
+    private void store(List<Extension> extensions, boolean log) throws LocalExtensionRepositoryException
+    {
+        this.progressManager.pushLevelProgress(extensions.size(), extensions);
+
+        try {
+            for (Extension extension : extensions) {
+                this.progressManager.startStep(extensions);
+
+                storeExtension(extension, log);
+
+                this.progressManager.endStep(extensions);
+            }
+        } finally {
+            this.progressManager.popLevelProgress(extensions);
         }
     }
 
-    /**
-     * @param action the action containing the extension to download
-     * @throws LocalExtensionRepositoryException failed to store extension
-     */
-    private void store(ExtensionPlanAction action) throws LocalExtensionRepositoryException
+    private void logDownloading(Extension extension)
     {
-        if (action.getAction() == Action.INSTALL || action.getAction() == Action.UPGRADE
-            || action.getAction() == Action.DOWNGRADE) {
-            storeExtension(action.getExtension());
+        if (getRequest().isVerbose()) {
+            this.logger.info(LOG_DOWNLOADING, "Downloading extension [{}]", extension.getId());
         }
     }
 
     /**
      * @param extension the extension to store
+     * @param log true if the download should be logged
      * @throws LocalExtensionRepositoryException failed to store extension
      */
-    private void storeExtension(Extension extension) throws LocalExtensionRepositoryException
+    private void storeExtension(Extension extension, boolean log) throws LocalExtensionRepositoryException
     {
         if (!this.localExtensionRepository.exists(extension.getId())) {
-            if (getRequest().isVerbose()) {
-                this.logger.info(LOG_DOWNLOADING, "Downloading extension [{}]", extension.getId());
+            if (log) {
+                logDownloading(extension);
             }
 
             this.localExtensionRepository.storeExtension(extension);
@@ -0,0 +1,288 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.job.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionManagerConfiguration;
+import org.xwiki.extension.ExtensionRewriter;
+import org.xwiki.extension.InstallException;
+import org.xwiki.extension.InstalledExtension;
+import org.xwiki.extension.internal.ExtensionFactory;
+import org.xwiki.extension.internal.ExtensionUtils;
+import org.xwiki.extension.repository.CoreExtensionRepository;
+import org.xwiki.extension.repository.InstalledExtensionRepository;
+
+/**
+ * Resolve concurrently the dependencies an install plan is likely to need so that the planner, which resolves them one
+ * after the other, mostly works with already resolved extensions.
+ * <p>
+ * The dependency graph is walked level by level the same way the planner does (ignored dependencies, managed
+ * dependencies, exclusions and recommended versions) but without any of the planner checks. Optional dependencies and
+ * dependencies already satisfied by an installed extension are not resolved (the dependencies of the installed
+ * extension are still walked, like the planner does). The prefetch is best effort: the dependencies which cannot be
+ * resolved are left to the planner.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class InstallPlanPrefetcher
+{
+    private final ExtensionManagerConfiguration configuration;
+
+    private final ExtensionFactory factory;
+
+    private final CoreExtensionRepository coreExtensionRepository;
+
+    private final InstalledExtensionRepository installedExtensionRepository;
+
+    private final ExtensionContext extensionContext;
+
+    private final Logger logger;
+
+    /**
+     * Resolve an extension dependency.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface DependencyResolver
+    {
+        /**
+         * @param dependency the dependency to resolve
+         * @return the resolved extension
+         * @throws InstallException when failing to resolve the dependency
+         */
+        Extension resolve(ExtensionDependency dependency) throws InstallException;
+    }
+
+    private record Pending(ExtensionDependency dependency, ExtensionPlanContext context)
+    {
+    }
+
+    private static final class Walk
+    {
+        private final Collection<String> namespaces;
+
+        private final Set<ExtensionDependency> visited = new HashSet<>();
+
+        private List<Pending> frontier = new ArrayList<>();
+
+        Walk(Collection<String> namespaces)
+        {
+            this.namespaces = namespaces;
+        }
+
+        /**
+         * @return the dependencies to resolve in the next level
+         */
+        List<Pending> next()
+        {
+            List<Pending> next = this.frontier;
+            this.frontier = new ArrayList<>();
+
+            return next;
+        }
+    }
+
+    /**
+     * @param configuration the extension manager configuration
+     * @param factory the factory used to create dependencies
+     * @param coreExtensionRepository the core extensions, which are never resolved
+     * @param installedExtensionRepository the installed extensions, which are not resolved again, null to ignore them
+     * @param extensionContext used to create an extension session in each thread
+     * @param logger the logger to log
+     */
+    public InstallPlanPrefetcher(ExtensionManagerConfiguration configuration, ExtensionFactory factory,
+        CoreExtensionRepository coreExtensionRepository, InstalledExtensionRepository installedExtensionRepository,
+        ExtensionContext extensionContext, Logger logger)
+    {
+        this.configuration = configuration;
+        this.factory = factory;
+        this.coreExtensionRepository = coreExtensionRepository;
+        this.installedExtensionRepository = installedExtensionRepository;
+        this.extensionContext = extensionContext;
+        this.logger = logger;
+    }
+
+    /**
+     * @param extensions the extensions to install
+     * @param namespaces the namespaces where the extensions are installed
+     * @param rewriter the rewriter applied to the resolved extensions, can be null
+     * @param resolver the resolver to use for each dependency
+     * @param threads the number of dependencies to resolve at the same time
+     * @return the resolved extension for each successfully resolved dependency
+     */
+    public Map<ExtensionDependency, Extension> prefetch(Collection<Extension> extensions,
+        Collection<String> namespaces, ExtensionRewriter rewriter, DependencyResolver resolver, int threads)
+    {
+        Map<ExtensionDependency, Extension> resolved = new HashMap<>();
+
+        Walk walk = new Walk(namespaces);
+        for (Extension extension : extensions) {
+            addDependencies(rewrite(extension, rewriter), new ExtensionPlanContext(), walk);
+        }
+        List<Pending> frontier = walk.next();
+
+        if (frontier.isEmpty()) {
+            return resolved;
+        }
+
+        BasicThreadFactory threadFactory =
+            new BasicThreadFactory.Builder().namingPattern("Extension plan prefetch %d").daemon(true).build();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+
+        try {
+            while (!frontier.isEmpty()) {
+                List<Future<Extension>> futures = new ArrayList<>(frontier.size());
+                for (Pending pending : frontier) {
+                    futures.add(executor.submit(() -> resolve(pending.dependency(), resolver)));
+                }
+
+                for (int i = 0; i < futures.size(); ++i) {
+                    Pending pending = frontier.get(i);
+                    Extension extension = get(futures.get(i), pending.dependency());
+                    if (extension != null) {
+                        resolved.put(pending.dependency(), extension);
+
+                        addDependencies(rewrite(extension, rewriter),
+                            new ExtensionPlanContext(pending.context(), pending.dependency()), walk);
+                    }
+                }
+
+                frontier = walk.next();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            this.logger.debug("The prefetch of the install plan dependencies was interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return resolved;
+    }
+
+    private Extension resolve(ExtensionDependency dependency, DependencyResolver resolver) throws InstallException
+    {
+        this.extensionContext.pushSession();
+
+        try {
+            return resolver.resolve(dependency);
+        } finally {
+            this.extensionContext.popSession();
+        }
+    }
+
+    private Extension get(Future<Extension> future, ExtensionDependency dependency) throws InterruptedException
+    {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            this.logger.debug("Failed to prefetch extension dependency [{}]", dependency, e.getCause());
+
+            return null;
+        }
+    }
+
+    private Extension rewrite(Extension extension, ExtensionRewriter rewriter)
+    {
+        return rewriter != null ? rewriter.rewrite(extension) : extension;
+    }
+
+    private void addDependencies(Extension extension, ExtensionPlanContext extensionContext, Walk walk)
+    {
+        ExtensionPlanContext dependencyContext = null;
+
+        for (ExtensionDependency initialDependency : extension.getDependencies()) {
+            if (initialDependency.isOptional() || this.configuration.isIgnoredDependency(initialDependency)) {
+                continue;
+            }
+
+            ExtensionDependency dependency = extensionContext.getDependency(initialDependency, extension);
+            if (extensionContext.isExcluded(dependency) || this.coreExtensionRepository.exists(dependency.getId())) {
+                continue;
+            }
+
+            if (dependencyContext == null) {
+                dependencyContext = new ExtensionPlanContext(extensionContext, extension);
+            }
+
+            ExtensionDependency recommendedDependency =
+                ExtensionUtils.getRecommendedDependency(dependency, this.configuration, this.factory);
+            if (recommendedDependency != null) {
+                addDependency(recommendedDependency, dependencyContext, walk);
+            }
+
+            if (dependency.getVersionConstraint() != null) {
+                addDependency(dependency, dependencyContext, walk);
+            }
+        }
+    }
+
+    private void addDependency(ExtensionDependency dependency, ExtensionPlanContext context, Walk walk)
+    {
+        if (walk.visited.add(dependency)) {
+            InstalledExtension installedExtension = getInstalledExtension(dependency, walk.namespaces);
+            if (installedExtension != null) {
+                // Nothing to resolve but the planner checks the dependencies of the installed extension
+                addDependencies(installedExtension, new ExtensionPlanContext(context, dependency), walk);
+            } else {
+                walk.frontier.add(new Pending(dependency, context));
+            }
+        }
+    }
+
+    /**
+     * @return the installed extension matching the dependency in all the namespaces, null if there is none
+     */
+    private InstalledExtension getInstalledExtension(ExtensionDependency dependency, Collection<String> namespaces)
+    {
+        if (this.installedExtensionRepository == null) {
+            return null;
+        }
+
+        InstalledExtension installedExtension = null;
+        for (String namespace : namespaces) {
+            installedExtension = this.installedExtensionRepository.getInstalledExtension(dependency.getId(), namespace);
+            if (installedExtension == null
+                || !dependency.getVersionConstraint().isCompatible(installedExtension.getId().getVersion())) {
+                return null;
+            }
+        }
+
+        return installedExtension;
+    }
+}
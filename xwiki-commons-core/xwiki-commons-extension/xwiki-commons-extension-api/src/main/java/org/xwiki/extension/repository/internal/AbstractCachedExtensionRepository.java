@@ -20,6 +20,7 @@
 package org.xwiki.extension.repository.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -69,6 +70,11 @@
      */
     private boolean strictId;
 
+    /**
+     * The index of the last version of each extension id and feature, used to speed up the search.
+     */
+    private final transient ExtensionSearchIndex<E> searchIndex = new ExtensionSearchIndex<>();
+
     protected AbstractCachedExtensionRepository()
     {
         this(false);
@@ -128,6 +134,8 @@ protected void addCachedExtensionVersion(String feature, E extension)
             this.extensionsVersions.put(feature, versions);
 
             versions.add(extension);
+
+            this.searchIndex.add(extension);
         } else {
             int index = 0;
             while (index < versions.size()
@@ -136,6 +144,12 @@ protected void addCachedExtensionVersion(String feature, E extension)
             }
 
             versions.add(index, extension);
+
+            if (index == 0) {
+                // The extension is the new last version
+                this.searchIndex.remove(versions.get(1));
+                this.searchIndex.add(extension);
+            }
         }
     }
 
@@ -168,10 +182,19 @@ protected void removeCachedExtensionVersion(String feature, E extension)
     {
         // versions
         List<E> extensionVersions = this.extensionsVersions.get(feature);
+        E lastVersion = extensionVersions.get(0);
         extensionVersions.remove(extension);
         if (extensionVersions.isEmpty()) {
             this.extensionsVersions.remove(feature);
         }
+
+        E newLastVersion = extensionVersions.isEmpty() ? null : extensionVersions.get(0);
+        if (lastVersion != newLastVersion) {
+            this.searchIndex.remove(lastVersion);
+            if (newLastVersion != null) {
+                this.searchIndex.add(newLastVersion);
+            }
+        }
     }
 
     // ExtensionRepository
@@ -254,21 +277,35 @@ public IterableResult<Extension> search(ExtensionQuery query)
     {
         Pattern patternMatcher = RepositoryUtils.createPatternMatcher(query.getQuery());
 
+        Collection<E> candidates = this.searchIndex.getCandidates(query);
+
         Set<Extension> set = new HashSet<>();
-        List<Extension> result = new ArrayList<>(this.extensionsVersions.size());
+        List<Extension> result;
 
-        for (List<E> versions : this.extensionsVersions.values()) {
-            E extension = versions.get(0);
+        if (candidates != null) {
+            result = new ArrayList<>(candidates.size());
 
-            if (RepositoryUtils.matches(patternMatcher, query.getFilters(), extension) && !set.contains(extension)) {
-                result.add(extension);
-                set.add(extension);
+            for (E extension : candidates) {
+                if (RepositoryUtils.matches(patternMatcher, query.getFilters(), extension)) {
+                    result.add(extension);
+                }
             }
-        }
+        } else {
+            result = new ArrayList<>(this.extensionsVersions.size());
 
-        // Sort
-        RepositoryUtils.sort(result, query.getSortClauses());
+            for (List<E> versions : this.extensionsVersions.values()) {
+                E extension = versions.get(0);
+
+                if (RepositoryUtils.matches(patternMatcher, query.getFilters(), extension)
+                    && !set.contains(extension)) {
+                    result.add(extension);
+                    set.add(extension);
+                }
+            }
+        }
 
-        return RepositoryUtils.getIterableResult(query.getOffset(), query.getLimit(), result);
+        // Sort and limit
+        return RepositoryUtils.getSortedIterableResult(query.getOffset(), query.getLimit(), result,
+            query.getSortClauses());
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.xwiki.extension.AbstractExtension;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionFile;
+import org.xwiki.extension.ResolveException;
+
+/**
+ * An extension loaded from the persistent cache of a remote repository.
+ * <p>
+ * The extension file is resolved in the remote repository only when it's actually needed.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class CachedExtension extends AbstractExtension
+{
+    private static final class RemoteExtensionFile implements ExtensionFile
+    {
+        private final CachedExtension extension;
+
+        private ExtensionFile file;
+
+        RemoteExtensionFile(CachedExtension extension)
+        {
+            this.extension = extension;
+        }
+
+        private synchronized ExtensionFile getFile() throws ResolveException
+        {
+            if (this.file == null) {
+                this.file = this.extension.getRemoteExtension().getFile();
+            }
+
+            return this.file;
+        }
+
+        @Override
+        public long getLength()
+        {
+            try {
+                return getFile().getLength();
+            } catch (ResolveException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        public InputStream openStream() throws IOException
+        {
+            try {
+                return getFile().openStream();
+            } catch (ResolveException e) {
+                throw new IOException("Failed to resolve the extension file", e);
+            }
+        }
+    }
+
+    /**
+     * @param repository the repository caching the extension descriptor
+     * @param extension the cached extension descriptor
+     */
+    public CachedExtension(CachedExtensionRepository repository, Extension extension)
+    {
+        super(repository, extension);
+
+        setFile(new RemoteExtensionFile(this));
+    }
+
+    @Override
+    public CachedExtensionRepository getRepository()
+    {
+        return (CachedExtensionRepository) super.getRepository();
+    }
+
+    private Extension getRemoteExtension() throws ResolveException
+    {
+        return getRepository().getWrapped().resolve(getId());
+    }
+}
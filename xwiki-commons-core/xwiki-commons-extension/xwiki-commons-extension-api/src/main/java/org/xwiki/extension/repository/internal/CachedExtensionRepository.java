@@ -0,0 +1,207 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ResolveException;
+import org.xwiki.extension.rating.ExtensionRating;
+import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.repository.rating.Ratable;
+import org.xwiki.extension.repository.result.IterableResult;
+import org.xwiki.extension.repository.search.AdvancedSearchable;
+import org.xwiki.extension.repository.search.ExtensionQuery;
+import org.xwiki.extension.repository.search.SearchException;
+import org.xwiki.extension.repository.search.Searchable;
+import org.xwiki.extension.version.Version;
+import org.xwiki.extension.wrap.WrappingExtensionRepository;
+
+/**
+ * Decorate a remote repository to keep the descriptors of the resolved extensions in a persistent cache.
+ * <p>
+ * Only the resolution of a specific extension version is cached, the versions and the search are always delegated to
+ * the decorated repository.
+ * <p>
+ * Use {@link #create(ExtensionRepository, ExtensionRepositoryMetadataCache)} to get an instance exposing the same
+ * search and rating interfaces as the decorated repository.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class CachedExtensionRepository extends WrappingExtensionRepository<ExtensionRepository>
+{
+    private final ExtensionRepositoryMetadataCache cache;
+
+    private interface SearchableDelegate extends Searchable
+    {
+        ExtensionRepository getWrapped();
+
+        @Override
+        default IterableResult<Extension> search(String pattern, int offset, int nb) throws SearchException
+        {
+            return ((Searchable) getWrapped()).search(pattern, offset, nb);
+        }
+    }
+
+    private interface AdvancedSearchableDelegate extends SearchableDelegate, AdvancedSearchable
+    {
+        @Override
+        default IterableResult<Extension> search(ExtensionQuery query) throws SearchException
+        {
+            return ((AdvancedSearchable) getWrapped()).search(query);
+        }
+
+        @Override
+        default boolean isFilterable()
+        {
+            return ((AdvancedSearchable) getWrapped()).isFilterable();
+        }
+
+        @Override
+        default boolean isSortable()
+        {
+            return ((AdvancedSearchable) getWrapped()).isSortable();
+        }
+    }
+
+    private interface RatableDelegate extends Ratable
+    {
+        ExtensionRepository getWrapped();
+
+        @Override
+        default ExtensionRating getRating(ExtensionId extensionId) throws ResolveException
+        {
+            return ((Ratable) getWrapped()).getRating(extensionId);
+        }
+
+        @Override
+        default ExtensionRating getRating(String extensionId, Version extensionVersion) throws ResolveException
+        {
+            return ((Ratable) getWrapped()).getRating(extensionId, extensionVersion);
+        }
+
+        @Override
+        default ExtensionRating getRating(String extensionId, String extensionVersion) throws ResolveException
+        {
+            return ((Ratable) getWrapped()).getRating(extensionId, extensionVersion);
+        }
+    }
+
+    private static final class SearchableCachedExtensionRepository extends CachedExtensionRepository
+        implements SearchableDelegate
+    {
+        SearchableCachedExtensionRepository(ExtensionRepository repository, ExtensionRepositoryMetadataCache cache)
+        {
+            super(repository, cache);
+        }
+    }
+
+    private static final class AdvancedSearchableCachedExtensionRepository extends CachedExtensionRepository
+        implements AdvancedSearchableDelegate
+    {
+        AdvancedSearchableCachedExtensionRepository(ExtensionRepository repository,
+            ExtensionRepositoryMetadataCache cache)
+        {
+            super(repository, cache);
+        }
+    }
+
+    private static final class RatableCachedExtensionRepository extends CachedExtensionRepository
+        implements RatableDelegate
+    {
+        RatableCachedExtensionRepository(ExtensionRepository repository, ExtensionRepositoryMetadataCache cache)
+        {
+            super(repository, cache);
+        }
+    }
+
+    private static final class SearchableRatableCachedExtensionRepository extends CachedExtensionRepository
+        implements SearchableDelegate, RatableDelegate
+    {
+        SearchableRatableCachedExtensionRepository(ExtensionRepository repository,
+            ExtensionRepositoryMetadataCache cache)
+        {
+            super(repository, cache);
+        }
+    }
+
+    private static final class AdvancedSearchableRatableCachedExtensionRepository extends CachedExtensionRepository
+        implements AdvancedSearchableDelegate, RatableDelegate
+    {
+        AdvancedSearchableRatableCachedExtensionRepository(ExtensionRepository repository,
+            ExtensionRepositoryMetadataCache cache)
+        {
+            super(repository, cache);
+        }
+    }
+
+    /**
+     * @param repository the decorated repository
+     * @param cache the cache where to store the resolved extensions descriptors
+     */
+    public CachedExtensionRepository(ExtensionRepository repository, ExtensionRepositoryMetadataCache cache)
+    {
+        super(repository);
+
+        this.cache = cache;
+    }
+
+    /**
+     * @param repository the decorated repository
+     * @param cache the cache where to store the resolved extensions descriptors
+     * @return the repository caching the resolved extensions descriptors and implementing the same {@link Searchable},
+     *         {@link AdvancedSearchable} and {@link Ratable} interfaces as the decorated repository
+     */
+    public static CachedExtensionRepository create(ExtensionRepository repository,
+        ExtensionRepositoryMetadataCache cache)
+    {
+        boolean ratable = repository instanceof Ratable;
+
+        if (repository instanceof AdvancedSearchable) {
+            return ratable ? new AdvancedSearchableRatableCachedExtensionRepository(repository, cache)
+                : new AdvancedSearchableCachedExtensionRepository(repository, cache);
+        } else if (repository instanceof Searchable) {
+            return ratable ? new SearchableRatableCachedExtensionRepository(repository, cache)
+                : new SearchableCachedExtensionRepository(repository, cache);
+        }
+
+        return ratable ? new RatableCachedExtensionRepository(repository, cache)
+            : new CachedExtensionRepository(repository, cache);
+    }
+
+    @Override
+    public ExtensionRepository getWrapped()
+    {
+        return super.getWrapped();
+    }
+
+    @Override
+    public Extension resolve(ExtensionId extensionId) throws ResolveException
+    {
+        return this.cache.resolve(this, extensionId);
+    }
+
+    @Override
+    public Extension resolve(ExtensionDependency extensionDependency) throws ResolveException
+    {
+        return this.cache.resolve(this, extensionDependency);
+    }
+}
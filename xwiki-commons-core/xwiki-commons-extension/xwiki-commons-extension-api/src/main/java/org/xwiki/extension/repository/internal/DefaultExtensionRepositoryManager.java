@@ -19,6 +19,7 @@
  */
 package org.xwiki.extension.repository.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -35,15 +36,20 @@
 
 import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.mutable.MutableObject;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
 import org.xwiki.extension.ExtensionDependency;
 import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
 import org.xwiki.extension.ExtensionNotFoundException;
 import org.xwiki.extension.ResolveException;
 import org.xwiki.extension.repository.AbstractAdvancedSearchableExtensionRepository;
@@ -71,11 +77,32 @@
 @Singleton
 @SuppressWarnings("checkstyle:ClassFanOutComplexity")
 public class DefaultExtensionRepositoryManager extends AbstractAdvancedSearchableExtensionRepository
-    implements ExtensionRepositoryManager, Initializable
+    implements ExtensionRepositoryManager, Initializable, Disposable
 {
     private static final String LOG_EXTENSION_DEPENDENCY_NOT_FOUND =
         "Could not find extension dependency [{}] in repository [{}]";
 
+    private static final String LOG_EXTENSION_NOT_FOUND = "Could not find extension [{}] in repository [{}]";
+
+    private static final String LOG_EXTENSION_ERROR =
+        "Unexpected error when trying to find extension [{}] in repository [{}]";
+
+    private static final String LOG_INVALID_REPOSITORY = "Invalid repository [{}] in extension dependency [{}]: [{}]";
+
+    private static final String LOG_EXTENSION_DEPENDENCY_ERROR =
+        "Unexpected error when trying to find extension dependency [{}] in repository [{}]: [{}]";
+
+    private static final String LOG_UNEXPECTED_DEPENDENCY_ERROR =
+        "Unexpected error when trying to find extension dependency [{}] in repository [{}]";
+
+    private static final String EXTENSION_FAILED = "Failed to resolve extension [%s]";
+
+    private static final String EXTENSION_NOT_FOUND = "Could not find extension [%s]";
+
+    private static final String EXTENSION_DEPENDENCY_FAILED = "Failed to resolve extension dependency [%s]";
+
+    private static final String EXTENSION_DEPENDENCY_NOT_FOUND = "Could not find extension dependency [%s]";
+
     /**
      * Used to lookup {@link ExtensionRepositoryFactory}s.
      */
@@ -94,6 +121,15 @@ public class DefaultExtensionRepositoryManager extends AbstractAdvancedSearchabl
     @Inject
     private List<ExtensionRepositorySource> repositoriesSources;
 
+    @Inject
+    private ExtensionManagerConfiguration configuration;
+
+    @Inject
+    private ExtensionRepositoryMetadataCache metadataCache;
+
+    @Inject
+    private ExtensionContext extensionContext;
+
     /**
      * The registered repositories.
      */
@@ -104,6 +140,10 @@ public class DefaultExtensionRepositoryManager extends AbstractAdvancedSearchabl
 
     private LRUMap<ExtensionRepositoryDescriptor, ExtensionRepository> repositoriesCache = new LRUMap<>(100);
 
+    private ParallelRepositoryResolver parallelResolver;
+
+    private ParallelRepositorySearcher parallelSearcher;
+
     private class ExtensionRepositoryEntry implements Comparable<ExtensionRepositoryEntry>
     {
         private ExtensionRepository repository;
@@ -139,6 +179,9 @@ public String toString()
     @Override
     public void initialize() throws InitializationException
     {
+        this.parallelResolver = new ParallelRepositoryResolver(this.extensionContext);
+        this.parallelSearcher = new ParallelRepositorySearcher();
+
         // Set descriptor
         setDescriptor(new DefaultExtensionRepositoryDescriptor("remote"));
 
@@ -155,6 +198,15 @@ public void initialize() throws InitializationException
         }
     }
 
+    // Disposable
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        this.parallelResolver.dispose();
+        this.parallelSearcher.dispose();
+    }
+
     // ExtensionRepositoryManager
 
     private void updateRepositories()
@@ -193,7 +245,7 @@ public ExtensionRepository addRepository(ExtensionRepositoryDescriptor repositor
             ExtensionRepositoryFactory repositoryFactory =
                 this.componentManager.getInstance(ExtensionRepositoryFactory.class, repositoryDescriptor.getType());
 
-            repository = repositoryFactory.createRepository(repositoryDescriptor);
+            repository = this.metadataCache.decorate(repositoryFactory.createRepository(repositoryDescriptor));
 
             addRepository(repository, priority);
         } catch (ComponentLookupException e) {
@@ -261,7 +313,7 @@ private ExtensionRepository getRepository(ExtensionRepositoryDescriptor reposito
                         String.format("Unsupported extension repository type [%s]", repositoryDescriptor.getType()), e);
                 }
 
-                repository = repositoryFactory.createRepository(repositoryDescriptor);
+                repository = this.metadataCache.decorate(repositoryFactory.createRepository(repositoryDescriptor));
             }
 
             this.repositoriesCache.put(repositoryDescriptor, repository);
@@ -281,26 +333,122 @@ public Collection<ExtensionRepository> getRepositories()
     @Override
     public Extension resolve(ExtensionId extensionId) throws ResolveException
     {
+        List<ExtensionRepository> currentRepositories = this.repositories;
+        if (isParallelResolve(currentRepositories)) {
+            return resolveInParallel(extensionId, currentRepositories);
+        }
+
         ResolveException lastException = null;
 
-        for (ExtensionRepository repository : this.repositories) {
+        for (ExtensionRepository repository : currentRepositories) {
             try {
                 return repository.resolve(extensionId);
             } catch (ExtensionNotFoundException e1) {
-                this.logger.debug("Could not find extension [{}] in repository [{}]", extensionId,
-                    repository.getDescriptor(), e1);
+                this.logger.debug(LOG_EXTENSION_NOT_FOUND, extensionId, repository.getDescriptor(), e1);
             } catch (ResolveException e2) {
-                this.logger.error("Unexpected error when trying to find extension [{}] in repository [{}]", extensionId,
-                    repository.getDescriptor(), e2);
+                this.logger.error(LOG_EXTENSION_ERROR, extensionId, repository.getDescriptor(), e2);
 
                 lastException = e2;
             }
         }
 
         if (lastException != null) {
-            throw new ResolveException(String.format("Failed to resolve extension [%s]", extensionId), lastException);
+            throw new ResolveException(String.format(EXTENSION_FAILED, extensionId), lastException);
         } else {
-            throw new ExtensionNotFoundException(String.format("Could not find extension [%s]", extensionId));
+            throw new ExtensionNotFoundException(String.format(EXTENSION_NOT_FOUND, extensionId));
+        }
+    }
+
+    private boolean isParallelResolve(List<ExtensionRepository> candidates)
+    {
+        return candidates.size() > 1 && this.configuration.isParallelResolveEnabled();
+    }
+
+    private Extension resolveInParallel(ExtensionId extensionId, List<ExtensionRepository> candidates)
+        throws ResolveException
+    {
+        MutableObject<ResolveException> lastException = new MutableObject<>();
+
+        Extension extension = this.parallelResolver.resolve(candidates, repository -> repository.resolve(extensionId),
+            this.configuration.getParallelResolveHedgingDelay(), (repository, e) -> {
+                if (e instanceof ExtensionNotFoundException) {
+                    this.logger.debug(LOG_EXTENSION_NOT_FOUND, extensionId, repository.getDescriptor(), e);
+                } else {
+                    this.logger.error(LOG_EXTENSION_ERROR, extensionId, repository.getDescriptor(), e);
+
+                    lastException.setValue(e);
+                }
+            });
+
+        if (extension != null) {
+            return extension;
+        } else if (lastException.getValue() != null) {
+            throw new ResolveException(String.format(EXTENSION_FAILED, extensionId), lastException.getValue());
+        } else {
+            throw new ExtensionNotFoundException(String.format(EXTENSION_NOT_FOUND, extensionId));
+        }
+    }
+
+    private List<ExtensionRepository> getCandidateRepositories(ExtensionDependency extensionDependency)
+    {
+        Set<ExtensionRepositoryDescriptor> checkedRepositories = new HashSet<>();
+        List<ExtensionRepository> candidates = new ArrayList<>();
+
+        // Repositories declared in the extension dependency first
+        for (ExtensionRepositoryDescriptor repositoryDescriptor : extensionDependency.getRepositories()) {
+            if (checkedRepositories.add(repositoryDescriptor)) {
+                try {
+                    candidates.add(getRepository(repositoryDescriptor));
+                } catch (ExtensionRepositoryException e) {
+                    this.logger.warn(LOG_INVALID_REPOSITORY, repositoryDescriptor, extensionDependency,
+                        ExceptionUtils.getRootCauseMessage(e));
+                }
+            }
+        }
+
+        // Then the configured repositories
+        for (ExtensionRepository repository : this.repositories) {
+            if (checkedRepositories.add(repository.getDescriptor())) {
+                candidates.add(repository);
+            }
+        }
+
+        return candidates;
+    }
+
+    private Extension resolveInParallel(ExtensionDependency extensionDependency, List<ExtensionRepository> candidates)
+        throws ResolveException
+    {
+        MutableObject<ResolveException> lastException = new MutableObject<>();
+
+        Extension extension =
+            this.parallelResolver.resolve(candidates, repository -> repository.resolve(extensionDependency),
+                this.configuration.getParallelResolveHedgingDelay(), (repository, e) -> {
+                    if (e instanceof ExtensionNotFoundException) {
+                        this.logger.debug(LOG_EXTENSION_DEPENDENCY_NOT_FOUND, extensionDependency,
+                            repository.getDescriptor(), e);
+                    } else {
+                        // Same as the sequential resolution
+                        if (extensionDependency.getRepositories().contains(repository.getDescriptor())) {
+                            this.logger.warn(LOG_EXTENSION_DEPENDENCY_ERROR, extensionDependency,
+                                repository.getDescriptor(), ExceptionUtils.getRootCauseMessage(e));
+                        } else {
+                            this.logger.error(LOG_UNEXPECTED_DEPENDENCY_ERROR, extensionDependency,
+                                repository.getDescriptor(), e);
+                        }
+
+                        lastException.setValue(e);
+                    }
+                });
+
+        if (extension != null) {
+            return extension;
+        } else if (lastException.getValue() != null) {
+            throw new ResolveException(String.format(EXTENSION_DEPENDENCY_FAILED, extensionDependency),
+                lastException.getValue());
+        } else {
+            throw new ExtensionNotFoundException(
+                String.format(EXTENSION_DEPENDENCY_NOT_FOUND, extensionDependency));
         }
     }
 
@@ -308,6 +456,13 @@ public Extension resolve(ExtensionId extensionId) throws ResolveException
     @SuppressWarnings({"checkstyle:CyclomaticComplexity", "checkstyle:NPathComplexity"})
     public Extension resolve(ExtensionDependency extensionDependency) throws ResolveException
     {
+        if (this.configuration.isParallelResolveEnabled()) {
+            List<ExtensionRepository> candidates = getCandidateRepositories(extensionDependency);
+            if (candidates.size() > 1) {
+                return resolveInParallel(extensionDependency, candidates);
+            }
+        }
+
         Set<ExtensionRepositoryDescriptor> checkedRepositories = new HashSet<>();
 
         Exception lastException = null;
@@ -325,7 +480,7 @@ public Extension resolve(ExtensionDependency extensionDependency) throws Resolve
             try {
                 repository = getRepository(repositoryDescriptor);
             } catch (ExtensionRepositoryException e) {
-                this.logger.warn("Invalid repository [{}] in extension dependency [{}]: [{}]", repositoryDescriptor,
+                this.logger.warn(LOG_INVALID_REPOSITORY, repositoryDescriptor,
                     extensionDependency, ExceptionUtils.getRootCauseMessage(e));
 
                 continue;
@@ -337,9 +492,8 @@ public Extension resolve(ExtensionDependency extensionDependency) throws Resolve
                 this.logger.debug(LOG_EXTENSION_DEPENDENCY_NOT_FOUND, extensionDependency,
                     repository.getDescriptor(), e1);
             } catch (ResolveException e2) {
-                this.logger.warn(
-                    "Unexpected error when trying to find extension dependency [{}] in repository [{}]: [{}]",
-                    extensionDependency, repository.getDescriptor(), ExceptionUtils.getRootCauseMessage(e2));
+                this.logger.warn(LOG_EXTENSION_DEPENDENCY_ERROR, extensionDependency, repository.getDescriptor(),
+                    ExceptionUtils.getRootCauseMessage(e2));
 
                 lastException = e2;
             }
@@ -360,8 +514,7 @@ public Extension resolve(ExtensionDependency extensionDependency) throws Resolve
                 this.logger.debug(LOG_EXTENSION_DEPENDENCY_NOT_FOUND, extensionDependency,
                     repository.getDescriptor(), e1);
             } catch (ResolveException e2) {
-                this.logger.error("Unexpected error when trying to find extension dependency [{}] in repository [{}]",
-                    extensionDependency, repository.getDescriptor(), e2);
+                this.logger.error(LOG_UNEXPECTED_DEPENDENCY_ERROR, extensionDependency, repository.getDescriptor(), e2);
 
                 lastException = e2;
             }
@@ -369,10 +522,10 @@ public Extension resolve(ExtensionDependency extensionDependency) throws Resolve
 
         if (lastException != null) {
             throw new ResolveException(
-                String.format("Failed to resolve extension dependency [%s]", extensionDependency), lastException);
+                String.format(EXTENSION_DEPENDENCY_FAILED, extensionDependency), lastException);
         } else {
             throw new ExtensionNotFoundException(
-                String.format("Could not find extension dependency [%s]", extensionDependency));
+                String.format(EXTENSION_DEPENDENCY_NOT_FOUND, extensionDependency));
         }
     }
 
@@ -421,7 +574,14 @@ public boolean exists(ExtensionId extensionId)
     @Override
     public IterableResult<Extension> search(ExtensionQuery query) throws SearchException
     {
-        return RepositoryUtils.search(query, this.repositories);
+        List<ExtensionRepository> currentRepositories = this.repositories;
+
+        if (currentRepositories.size() > 1 && this.configuration.isParallelSearchEnabled()) {
+            return this.parallelSearcher.search(query, currentRepositories,
+                this.configuration.getParallelSearchTimeout());
+        }
+
+        return RepositoryUtils.search(query, currentRepositories);
     }
 
     @Override
@@ -252,6 +252,14 @@ public class DefaultExtensionSerializer implements ExtensionSerializer
         this.serializerByClass.put(Map.class, mapSerializer);
     }
 
+    private DocumentBuilder newDocumentBuilder() throws ParserConfigurationException
+    {
+        // DocumentBuilderFactory is not guaranteed to be thread safe and descriptors can be parsed concurrently
+        synchronized (this.documentBuilderFactory) {
+            return this.documentBuilderFactory.newDocumentBuilder();
+        }
+    }
+
     @Override
     public DefaultCoreExtension loadCoreExtensionDescriptor(DefaultCoreExtensionRepository repository, URL url,
         InputStream descriptor) throws InvalidExtensionException
@@ -286,7 +294,7 @@ private Element getExtensionElement(InputStream descriptor) throws InvalidExtens
     {
         DocumentBuilder documentBuilder;
         try {
-            documentBuilder = this.documentBuilderFactory.newDocumentBuilder();
+            documentBuilder = newDocumentBuilder();
         } catch (ParserConfigurationException e) {
             throw new InvalidExtensionException("Failed to create new DocumentBuilder", e);
         }
@@ -712,7 +720,7 @@ private Node getNode(Node parentNode, String elementName)
     public void saveExtensionDescriptor(Extension extension, OutputStream fos)
         throws ParserConfigurationException, TransformerException
     {
-        DocumentBuilder documentBuilder = this.documentBuilderFactory.newDocumentBuilder();
+        DocumentBuilder documentBuilder = newDocumentBuilder();
         Document document = documentBuilder.newDocument();
 
         Element extensionElement = document.createElement("extension");
@@ -0,0 +1,249 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.environment.Environment;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
+import org.xwiki.extension.ExtensionNotFoundException;
+import org.xwiki.extension.ResolveException;
+import org.xwiki.extension.internal.PathUtils;
+import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.repository.ExtensionRepositoryDescriptor;
+import org.xwiki.extension.version.Version;
+import org.xwiki.extension.version.VersionConstraint;
+
+/**
+ * Store the descriptors of the extensions resolved in remote repositories to not have to resolve them again during a
+ * configurable amount of time, including after a restart.
+ * <p>
+ * An expired descriptor is resolved again in the remote repository. If the remote repository fails to answer, the
+ * expired descriptor is used instead.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = ExtensionRepositoryMetadataCache.class)
+@Singleton
+public class ExtensionRepositoryMetadataCache implements Initializable
+{
+    private static final String DESCRIPTOR_EXTENSION = ".xed";
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private ExtensionSerializer serializer;
+
+    @Inject
+    private ExtensionManagerConfiguration configuration;
+
+    @Inject
+    private Logger logger;
+
+    private File folder;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        File permanentDirectory = this.environment.getPermanentDirectory();
+        if (permanentDirectory != null) {
+            this.folder = new File(permanentDirectory, "cache/extension/repository/");
+        }
+    }
+
+    /**
+     * @param repository the remote repository
+     * @return the repository to use, caching the resolved extensions descriptors if enabled
+     */
+    public ExtensionRepository decorate(ExtensionRepository repository)
+    {
+        if (this.folder == null || this.configuration.getRemoteMetadataCacheTTL() <= 0) {
+            return repository;
+        }
+
+        return CachedExtensionRepository.create(repository, this);
+    }
+
+    /**
+     * @param repository the repository caching the extensions descriptors
+     * @param extensionId the extension identifier
+     * @return the extension
+     * @throws ResolveException when failing to resolve the extension
+     */
+    public Extension resolve(CachedExtensionRepository repository, ExtensionId extensionId) throws ResolveException
+    {
+        return resolve(repository, extensionId, () -> repository.getWrapped().resolve(extensionId));
+    }
+
+    /**
+     * Only the dependencies targeting a single version (without ranges) and without specific properties are cached
+     * since they are the only ones which are guaranteed to resolve the same extension until it expires.
+     *
+     * @param repository the repository caching the extensions descriptors
+     * @param extensionDependency the extension dependency
+     * @return the extension
+     * @throws ResolveException when failing to resolve the extension
+     */
+    public Extension resolve(CachedExtensionRepository repository, ExtensionDependency extensionDependency)
+        throws ResolveException
+    {
+        VersionConstraint versionConstraint = extensionDependency.getVersionConstraint();
+        if (versionConstraint.getVersion() == null || !versionConstraint.getRanges().isEmpty()
+            || !extensionDependency.getProperties().isEmpty()) {
+            return repository.getWrapped().resolve(extensionDependency);
+        }
+
+        return resolve(repository, new ExtensionId(extensionDependency.getId(), versionConstraint.getVersion()),
+            () -> repository.getWrapped().resolve(extensionDependency));
+    }
+
+    private Extension resolve(CachedExtensionRepository repository, ExtensionId extensionId, Resolver resolver)
+        throws ResolveException
+    {
+        // Snapshots can be modified at any time
+        if (extensionId.getVersion().getType() == Version.Type.SNAPSHOT) {
+            return resolver.resolve();
+        }
+
+        File file = getFile(repository.getDescriptor(), extensionId);
+
+        Extension cachedExtension = load(repository, file);
+        if (cachedExtension != null && !isExpired(file)) {
+            return cachedExtension;
+        }
+
+        Extension extension;
+        try {
+            extension = resolver.resolve();
+        } catch (ExtensionNotFoundException e) {
+            // The extension does not exist anymore
+            delete(file);
+
+            throw e;
+        } catch (ResolveException e) {
+            if (cachedExtension == null) {
+                throw e;
+            }
+
+            this.logger.warn("Failed to resolve extension [{}] in repository [{}], using the expired cache: [{}]",
+                extensionId, repository.getDescriptor(), ExceptionUtils.getRootCauseMessage(e));
+
+            return cachedExtension;
+        }
+
+        // Make sure to not cache an extension under another identifier (e.g. a relocated extension)
+        if (extensionId.equals(extension.getId())) {
+            store(file, extension);
+        }
+
+        return extension;
+    }
+
+    @FunctionalInterface
+    private interface Resolver
+    {
+        Extension resolve() throws ResolveException;
+    }
+
+    private boolean isExpired(File file)
+    {
+        return System.currentTimeMillis() - file.lastModified()
+            > this.configuration.getRemoteMetadataCacheTTL() * 1000L;
+    }
+
+    private Extension load(CachedExtensionRepository repository, File file)
+    {
+        if (file.exists()) {
+            try (FileInputStream stream = new FileInputStream(file)) {
+                return new CachedExtension(repository, this.serializer.loadLocalExtensionDescriptor(null, stream));
+            } catch (Exception e) {
+                this.logger.warn("Failed to parse cached extension descriptor [{}]: [{}]", file,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return null;
+    }
+
+    private void store(File file, Extension extension)
+    {
+        try {
+            // Make sure the file parents exist
+            file.getParentFile().mkdirs();
+
+            // Write the descriptor in a temporary file first to never expose a partially written descriptor
+            File temporaryFile = File.createTempFile(file.getName(), null, file.getParentFile());
+            try {
+                write(temporaryFile, extension);
+
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile.toPath());
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to cache extension descriptor [{}]: [{}]", extension.getId(),
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void write(File file, Extension extension) throws Exception
+    {
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            this.serializer.saveExtensionDescriptor(extension, stream);
+        }
+    }
+
+    private void delete(File file)
+    {
+        if (file.exists() && !file.delete()) {
+            this.logger.warn("Failed to delete cached extension descriptor [{}]", file);
+        }
+    }
+
+    private File getFile(ExtensionRepositoryDescriptor descriptor, ExtensionId extensionId)
+    {
+        String repositoryKey = DigestUtils
+            .md5Hex(descriptor.getId() + '\n' + descriptor.getType() + '\n' + descriptor.getURI());
+
+        File repositoryFolder = new File(this.folder, repositoryKey);
+        File extensionFolder = new File(repositoryFolder, PathUtils.encode(extensionId.getId()));
+
+        return new File(extensionFolder, PathUtils.encode(extensionId.getVersion().getValue()) + DESCRIPTOR_EXTENSION);
+    }
+}
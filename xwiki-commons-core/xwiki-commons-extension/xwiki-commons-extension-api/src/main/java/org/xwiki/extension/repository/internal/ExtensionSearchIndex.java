@@ -0,0 +1,238 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.internal.converter.ExtensionIdConverter;
+import org.xwiki.extension.repository.search.ExtensionQuery;
+import org.xwiki.extension.repository.search.ExtensionQuery.COMPARISON;
+import org.xwiki.extension.repository.search.ExtensionQuery.Filter;
+
+/**
+ * An in memory index used to find the extensions which might match a search query without going through all of them.
+ * <p>
+ * The index returns candidates which still need to be checked with
+ * {@link RepositoryUtils#matches(java.util.regex.Pattern, Collection, Extension)}:
+ * <ul>
+ * <li>the text query is looked for in the trigrams of the id, name, summary and features of the extensions (the
+ * description, usually too big to be indexed this way, is searched directly)</li>
+ * <li>the {@link COMPARISON#EQUAL} filters on the id, type and category are resolved with a map of the values</li>
+ * </ul>
+ * An extension can be added several times (for example once for its id and once for each of its features), it stays
+ * in the index until it's removed as many times.
+ *
+ * @param <E> the type of the indexed extensions
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class ExtensionSearchIndex<E extends Extension>
+{
+    private static final int GRAM_SIZE = 3;
+
+    private static final List<String> VALUE_FIELDS =
+        List.of(Extension.FIELD_ID, Extension.FIELD_TYPE, Extension.FIELD_CATEGORY);
+
+    private final Map<E, Entry> entries = new HashMap<>();
+
+    private final Map<String, Set<E>> grams = new HashMap<>();
+
+    private final Map<String, Map<String, Set<E>>> values = new HashMap<>();
+
+    private static final class Entry
+    {
+        private int count;
+
+        private Set<String> grams;
+
+        private String description;
+
+        private Map<String, String> values;
+    }
+
+    /**
+     * @param extension the extension to add to the index
+     */
+    public synchronized void add(E extension)
+    {
+        Entry entry = this.entries.get(extension);
+
+        if (entry == null) {
+            entry = new Entry();
+
+            entry.grams = new HashSet<>();
+            addGrams(extension.getId().getId(), entry.grams);
+            addGrams(extension.getName(), entry.grams);
+            addGrams(extension.getSummary(), entry.grams);
+            // Index the features the way they are matched (including the versions)
+            addGrams(String.valueOf(ExtensionIdConverter.toStringList(extension.getExtensionFeatures())),
+                entry.grams);
+            for (String gram : entry.grams) {
+                this.grams.computeIfAbsent(gram, k -> new HashSet<>()).add(extension);
+            }
+
+            entry.description = extension.getDescription() != null ? extension.getDescription().toLowerCase() : null;
+
+            entry.values = new HashMap<>();
+            for (String field : VALUE_FIELDS) {
+                Object value = extension.get(field);
+                if (value != null) {
+                    String stringValue = String.valueOf(value);
+                    entry.values.put(field, stringValue);
+                    this.values.computeIfAbsent(field, k -> new HashMap<>())
+                        .computeIfAbsent(stringValue, k -> new HashSet<>()).add(extension);
+                }
+            }
+
+            this.entries.put(extension, entry);
+        }
+
+        ++entry.count;
+    }
+
+    /**
+     * @param extension the extension to remove from the index
+     */
+    public synchronized void remove(E extension)
+    {
+        Entry entry = this.entries.get(extension);
+
+        if (entry != null && --entry.count == 0) {
+            this.entries.remove(extension);
+
+            for (String gram : entry.grams) {
+                removeFrom(this.grams, gram, extension);
+            }
+
+            for (Map.Entry<String, String> value : entry.values.entrySet()) {
+                Map<String, Set<E>> fieldValues = this.values.get(value.getKey());
+                removeFrom(fieldValues, value.getValue(), extension);
+                if (fieldValues.isEmpty()) {
+                    this.values.remove(value.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param query the search query
+     * @return the indexed extensions which might match the query, null if the index cannot help with this query
+     */
+    public synchronized Set<E> getCandidates(ExtensionQuery query)
+    {
+        Set<E> candidates = null;
+
+        String pattern = query.getQuery();
+        if (pattern != null && pattern.length() >= GRAM_SIZE) {
+            candidates = getTextCandidates(pattern.toLowerCase());
+        }
+
+        for (Filter filter : query.getFilters()) {
+            if (filter.getComparison() == COMPARISON.EQUAL && filter.getValue() != null) {
+                Set<E> filterCandidates = getValueCandidates(filter);
+
+                if (filterCandidates != null) {
+                    if (candidates == null) {
+                        candidates = new HashSet<>(filterCandidates);
+                    } else {
+                        candidates.retainAll(filterCandidates);
+                    }
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    private Set<E> getTextCandidates(String pattern)
+    {
+        Set<String> patternGrams = new HashSet<>();
+        addGrams(pattern, patternGrams);
+
+        // Start with the most selective trigram
+        Set<E> smallest = null;
+        for (String gram : patternGrams) {
+            Set<E> extensions = this.grams.getOrDefault(gram, Collections.emptySet());
+            if (smallest == null || extensions.size() < smallest.size()) {
+                smallest = extensions;
+            }
+        }
+
+        Set<E> candidates = new HashSet<>(smallest);
+        for (String gram : patternGrams) {
+            if (candidates.isEmpty()) {
+                break;
+            }
+
+            candidates.retainAll(this.grams.getOrDefault(gram, Collections.emptySet()));
+        }
+
+        // The description is not part of the trigrams
+        for (Map.Entry<E, Entry> entry : this.entries.entrySet()) {
+            String description = entry.getValue().description;
+            if (description != null && description.contains(pattern)) {
+                candidates.add(entry.getKey());
+            }
+        }
+
+        return candidates;
+    }
+
+    private Set<E> getValueCandidates(Filter filter)
+    {
+        String field = filter.getField().toLowerCase();
+
+        if (!VALUE_FIELDS.contains(field)) {
+            return null;
+        }
+
+        Map<String, Set<E>> fieldValues = this.values.getOrDefault(field, Collections.emptyMap());
+
+        return fieldValues.getOrDefault(String.valueOf(filter.getValue()), Collections.emptySet());
+    }
+
+    private static void addGrams(String value, Set<String> grams)
+    {
+        if (value != null) {
+            String lowerValue = value.toLowerCase();
+            for (int i = 0; i + GRAM_SIZE <= lowerValue.length(); ++i) {
+                grams.add(lowerValue.substring(i, i + GRAM_SIZE));
+            }
+        }
+    }
+
+    private static <E> void removeFrom(Map<String, Set<E>> map, String key, E extension)
+    {
+        Set<E> extensions = map.get(key);
+        if (extensions != null) {
+            extensions.remove(extension);
+            if (extensions.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
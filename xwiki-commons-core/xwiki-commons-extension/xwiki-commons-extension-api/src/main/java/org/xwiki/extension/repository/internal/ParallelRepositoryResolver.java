@@ -0,0 +1,248 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionNotFoundException;
+import org.xwiki.extension.ResolveException;
+import org.xwiki.extension.repository.ExtensionRepository;
+
+/**
+ * Query several repositories concurrently and return the answer of the repository with the highest priority.
+ * <p>
+ * A repository answer is used only when all the repositories with a higher priority failed to find the extension, the
+ * same way as when querying them one after the other. The queries to the lower priority repositories are cancelled as
+ * soon as an answer is selected.
+ * <p>
+ * The queries are executed by a bounded pool of threads, each query being executed in its own extension session.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class ParallelRepositoryResolver
+{
+    private static final String ALREADY_RESOLVED = "A repository with a higher priority already found the extension";
+
+    /**
+     * The maximum number of repositories queried at the same time.
+     */
+    private static final int MAX_THREADS = 10;
+
+    private final ExtensionContext extensionContext;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Resolve an extension in a repository.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface RepositoryResolver
+    {
+        /**
+         * @param repository the repository where to search the extension
+         * @return the found extension
+         * @throws ResolveException when failing to resolve the extension
+         */
+        Extension resolve(ExtensionRepository repository) throws ResolveException;
+    }
+
+    /**
+     * Called for each repository which failed to resolve the extension.
+     *
+     * @version $Id$
+     */
+    @FunctionalInterface
+    public interface FailureHandler
+    {
+        /**
+         * @param repository the repository which failed to resolve the extension
+         * @param exception the failure
+         */
+        void onFailure(ExtensionRepository repository, ResolveException exception);
+    }
+
+    private static final class ResolveTask
+    {
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        /**
+         * True if this task or a previous one found the extension.
+         */
+        private volatile boolean resolved;
+
+        private Future<Extension> future;
+
+        void release()
+        {
+            this.started.countDown();
+            this.finished.countDown();
+        }
+    }
+
+    private static final class Resolution
+    {
+        /**
+         * True when an answer was selected, the tasks which did not start yet don't need to query their repository.
+         */
+        private volatile boolean done;
+    }
+
+    /**
+     * @param extensionContext used to create an extension session for each query
+     */
+    public ParallelRepositoryResolver(ExtensionContext extensionContext)
+    {
+        this.extensionContext = extensionContext;
+
+        BasicThreadFactory threadFactory = new BasicThreadFactory.Builder().namingPattern("Extension resolver %d")
+            .daemon(true).build();
+        this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param repositories the repositories to query, ordered by priority
+     * @param resolver the resolver to execute in each repository
+     * @param hedgingDelay the number of milliseconds to wait for the answer of a repository before querying the next
+     *            one, 0 or less to query all of them at the same time
+     * @param failureHandler called for each repository which failed to resolve the extension, in the repositories order
+     * @return the extension found in the repository with the highest priority or null if none could find it
+     * @throws ResolveException when the resolution was interrupted
+     */
+    public Extension resolve(List<ExtensionRepository> repositories, RepositoryResolver resolver, long hedgingDelay,
+        FailureHandler failureHandler) throws ResolveException
+    {
+        Resolution resolution = new Resolution();
+        List<ResolveTask> tasks = submit(repositories, resolver, hedgingDelay, resolution);
+
+        try {
+            for (int i = 0; i < tasks.size(); ++i) {
+                try {
+                    return tasks.get(i).future.get();
+                } catch (ExecutionException e) {
+                    failureHandler.onFailure(repositories.get(i), toResolveException(e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new ResolveException("The resolution was interrupted", e);
+        } finally {
+            // Cancel the remaining queries (without interrupting the running ones since it's generally not supported by
+            // the repositories clients) and release the tasks waiting for a previous one
+            resolution.done = true;
+            for (ResolveTask task : tasks) {
+                task.future.cancel(false);
+                task.release();
+            }
+        }
+
+        return null;
+    }
+
+    private List<ResolveTask> submit(List<ExtensionRepository> repositories, RepositoryResolver resolver,
+        long hedgingDelay, Resolution resolution)
+    {
+        List<ResolveTask> tasks = new ArrayList<>(repositories.size());
+
+        for (ExtensionRepository repository : repositories) {
+            ResolveTask previous = tasks.isEmpty() ? null : tasks.get(tasks.size() - 1);
+            ResolveTask task = new ResolveTask();
+            tasks.add(task);
+
+            task.future = this.executor.submit(() -> {
+                try {
+                    if (previous != null && hedgingDelay > 0) {
+                        // Give some time to the previous repository before querying this one
+                        previous.started.await();
+                        previous.finished.await(hedgingDelay, TimeUnit.MILLISECONDS);
+
+                        if (previous.resolved) {
+                            task.resolved = true;
+                        }
+                    }
+
+                    if (task.resolved || resolution.done) {
+                        throw new ExtensionNotFoundException(ALREADY_RESOLVED);
+                    }
+
+                    task.started.countDown();
+
+                    Extension extension = resolve(repository, resolver);
+                    task.resolved = true;
+
+                    return extension;
+                } finally {
+                    task.release();
+                }
+            });
+        }
+
+        return tasks;
+    }
+
+    private Extension resolve(ExtensionRepository repository, RepositoryResolver resolver) throws ResolveException
+    {
+        this.extensionContext.pushSession();
+
+        try {
+            return resolver.resolve(repository);
+        } finally {
+            this.extensionContext.popSession();
+        }
+    }
+
+    private ResolveException toResolveException(Throwable cause)
+    {
+        if (cause instanceof ResolveException resolveException) {
+            return resolveException;
+        }
+
+        if (cause instanceof InterruptedException) {
+            return new ExtensionNotFoundException("The query was cancelled", cause);
+        }
+
+        return new ResolveException("Unexpected error", cause);
+    }
+
+    /**
+     * Stop the threads used to query the repositories.
+     */
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.repository.ExtensionRepositoryDescriptor;
+import org.xwiki.extension.repository.result.FederatedIterableResult;
+import org.xwiki.extension.repository.result.IterableResult;
+import org.xwiki.extension.repository.search.ExtensionQuery;
+import org.xwiki.extension.repository.search.SearchException;
+import org.xwiki.extension.repository.search.Searchable;
+
+/**
+ * Search several repositories concurrently and merge their results.
+ * <p>
+ * Each repository is asked for the first {@code offset + limit} results of the query and the results are merged
+ * following the query sort clauses, the repository order deciding between equivalent extensions. Without sort
+ * clauses, the results are returned in the repositories order, the same way as when searching them one after the
+ * other. The repositories which fail or don't answer in time are ignored and listed in the returned
+ * {@link FederatedIterableResult}.
+ * <p>
+ * The searches are executed by a bounded pool of threads.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class ParallelRepositorySearcher
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelRepositorySearcher.class);
+
+    /**
+     * The maximum number of repositories searched at the same time.
+     */
+    private static final int MAX_THREADS = 10;
+
+    private final ThreadPoolExecutor executor;
+
+    private static final class RepositoryCursor
+    {
+        private final int index;
+
+        private final Iterator<Extension> iterator;
+
+        private Extension current;
+
+        RepositoryCursor(int index, Iterator<Extension> iterator)
+        {
+            this.index = index;
+            this.iterator = iterator;
+        }
+
+        boolean next()
+        {
+            this.current = this.iterator.hasNext() ? this.iterator.next() : null;
+
+            return this.current != null;
+        }
+    }
+
+    /**
+     * Default constructor.
+     */
+    public ParallelRepositorySearcher()
+    {
+        BasicThreadFactory threadFactory =
+            new BasicThreadFactory.Builder().namingPattern("Extension searcher %d").daemon(true).build();
+        this.executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param query the query
+     * @param repositories the repositories, ordered by priority
+     * @param timeout the number of milliseconds to wait for the repositories answers, 0 or less to wait as long as
+     *            needed
+     * @return the found extensions descriptors
+     * @throws SearchException when the search was interrupted
+     */
+    public FederatedIterableResult<Extension> search(ExtensionQuery query, Iterable<ExtensionRepository> repositories,
+        long timeout) throws SearchException
+    {
+        int offset = Math.max(query.getOffset(), 0);
+
+        // Each repository has to return enough results to fill the requested page on its own
+        ExtensionQuery repositoryQuery = new ExtensionQuery(query);
+        repositoryQuery.setOffset(0);
+        repositoryQuery.setLimit(query.getLimit() > 0 ? offset + query.getLimit() : -1);
+
+        List<ExtensionRepository> searchedRepositories = new ArrayList<>();
+        List<Future<IterableResult<Extension>>> futures = new ArrayList<>();
+        for (ExtensionRepository repository : repositories) {
+            if (repository instanceof Searchable) {
+                searchedRepositories.add(repository);
+                futures.add(
+                    this.executor.submit(() -> RepositoryUtils.search(repository, repositoryQuery, null)));
+            }
+        }
+
+        List<IterableResult<Extension>> results = new ArrayList<>(futures.size());
+        List<ExtensionRepositoryDescriptor> incompleteRepositories = new ArrayList<>();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        try {
+            for (int i = 0; i < futures.size(); ++i) {
+                IterableResult<Extension> result =
+                    get(futures.get(i), timeout > 0 ? deadline : 0, searchedRepositories.get(i), query);
+
+                if (result != null) {
+                    results.add(result);
+                } else {
+                    incompleteRepositories.add(searchedRepositories.get(i).getDescriptor());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SearchException("The search was interrupted", e);
+        } finally {
+            // Cancel the searches which did not finish in time (without interrupting the running ones since it's
+            // generally not supported by the repositories clients)
+            futures.forEach(future -> future.cancel(false));
+        }
+
+        return merge(results, query, offset, incompleteRepositories);
+    }
+
+    private IterableResult<Extension> get(Future<IterableResult<Extension>> future, long deadline,
+        ExtensionRepository repository, ExtensionQuery query) throws InterruptedException
+    {
+        try {
+            if (deadline != 0) {
+                return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } else {
+                return future.get();
+            }
+        } catch (TimeoutException e) {
+            LOGGER.warn("Repository [{}] did not answer in time to query [{}]. Ignore it.",
+                repository.getDescriptor(), query);
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to search on repository [{}] with query [{}]. Ignore it.",
+                repository.getDescriptor(), query, e.getCause());
+        }
+
+        return null;
+    }
+
+    private FederatedIterableResult<Extension> merge(List<IterableResult<Extension>> results, ExtensionQuery query,
+        int offset, List<ExtensionRepositoryDescriptor> incompleteRepositories)
+    {
+        Comparator<Extension> extensionComparator = new SortClauseComparator(query.getSortClauses());
+        PriorityQueue<RepositoryCursor> cursors = new PriorityQueue<>(Math.max(results.size(), 1), (c1, c2) -> {
+            int result = extensionComparator.compare(c1.current, c2.current);
+
+            return result != 0 ? result : Integer.compare(c1.index, c2.index);
+        });
+
+        int totalHits = 0;
+        for (int i = 0; i < results.size(); ++i) {
+            IterableResult<Extension> result = results.get(i);
+
+            totalHits += result.getTotalHits();
+
+            RepositoryCursor cursor = new RepositoryCursor(i, result.iterator());
+            if (cursor.next()) {
+                cursors.add(cursor);
+            }
+        }
+
+        // K-way merge of the repositories results
+        List<Extension> page = new ArrayList<>();
+        for (int position = 0; !cursors.isEmpty()
+            && (query.getLimit() <= 0 || page.size() < query.getLimit()); ++position) {
+            RepositoryCursor cursor = cursors.poll();
+
+            if (position >= offset) {
+                page.add(cursor.current);
+            }
+
+            if (cursor.next()) {
+                cursors.add(cursor);
+            }
+        }
+
+        return new FederatedIterableResult<>(totalHits, query.getOffset(), page, incompleteRepositories);
+    }
+
+    /**
+     * Stop the threads used to query the repositories.
+     */
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+}
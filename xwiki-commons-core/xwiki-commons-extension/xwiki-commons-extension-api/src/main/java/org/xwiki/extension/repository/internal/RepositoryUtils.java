@@ -22,8 +22,10 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
@@ -120,11 +122,8 @@ public static <E extends Extension> CollectionIterableResult<E> searchInCollecti
             result = filter(query.getQuery(), query.getFilters(), extensions, forceUnique);
         }
 
-        // Sort
-        sort(result, query.getSortClauses());
-
-        // Create result
-        return RepositoryUtils.getIterableResult(query.getOffset(), query.getLimit(), result);
+        // Sort and create result
+        return getSortedIterableResult(query.getOffset(), query.getLimit(), result, query.getSortClauses());
     }
 
     /**
@@ -166,10 +165,8 @@ private static <E> CollectionIterableResult<E> getIterableResultFromList(int off
 
         int toIndex;
         if (nb > 0) {
-            toIndex = nb + fromIndex;
-            if (toIndex > elements.size()) {
-                toIndex = elements.size();
-            }
+            // Compute it as a long to not overflow with big pages (e.g. Integer.MAX_VALUE)
+            toIndex = (int) Math.min((long) nb + fromIndex, elements.size());
         } else {
             toIndex = elements.size();
         }
@@ -350,6 +347,64 @@ public static void sort(List<? extends Extension> extensions, Collection<SortCla
         Collections.sort(extensions, new SortClauseComparator(sortClauses));
     }
 
+    /**
+     * Sort the passed extensions list based on the passed sort clauses and extract the requested page.
+     * <p>
+     * When the page is small compared to the list, only the extensions located before the end of the page are sorted.
+     * The result is the same as with {@link #sort(List, Collection)} followed by
+     * {@link #getIterableResult(int, int, Collection)}.
+     *
+     * @param offset the offset where to start returning elements
+     * @param nb the number of maximum element to return
+     * @param extensions the list of extensions to sort
+     * @param sortClauses the sort clauses
+     * @param <E> the type of element in the {@link List}
+     * @return the result to limit
+     * @since 18.8.0RC1
+     */
+    public static <E extends Extension> CollectionIterableResult<E> getSortedIterableResult(int offset, int nb,
+        List<E> extensions, Collection<SortClause> sortClauses)
+    {
+        int fromIndex = Math.max(offset, 0);
+
+        // Sorting everything is cheaper when the page is unbounded or most of the list is needed anyway
+        if (nb <= 0 || sortClauses.isEmpty() || (long) fromIndex + nb > extensions.size() / 2) {
+            sort(extensions, sortClauses);
+
+            return getIterableResult(offset, nb, extensions);
+        }
+
+        // Cannot overflow since it's smaller than the list size
+        int toIndex = fromIndex + nb;
+
+        // Keep the position in the list to get the same order as the (stable) full sort
+        Comparator<Extension> extensionComparator = new SortClauseComparator(sortClauses);
+        Comparator<Integer> comparator = (i1, i2) -> {
+            int result = extensionComparator.compare(extensions.get(i1), extensions.get(i2));
+
+            return result != 0 ? result : Integer.compare(i1, i2);
+        };
+
+        // Select the first elements with a bounded heap
+        PriorityQueue<Integer> heap = new PriorityQueue<>(toIndex + 1, comparator.reversed());
+        for (int i = 0; i < extensions.size(); ++i) {
+            heap.add(i);
+            if (heap.size() > toIndex) {
+                heap.poll();
+            }
+        }
+
+        List<Integer> first = new ArrayList<>(heap);
+        first.sort(comparator);
+
+        List<E> page = new ArrayList<>(nb);
+        for (int i = fromIndex; i < toIndex; ++i) {
+            page.add(extensions.get(first.get(i)));
+        }
+
+        return new CollectionIterableResult<>(extensions.size(), offset, page);
+    }
+
     /**
      * Merge provided search results.
      * 
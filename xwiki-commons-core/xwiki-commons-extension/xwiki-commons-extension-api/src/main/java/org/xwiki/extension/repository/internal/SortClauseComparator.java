@@ -66,7 +66,7 @@ private int compare(Extension o1, Extension o2, SortClause sortClause)
 
         if (value1 instanceof Comparable comparable1 && value2 instanceof Comparable comparable2) {
             return ObjectUtils.compare(comparable1, comparable2)
-                + (sortClause.getOrder() == ORDER.ASC ? 1 : -1);
+                * (sortClause.getOrder() == ORDER.ASC ? 1 : -1);
         }
 
         return 0;
@@ -19,11 +19,17 @@
  */
 package org.xwiki.extension.repository.internal.core;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -53,6 +59,8 @@ public class CoreExtensionCache implements Initializable
      */
     private static final String PACKAGE_MARKER = "!/";
 
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
     @Inject
     private Environment environment;
 
@@ -132,6 +140,70 @@ public DefaultCoreExtension getExtension(DefaultCoreExtensionRepository reposito
         return null;
     }
 
+    /**
+     * @param repository the repository to set in the extensions
+     * @return the snapshot of the core extensions found during the previous scan, null if there is none
+     * @since 18.8.0RC1
+     */
+    public CoreExtensionSnapshot loadSnapshot(DefaultCoreExtensionRepository repository)
+    {
+        if (this.folder == null) {
+            return null;
+        }
+
+        File file = new File(this.folder, SNAPSHOT_FILE);
+
+        if (file.exists()) {
+            try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                return CoreExtensionSnapshot.read(stream, this.serializer, repository);
+            } catch (Exception e) {
+                this.logger.warn("Failed to read core extensions snapshot [{}]: [{}]", file,
+                    ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param snapshot the snapshot of the core extensions to store
+     * @since 18.8.0RC1
+     */
+    public void storeSnapshot(CoreExtensionSnapshot snapshot)
+    {
+        if (this.folder == null) {
+            return;
+        }
+
+        File file = new File(this.folder, SNAPSHOT_FILE);
+
+        try {
+            // Make sure the file parents exist
+            file.getParentFile().mkdirs();
+
+            // Write the snapshot in a temporary file first to never expose a partially written snapshot
+            File temporaryFile = File.createTempFile(SNAPSHOT_FILE, null, this.folder);
+            try {
+                writeSnapshot(temporaryFile, snapshot);
+
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile.toPath());
+            }
+        } catch (Exception e) {
+            this.logger.warn("Failed to store core extensions snapshot [{}]: [{}]", file,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private void writeSnapshot(File file, CoreExtensionSnapshot snapshot) throws Exception
+    {
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            snapshot.write(stream, this.serializer);
+        }
+    }
+
     private String getExtensionFileName(URL url)
     {
         URL extensionURL;
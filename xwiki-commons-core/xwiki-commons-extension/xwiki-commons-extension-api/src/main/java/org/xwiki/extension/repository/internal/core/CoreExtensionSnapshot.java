@@ -0,0 +1,210 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xwiki.extension.repository.internal.ExtensionSerializer;
+
+/**
+ * The core extensions found in each JAR of the classpath, with what is needed to know if the JAR changed since.
+ * <p>
+ * Only the regular files of the local file system are part of the snapshot since the content of folders and remote
+ * resources can change without any visible modification.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class CoreExtensionSnapshot
+{
+    /**
+     * The version of the snapshot format, to increment each time it changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String FILE_PROTOCOL = "file";
+
+    private final Map<String, JAREntry> entries = new LinkedHashMap<>();
+
+    private static final class JAREntry
+    {
+        private final long length;
+
+        private final long lastModified;
+
+        private final List<DefaultCoreExtension> extensions;
+
+        JAREntry(long length, long lastModified, List<DefaultCoreExtension> extensions)
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.extensions = extensions;
+        }
+    }
+
+    /**
+     * @param jarURL the URL of the JAR
+     * @return the JAR file, null if it cannot be part of the snapshot
+     */
+    public static File getFile(URL jarURL)
+    {
+        if (FILE_PROTOCOL.equals(jarURL.getProtocol())) {
+            try {
+                File file = new File(jarURL.toURI());
+
+                if (file.isFile()) {
+                    return file;
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // Not a standard file URL
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param jarURL the URL of the JAR
+     * @return the extensions found in the JAR when the snapshot was taken, null if the JAR is unknown or changed since
+     */
+    public List<DefaultCoreExtension> getExtensions(URL jarURL)
+    {
+        JAREntry entry = this.entries.get(jarURL.toExternalForm());
+
+        if (entry != null) {
+            File file = getFile(jarURL);
+
+            if (file != null && file.length() == entry.length && file.lastModified() == entry.lastModified) {
+                return entry.extensions;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param jarURL the URL of the JAR
+     * @param extensions the extensions found in the JAR, empty if the JAR does not contain any known descriptor
+     * @return true if the JAR was added to the snapshot, false if it cannot be part of it
+     */
+    public boolean setExtensions(URL jarURL, List<DefaultCoreExtension> extensions)
+    {
+        File file = getFile(jarURL);
+
+        if (file == null) {
+            return false;
+        }
+
+        this.entries.put(jarURL.toExternalForm(), new JAREntry(file.length(), file.lastModified(), extensions));
+
+        return true;
+    }
+
+    /**
+     * @return the number of JARs in the snapshot
+     */
+    public int size()
+    {
+        return this.entries.size();
+    }
+
+    /**
+     * @param stream the stream to write to
+     * @param serializer the serializer used to write the extensions descriptors
+     * @throws Exception when failing to write the snapshot
+     */
+    public void write(DataOutputStream stream, ExtensionSerializer serializer) throws Exception
+    {
+        stream.writeInt(FORMAT_VERSION);
+
+        stream.writeInt(this.entries.size());
+        for (Map.Entry<String, JAREntry> entry : this.entries.entrySet()) {
+            stream.writeUTF(entry.getKey());
+            stream.writeLong(entry.getValue().length);
+            stream.writeLong(entry.getValue().lastModified);
+
+            stream.writeInt(entry.getValue().extensions.size());
+            for (DefaultCoreExtension extension : entry.getValue().extensions) {
+                stream.writeBoolean(extension.isComplete());
+
+                ByteArrayOutputStream descriptor = new ByteArrayOutputStream();
+                serializer.saveExtensionDescriptor(extension, descriptor);
+                stream.writeInt(descriptor.size());
+                descriptor.writeTo(stream);
+            }
+        }
+    }
+
+    /**
+     * @param stream the stream to read from
+     * @param serializer the serializer used to read the extensions descriptors
+     * @param repository the repository to set in the extensions
+     * @return the read snapshot
+     * @throws Exception when failing to read the snapshot
+     */
+    public static CoreExtensionSnapshot read(DataInputStream stream, ExtensionSerializer serializer,
+        DefaultCoreExtensionRepository repository) throws Exception
+    {
+        int version = stream.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported core extension snapshot format [" + version + "]");
+        }
+
+        CoreExtensionSnapshot snapshot = new CoreExtensionSnapshot();
+
+        int size = stream.readInt();
+        for (int i = 0; i < size; ++i) {
+            String jar = stream.readUTF();
+            long length = stream.readLong();
+            long lastModified = stream.readLong();
+
+            URL jarURL = new URL(jar);
+
+            int extensionsSize = stream.readInt();
+            List<DefaultCoreExtension> extensions = new ArrayList<>(extensionsSize);
+            for (int j = 0; j < extensionsSize; ++j) {
+                boolean complete = stream.readBoolean();
+
+                byte[] descriptor = new byte[stream.readInt()];
+                stream.readFully(descriptor);
+
+                DefaultCoreExtension extension =
+                    serializer.loadCoreExtensionDescriptor(repository, jarURL, new ByteArrayInputStream(descriptor));
+                extension.setComplete(complete);
+                extensions.add(extension);
+            }
+
+            snapshot.entries.put(jar, new JAREntry(length, lastModified, extensions));
+        }
+
+        return snapshot;
+    }
+}
@@ -100,6 +100,29 @@ public class DefaultCoreExtensionScanner implements CoreExtensionScanner, Dispos
 
     private boolean shouldStop;
 
+    /**
+     * The core extensions found in each JAR during the last scan, null if it cannot be used.
+     */
+    private CoreExtensionSnapshot snapshot;
+
+    /**
+     * Remember all the extensions found by the scanners, including those which lost a collision.
+     */
+    private static final class ScannedExtensions extends HashMap<String, DefaultCoreExtension>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<DefaultCoreExtension> found = new ArrayList<>();
+
+        @Override
+        public DefaultCoreExtension put(String key, DefaultCoreExtension value)
+        {
+            this.found.add(value);
+
+            return super.put(key, value);
+        }
+    }
+
     @Override
     public void dispose() throws ComponentLifecycleException
     {
@@ -113,6 +136,7 @@ public void updateExtensions(Collection<DefaultCoreExtension> extensions)
 
         this.extensionContext.pushSession();
 
+        boolean updated = false;
         try {
             for (DefaultCoreExtension extension : extensions) {
                 // If XWiki is stopping before this is finished then we need to exit.
@@ -127,6 +151,7 @@ public void updateExtensions(Collection<DefaultCoreExtension> extensions)
 
                         extension.set(remoteExtension);
                         extension.setComplete(true);
+                        updated = true;
 
                         // Cache it
                         if (extension.getDescriptorURL() != null) {
@@ -143,6 +168,11 @@ public void updateExtensions(Collection<DefaultCoreExtension> extensions)
         } finally {
             extensionContext.popSession();
         }
+
+        // Remember the new extensions details for the next restart
+        if (updated && this.snapshot != null) {
+            this.cache.storeSnapshot(this.snapshot);
+        }
     }
 
     @Override
@@ -322,51 +352,140 @@ private void loadExtensionsFromClassloaders(Map<String, DefaultCoreExtension> ex
 
         this.logger.debug("Found the following JARs: {}", jars);
 
-        // Try to find associated xed files
-
-        this.logger.debug("Loading JARs with associated XED files...");
+        // Reuse the extensions found during the previous scan in the JARs which did not change since
 
-        fromXED(extensions, jars, repository);
+        CoreExtensionSnapshot previousSnapshot = this.cache.loadSnapshot(repository);
+        this.snapshot = new CoreExtensionSnapshot();
 
-        this.logger.debug("Done loading JARs with associated XED files");
+        // The JARs without any known descriptor
+        List<URL> remainingJARs = new ArrayList<>();
 
-        // Try with other scanners (for example find associated Maven files)
+        List<URL> modifiedJARs = new ArrayList<>();
+        for (URL jar : jars) {
+            List<DefaultCoreExtension> jarExtensions =
+                previousSnapshot != null ? previousSnapshot.getExtensions(jar) : null;
 
-        this.logger.debug("Loading remaining JARs with registered scanners...");
+            if (jarExtensions != null) {
+                jarExtensions.forEach(coreExtension -> addCoreExtension(extensions, coreExtension));
+                if (jarExtensions.isEmpty()) {
+                    remainingJARs.add(jar);
+                }
 
-        for (ExtensionScanner scanner : this.scanners) {
-            scanner.scanJARs(extensions, jars, repository);
+                this.snapshot.setExtensions(jar, jarExtensions);
+            } else {
+                modifiedJARs.add(jar);
+            }
         }
 
-        this.logger.debug("Done loading JARs with registered scanners");
+        // Scan the new and modified JARs
+
+        this.logger.debug("Loading the following new or modified JARs: {}", modifiedJARs);
+
+        boolean snapshotModified = scanJARs(extensions, modifiedJARs, repository);
+        remainingJARs.addAll(modifiedJARs);
+
+        this.logger.debug("Done loading new or modified JARs");
 
         // Work some magic to guess the rest of the jar files
 
         this.logger.debug("Try to guess the id of some remaining JARs which don't have any known descriptor...");
 
         for (ExtensionScanner scanner : this.scanners) {
-            scanner.guess(extensions, jars, repository);
+            scanner.guess(extensions, remainingJARs, repository);
         }
 
         this.logger.debug("Done guessing the id of remaining JARs which don't have any known descriptor");
+
+        if (this.snapshot != null
+            && (previousSnapshot == null || snapshotModified || previousSnapshot.size() != this.snapshot.size())) {
+            this.cache.storeSnapshot(this.snapshot);
+        }
     }
 
-    private void fromXED(Map<String, DefaultCoreExtension> extensions, Collection<URL> jars,
+    /**
+     * Find the extensions in the passed JARs and remove from the list the JARs in which at least one descriptor was
+     * found.
+     *
+     * @return true if the snapshot was modified
+     */
+    private boolean scanJARs(Map<String, DefaultCoreExtension> extensions, List<URL> jars,
         DefaultCoreExtensionRepository repository)
     {
-        for (Iterator<URL> it = jars.iterator(); it.hasNext();) {
-            URL jarURL = it.next();
+        List<URL> scannedJARs = new ArrayList<>(jars);
+
+        ScannedExtensions scannedExtensions = new ScannedExtensions();
+
+        // Try to find associated xed files
 
-            DefaultCoreExtension coreExtension = loadCoreExtensionFromXED(jarURL, repository);
+        this.logger.debug("Loading JARs with associated XED files...");
+
+        for (Iterator<URL> it = jars.iterator(); it.hasNext();) {
+            DefaultCoreExtension coreExtension = loadCoreExtensionFromXED(it.next(), repository);
 
             if (coreExtension != null) {
-                // Add the core extension
-                addCoreExtension(extensions, coreExtension);
+                scannedExtensions.found.add(coreExtension);
 
                 // Remove the jar from the list
                 it.remove();
             }
         }
+
+        this.logger.debug("Done loading JARs with associated XED files");
+
+        // Try with other scanners (for example find associated Maven files)
+
+        this.logger.debug("Loading remaining JARs with registered scanners...");
+
+        for (ExtensionScanner scanner : this.scanners) {
+            scanner.scanJARs(scannedExtensions, jars, repository);
+        }
+
+        this.logger.debug("Done loading JARs with registered scanners");
+
+        scannedExtensions.found.forEach(coreExtension -> addCoreExtension(extensions, coreExtension));
+
+        return updateSnapshot(scannedJARs, jars, scannedExtensions.found);
+    }
+
+    private boolean updateSnapshot(List<URL> scannedJARs, List<URL> remainingJARs,
+        List<DefaultCoreExtension> foundExtensions)
+    {
+        if (this.snapshot == null) {
+            return false;
+        }
+
+        // Associate each found extension to its JAR
+        Map<String, List<DefaultCoreExtension>> jarsExtensions = new HashMap<>();
+        scannedJARs.forEach(jar -> jarsExtensions.put(jar.toExternalForm(), new ArrayList<>()));
+        for (DefaultCoreExtension coreExtension : foundExtensions) {
+            List<DefaultCoreExtension> jarExtensions = coreExtension.getURL() != null
+                ? jarsExtensions.get(coreExtension.getURL().toExternalForm()) : null;
+
+            if (jarExtensions == null) {
+                // The JARs alone are not enough to find this extension again, disable the snapshot
+                this.snapshot = null;
+
+                return false;
+            }
+
+            jarExtensions.add(coreExtension);
+        }
+
+        boolean modified = false;
+        for (URL jar : scannedJARs) {
+            List<DefaultCoreExtension> jarExtensions = jarsExtensions.get(jar.toExternalForm());
+
+            if (!jarExtensions.isEmpty() && remainingJARs.contains(jar)) {
+                // Inconsistent scanner result, disable the snapshot
+                this.snapshot = null;
+
+                return false;
+            }
+
+            modified |= this.snapshot.setExtensions(jar, jarExtensions);
+        }
+
+        return modified;
     }
 
     private static URL getEnvironmentExtensionURL(URL xedURL) throws MalformedURLException
@@ -151,10 +151,9 @@ protected IterableResult<InstalledExtension> searchInstalledExtensions(Collectio
             result = new ArrayList<>(new LinkedHashSet<>(result));
         }
 
-        // Sort
-        RepositoryUtils.sort(result, query.getSortClauses());
-
-        return RepositoryUtils.getIterableResult(query.getOffset(), query.getLimit(), result);
+        // Sort and limit
+        return RepositoryUtils.getSortedIterableResult(query.getOffset(), query.getLimit(), result,
+            query.getSortClauses());
     }
 
     protected List<InstalledExtension> filter(Collection<String> namespaces, ExtensionQuery query,
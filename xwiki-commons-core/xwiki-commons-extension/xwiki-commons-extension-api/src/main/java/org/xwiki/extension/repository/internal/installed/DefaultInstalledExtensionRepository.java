@@ -149,6 +149,14 @@ void removeBackwardDependency(DefaultInstalledExtension extension)
      */
     private Map<String, Map<String, InstalledFeature>> extensionNamespaceByFeature = new ConcurrentHashMap<>();
 
+    /**
+     * The installed extensions sorted by the features they depend on, to quickly find the backward dependencies
+     * impacted by the installation of an extension.
+     * <p>
+     * {@code <feature, extensions>}
+     */
+    private final Map<String, Set<DefaultInstalledExtension>> extensionsByDependency = new ConcurrentHashMap<>();
+
     /**
      * Temporary map used only during init.
      * <p>
@@ -485,6 +493,7 @@ private void removeInstalledExtension(DefaultInstalledExtension installedExtensi
 
         if (!installedExtension.isInstalled()) {
             removeCachedExtension(installedExtension);
+            removeFromDependencies(installedExtension);
         }
     }
 
@@ -617,9 +626,62 @@ private void addInstalledExtension(DefaultInstalledExtension installedExtension,
             addInstalledFeatureToCache(feature, namespace, installedExtension, isValid);
         }
 
+        addToDependencies(installedExtension);
+
         if (this.updateBackwardDependencies) {
-            // Recalculate backward dependencies index
-            updateMissingBackwardDependencies();
+            // Update the part of the backward dependencies index impacted by the new extension
+            updateMissingBackwardDependencies(installedExtension, namespace);
+
+            updateDependentsBackwardDependencies(installedExtension.getId().getId(), namespace);
+            for (ExtensionId feature : installedExtension.getExtensionFeatures()) {
+                updateDependentsBackwardDependencies(feature.getId(), namespace);
+            }
+        }
+    }
+
+    private void addToDependencies(DefaultInstalledExtension installedExtension)
+    {
+        for (ExtensionDependency dependency : installedExtension.getDependencies()) {
+            this.extensionsByDependency.computeIfAbsent(dependency.getId(), key -> ConcurrentHashMap.newKeySet())
+                .add(installedExtension);
+        }
+    }
+
+    private void removeFromDependencies(DefaultInstalledExtension installedExtension)
+    {
+        for (ExtensionDependency dependency : installedExtension.getDependencies()) {
+            Set<DefaultInstalledExtension> dependents = this.extensionsByDependency.get(dependency.getId());
+
+            if (dependents != null) {
+                dependents.remove(installedExtension);
+            }
+        }
+    }
+
+    /**
+     * Register the installed extensions depending on the provided feature as backward dependencies of the extension
+     * now providing it.
+     *
+     * @param feature the newly installed feature
+     * @param namespace the namespace where the feature is installed
+     */
+    private void updateDependentsBackwardDependencies(String feature, String namespace)
+    {
+        Set<DefaultInstalledExtension> dependents = this.extensionsByDependency.get(feature);
+
+        if (dependents != null) {
+            for (DefaultInstalledExtension dependent : dependents) {
+                if (namespace == null) {
+                    // A feature installed on root is visible from all namespaces
+                    updateMissingBackwardDependencies(dependent);
+                } else {
+                    Collection<String> namespaces = dependent.getNamespaces();
+
+                    if (namespaces != null && namespaces.contains(namespace)) {
+                        updateMissingBackwardDependencies(dependent, namespace);
+                    }
+                }
+            }
         }
     }
 
@@ -22,6 +22,8 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -96,8 +98,8 @@ public DefaultLocalExtensionRepository()
     public void initialize() throws InitializationException
     {
         try {
-            this.storage =
-                new LocalExtensionStorage(this, this.configuration.getLocalRepository(), this.componentManager);
+            this.storage = new LocalExtensionStorage(this, this.configuration.getLocalRepository(),
+                this.componentManager, this.configuration.isLocalRepositoryIndexEnabled());
         } catch (ComponentLookupException e) {
             throw new InitializationException("Failed to intialize local extension storage", e);
         }
@@ -180,8 +182,15 @@ public LocalExtension storeExtension(Extension extension) throws LocalExtensionR
                 DefaultLocalExtensionFile extensionFile = localExtension.getFile();
                 if (extensionFile != null) {
                     File targetFile = localExtension.getFile().getFile();
-                    InputStream is = extension.getFile().openStream();
-                    FileUtils.copyInputStreamToFile(is, targetFile);
+                    if (extension.getFile() instanceof MovableLocalExtensionFile movableFile) {
+                        // The file was already downloaded, no need to copy it again
+                        targetFile.getParentFile().mkdirs();
+                        Files.move(movableFile.getFile().toPath(), targetFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        InputStream is = extension.getFile().openStream();
+                        FileUtils.copyInputStreamToFile(is, targetFile);
+                    }
                 }
 
                 // Store the extension descriptor
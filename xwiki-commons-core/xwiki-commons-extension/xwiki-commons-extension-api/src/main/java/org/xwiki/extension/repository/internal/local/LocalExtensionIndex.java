@@ -0,0 +1,166 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.local;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact list of all the descriptors of the local repository, to not have to go through the whole repository
+ * folder when nothing changed.
+ * <p>
+ * The index is removed as soon as the repository is modified and written again during the next full load. The
+ * modification dates of the folders are also stored to detect descriptors added or removed outside of the repository
+ * (adding or removing a file changes the modification date of its folder).
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class LocalExtensionIndex
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalExtensionIndex.class);
+
+    /**
+     * The name of the file listing all the descriptors of the repository.
+     */
+    private static final String INDEX_FILE = "descriptors.index";
+
+    /**
+     * The version of the index format.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private final File rootFolder;
+
+    private final File file;
+
+    /**
+     * @param rootFolder the repository folder
+     */
+    public LocalExtensionIndex(File rootFolder)
+    {
+        this.rootFolder = rootFolder;
+        this.file = new File(rootFolder, INDEX_FILE);
+    }
+
+    /**
+     * @return the descriptors listed in the index, null if there is no index or if it's not up to date
+     */
+    public List<File> read()
+    {
+        if (!this.file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            if (stream.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            // A file was added or removed in one of the folders
+            if (read(stream) == null) {
+                return null;
+            }
+
+            // A descriptor was modified or deleted
+            return read(stream);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read local repository index [{}]: [{}]", this.file,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return null;
+    }
+
+    private List<File> read(DataInputStream stream) throws IOException
+    {
+        int size = stream.readInt();
+        List<File> files = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            File indexedFile = new File(this.rootFolder, stream.readUTF());
+
+            if (indexedFile.lastModified() != stream.readLong()) {
+                return null;
+            }
+
+            files.add(indexedFile);
+        }
+
+        return files;
+    }
+
+    /**
+     * @param descriptors all the descriptors of the repository
+     * @param folders all the folders of the repository
+     */
+    public void write(List<File> descriptors, List<File> folders)
+    {
+        try (DataOutputStream stream =
+            new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.file)))) {
+            stream.writeInt(FORMAT_VERSION);
+
+            write(stream, folders);
+            write(stream, descriptors);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to write local repository index [{}]: [{}]", this.file,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            invalidate();
+        }
+    }
+
+    private void write(DataOutputStream stream, List<File> files) throws IOException
+    {
+        Path rootPath = this.rootFolder.toPath();
+
+        stream.writeInt(files.size());
+        for (File indexedFile : files) {
+            stream.writeUTF(rootPath.relativize(indexedFile.toPath()).toString());
+            stream.writeLong(indexedFile.lastModified());
+        }
+    }
+
+    /**
+     * Remove the index, it will be created again during the next full load of the repository.
+     */
+    public void invalidate()
+    {
+        try {
+            Files.deleteIfExists(this.file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete local repository index [{}]: [{}]", this.file,
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+}
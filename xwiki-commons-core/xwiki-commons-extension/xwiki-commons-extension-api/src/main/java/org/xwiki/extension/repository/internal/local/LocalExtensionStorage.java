@@ -27,6 +27,10 @@
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -65,6 +69,8 @@
      */
     private static final String DESCRIPTOR_SUFFIX = '.' + DESCRIPTOR_EXT;
 
+    private static final String LOG_LOAD_FAILED = "Failed to load extension from file [{}] in local repository: [{}]";
+
     /**
      * The repository.
      */
@@ -80,6 +86,11 @@
      */
     private File rootFolder;
 
+    /**
+     * The list of descriptors, null if disabled.
+     */
+    private LocalExtensionIndex index;
+
     /**
      * @param repository the repository
      * @param rootFolder the repository folder
@@ -88,9 +99,27 @@
      */
     public LocalExtensionStorage(DefaultLocalExtensionRepository repository, File rootFolder,
         ComponentManager componentManager) throws ComponentLookupException
+    {
+        this(repository, rootFolder, componentManager, false);
+    }
+
+    /**
+     * @param repository the repository
+     * @param rootFolder the repository folder
+     * @param componentManager used to lookup needed components
+     * @param indexEnabled true if the list of descriptors should be stored in an index file to not have to go through
+     *            the whole repository folder at each restart
+     * @throws ComponentLookupException can't find ExtensionSerializer
+     * @since 18.8.0RC1
+     */
+    public LocalExtensionStorage(DefaultLocalExtensionRepository repository, File rootFolder,
+        ComponentManager componentManager, boolean indexEnabled) throws ComponentLookupException
     {
         this.repository = repository;
         this.rootFolder = rootFolder;
+        if (indexEnabled) {
+            this.index = new LocalExtensionIndex(rootFolder);
+        }
 
         this.extensionSerializer = componentManager.getInstance(ExtensionSerializer.class);
     }
@@ -133,28 +162,97 @@ protected void loadExtensions(File folder) throws IOException
             throw new IOException("Not a directory: " + this.rootFolder);
         }
 
+        boolean useIndex = this.index != null && folder.equals(this.rootFolder);
+
+        List<File> descriptors = useIndex ? this.index.read() : null;
+        boolean upToDateIndex = descriptors != null;
+        List<File> folders = new ArrayList<>();
+        if (!upToDateIndex) {
+            descriptors = new ArrayList<>();
+            findDescriptors(folder, descriptors, folders);
+        }
+
+        addLocalExtensions(descriptors, loadDescriptors(descriptors));
+
+        if (useIndex && !upToDateIndex) {
+            this.index.write(descriptors, folders);
+        }
+    }
+
+    private void addLocalExtensions(List<File> descriptors, List<DefaultLocalExtension> localExtensions)
+    {
+        for (int i = 0; i < descriptors.size(); ++i) {
+            DefaultLocalExtension localExtension = localExtensions.get(i);
+
+            if (localExtension != null) {
+                try {
+                    this.repository.addLocalExtension(localExtension);
+                } catch (Exception e) {
+                    LOGGER.warn(LOG_LOAD_FAILED, descriptors.get(i), ExceptionUtils.getRootCauseMessage(e));
+                }
+            }
+        }
+    }
+
+    private void findDescriptors(File folder, List<File> descriptors, List<File> folders) throws IOException
+    {
         File[] files = folder.listFiles();
 
         if (files == null) {
             throw new IOException("Could not list files: " + this.rootFolder);
         }
 
+        folders.add(folder);
+
         for (File child : files) {
             if (child.isDirectory()) {
-                loadExtensions(child);
+                findDescriptors(child, descriptors, folders);
             } else if (child.getName().endsWith(DESCRIPTOR_SUFFIX)) {
-                try {
-                    DefaultLocalExtension localExtension = loadDescriptor(child);
-
-                    this.repository.addLocalExtension(localExtension);
-                } catch (Exception e) {
-                    LOGGER.warn("Failed to load extension from file [{}] in local repository: [{}]", child,
-                        ExceptionUtils.getRootCauseMessage(e));
-                }
+                descriptors.add(child);
             }
         }
     }
 
+    /**
+     * Parse the passed descriptors using several threads.
+     *
+     * @param descriptors the descriptors files
+     * @return the extensions, in the same order as the descriptors and null for the invalid ones
+     */
+    private List<DefaultLocalExtension> loadDescriptors(List<File> descriptors) throws IOException
+    {
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), descriptors.size());
+
+        if (threads <= 1) {
+            return descriptors.stream().map(this::loadValidDescriptor).toList();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // The parallel stream is executed by the pool it's started from
+            return pool.submit(() -> descriptors.parallelStream().map(this::loadValidDescriptor).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IOException("Interrupted while loading the local extensions", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to load the local extensions", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private DefaultLocalExtension loadValidDescriptor(File descriptor)
+    {
+        try {
+            return loadDescriptor(descriptor);
+        } catch (Exception e) {
+            LOGGER.warn(LOG_LOAD_FAILED, descriptor, ExceptionUtils.getRootCauseMessage(e));
+        }
+
+        return null;
+    }
+
     /**
      * Local extension descriptor from a file.
      *
@@ -215,6 +313,10 @@ public void saveDescriptor(DefaultLocalExtension extension)
             extension.setDescriptorFile(file);
         }
 
+        if (this.index != null) {
+            this.index.invalidate();
+        }
+
         // Make sure the folder exist
         file.getParentFile().mkdirs();
 
@@ -305,6 +407,10 @@ public void removeExtension(DefaultLocalExtension extension) throws IOException
                 String.format("Extension [%s] does not exist: descriptor file is null", extension.getId().getId()));
         }
 
+        if (this.index != null) {
+            this.index.invalidate();
+        }
+
         // Get extension file descriptor path
         Path extensionDescriptorFilePath = descriptorFile.toPath();
 
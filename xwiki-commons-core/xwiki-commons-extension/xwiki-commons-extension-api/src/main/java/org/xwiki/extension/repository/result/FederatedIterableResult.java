@@ -0,0 +1,67 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.result;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.xwiki.extension.repository.ExtensionRepositoryDescriptor;
+
+/**
+ * The result of a search executed in several repositories, some of which might not have answered in time.
+ *
+ * @param <T> the type
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class FederatedIterableResult<T> extends CollectionIterableResult<T>
+{
+    private final Collection<ExtensionRepositoryDescriptor> incompleteRepositories;
+
+    /**
+     * @param totalHits the total number of possible results without offset or maximum results limits
+     * @param offset the index in the total number of possible search result where this extract starts
+     * @param result the actual results
+     * @param incompleteRepositories the repositories which failed to answer or did not answer in time
+     */
+    public FederatedIterableResult(int totalHits, int offset, Collection<T> result,
+        Collection<ExtensionRepositoryDescriptor> incompleteRepositories)
+    {
+        super(totalHits, offset, result);
+
+        this.incompleteRepositories = Collections.unmodifiableCollection(incompleteRepositories);
+    }
+
+    /**
+     * @return true if some repositories did not contribute to the result
+     */
+    public boolean isPartial()
+    {
+        return !this.incompleteRepositories.isEmpty();
+    }
+
+    /**
+     * @return the repositories which failed to answer or did not answer in time
+     */
+    public Collection<ExtensionRepositoryDescriptor> getIncompleteRepositories()
+    {
+        return this.incompleteRepositories;
+    }
+}
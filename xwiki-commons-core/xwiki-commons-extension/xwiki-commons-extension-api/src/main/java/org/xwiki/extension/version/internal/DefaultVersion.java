@@ -23,13 +23,14 @@
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,21 +62,25 @@ public class DefaultVersion implements Version
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultVersion.class);
 
     /**
-     * The original version string representation.
+     * The maximum number of parsed versions to keep in {@link #KEYS}.
      */
-    private String rawVersion;
+    private static final int MAX_KEYS = 10000;
 
     /**
-     * The version cut in peaces for easier comparison.
+     * The parsed versions, shared between all the instances with the same string representation since the same few
+     * versions are usually created again and again. The least recently used versions are removed first.
      */
-    private List<Element> elements;
+    private static final Map<String, SortKey> KEYS = Collections.synchronizedMap(new LRUMap<>(MAX_KEYS));
 
     /**
-     * @see #getType()
+     * The original version string representation.
      */
-    private Type type = Type.STABLE;
+    private String rawVersion;
 
-    private transient int hashCode;
+    /**
+     * The version cut in peaces for easier comparison.
+     */
+    private transient SortKey key;
 
     /**
      * Used to parse the string representation of the version.
@@ -388,6 +393,122 @@ public String toString()
 
     }
 
+    /**
+     * The elements of the version packed in arrays to compare them without any allocation.
+     *
+     * @version $Id$
+     */
+    static final class SortKey
+    {
+        private static final byte QUALIFIER = (byte) Element.ElementType.QUALIFIER.ordinal();
+
+        private static final byte INT = (byte) Element.ElementType.INT.ordinal();
+
+        private static final byte STRING = (byte) Element.ElementType.STRING.ordinal();
+
+        /**
+         * The {@link Element.ElementType} of each element.
+         */
+        private final byte[] kinds;
+
+        /**
+         * The value of the {@link Element.ElementType#INT} and {@link Element.ElementType#QUALIFIER} elements.
+         */
+        private final int[] values;
+
+        /**
+         * The value of the {@link Element.ElementType#STRING} elements.
+         */
+        private final String[] strings;
+
+        private final Type type;
+
+        private final int hashCode;
+
+        SortKey(List<Element> elements, Type type)
+        {
+            this.kinds = new byte[elements.size()];
+            this.values = new int[elements.size()];
+            this.strings = new String[elements.size()];
+            this.type = type;
+
+            int hash = 1;
+            for (int i = 0; i < elements.size(); ++i) {
+                Element element = elements.get(i);
+
+                this.kinds[i] = (byte) element.elementType.ordinal();
+                if (this.kinds[i] == STRING) {
+                    this.strings[i] = (String) element.value;
+                } else {
+                    this.values[i] = (Integer) element.value;
+                }
+
+                hash = 31 * hash + element.hashCode();
+            }
+            this.hashCode = hash;
+        }
+
+        int size()
+        {
+            return this.kinds.length;
+        }
+
+        boolean isNumber(int index)
+        {
+            return this.kinds[index] == INT || this.kinds[index] == QUALIFIER;
+        }
+
+        /**
+         * @return the comparison of the element with the pad element (0 or "ga")
+         */
+        int compareToPadding(int index)
+        {
+            return this.kinds[index] == STRING ? 1 : this.values[index];
+        }
+
+        int compare(int index, SortKey that)
+        {
+            int rel = this.kinds[index] - that.kinds[index];
+
+            if (rel == 0) {
+                if (this.kinds[index] == STRING) {
+                    rel = this.strings[index].compareToIgnoreCase(that.strings[index]);
+                } else {
+                    rel = this.values[index] - that.values[index];
+                }
+            }
+
+            return rel;
+        }
+
+        /**
+         * Compare the end of the version with 0.
+         *
+         * @param index the index where to start comparing with 0
+         * @param checkNumber true if the comparison should stop at the first element of a different kind than
+         *            {@code number}
+         * @param number indicate of the previous element is a number
+         * @return the comparison result
+         */
+        int comparePadding(int index, boolean checkNumber, boolean number)
+        {
+            int rel = 0;
+
+            for (int i = index; i < this.kinds.length; ++i) {
+                if (checkNumber && number != isNumber(i)) {
+                    break;
+                }
+
+                rel = compareToPadding(i);
+                if (rel != 0) {
+                    break;
+                }
+            }
+
+            return rel;
+        }
+    }
+
     /**
      * @param rawVersion the original string representation of the version
      */
@@ -407,13 +528,28 @@ public DefaultVersion(Version version)
     }
 
     /**
-     * Make sure the version has been parsed.
+     * @return the parsed version
      */
-    private void initElements()
+    private SortKey getKey()
     {
-        if (this.elements == null) {
-            parse();
+        if (this.key == null) {
+            if (this.rawVersion == null) {
+                // Nothing to share
+                this.key = parse();
+            } else {
+                SortKey parsedKey = KEYS.get(this.rawVersion);
+
+                if (parsedKey == null) {
+                    parsedKey = parse();
+
+                    KEYS.put(this.rawVersion, parsedKey);
+                }
+
+                this.key = parsedKey;
+            }
         }
+
+        return this.key;
     }
 
     /**
@@ -427,25 +563,28 @@ private void setVersion(String rawVersion)
     /**
      * Parse the string representation of the version into separated elements.
      */
-    private void parse()
+    private SortKey parse()
     {
-        this.elements = new ArrayList<>();
+        List<Element> elements = new ArrayList<>();
+        Type versionType = Type.STABLE;
 
         try {
             for (Tokenizer tokenizer = new Tokenizer(this.rawVersion); tokenizer.next();) {
                 Element element = new Element(tokenizer);
-                this.elements.add(element);
+                elements.add(element);
                 if (element.getVersionType() != Type.STABLE) {
-                    this.type = element.getVersionType();
+                    versionType = element.getVersionType();
                 }
             }
 
-            trimPadding(this.elements);
+            trimPadding(elements);
         } catch (Exception e) {
             // Make sure to never fail no matter what
             LOGGER.error("Failed to parse version [{}]", this.rawVersion, e);
-            this.elements.add(new Element(this.rawVersion));
+            elements.add(new Element(this.rawVersion));
         }
+
+        return new SortKey(elements, versionType);
     }
 
     /**
@@ -469,9 +608,7 @@ private static void trimPadding(List<Element> elements)
     @Override
     public Type getType()
     {
-        initElements();
-
-        return this.type;
+        return getKey().type;
     }
 
     // Version
@@ -493,13 +630,7 @@ public String toString()
     @Override
     public int hashCode()
     {
-        if (this.hashCode == 0) {
-            initElements();
-
-            this.hashCode = this.elements.hashCode();
-        }
-
-        return this.hashCode;
+        return getKey().hashCode;
     }
 
     @Override
@@ -572,68 +703,40 @@ public int compareTo(String version)
      */
     public int compareTo(DefaultVersion version)
     {
-        initElements();
-        version.initElements();
-
-        final List<Element> otherElements = version.elements;
+        final SortKey thisKey = getKey();
+        final SortKey thatKey = version.getKey();
 
         boolean number = true;
-
         int rel;
 
         for (int index = 0;; index++) {
-            if (index >= this.elements.size() && index >= otherElements.size()) {
-                return 0;
-            } else if (index >= this.elements.size()) {
-                return -comparePadding(otherElements, index, null);
-            } else if (index >= otherElements.size()) {
-                return comparePadding(this.elements, index, null);
+            if (index >= thisKey.size() && index >= thatKey.size()) {
+                rel = 0;
+                break;
+            } else if (index >= thisKey.size()) {
+                rel = -thatKey.comparePadding(index, false, false);
+                break;
+            } else if (index >= thatKey.size()) {
+                rel = thisKey.comparePadding(index, false, false);
+                break;
             }
 
-            Element thisElement = this.elements.get(index);
-            Element thatElement = otherElements.get(index);
+            boolean thisNumber = thisKey.isNumber(index);
 
-            if (thisElement.isNumber() != thatElement.isNumber()) {
-                if (number == thisElement.isNumber()) {
-                    rel = comparePadding(this.elements, index, Boolean.valueOf(number));
+            if (thisNumber != thatKey.isNumber(index)) {
+                if (number == thisNumber) {
+                    rel = thisKey.comparePadding(index, true, number);
                 } else {
-                    rel = -comparePadding(otherElements, index, Boolean.valueOf(number));
+                    rel = -thatKey.comparePadding(index, true, number);
                 }
 
                 break;
             } else {
-                rel = thisElement.compareTo(thatElement);
+                rel = thisKey.compare(index, thatKey);
                 if (rel != 0) {
                     break;
                 }
-                number = thisElement.isNumber();
-            }
-        }
-
-        return rel;
-    }
-
-    /**
-     * Compare the end of the version with 0.
-     *
-     * @param elements the elements to compare to 0
-     * @param index the index where to start comparing with 0
-     * @param number indicate of the previous element is a number
-     * @return the comparison result
-     */
-    private static int comparePadding(List<Element> elements, int index, Boolean number)
-    {
-        int rel = 0;
-
-        for (Iterator<Element> it = elements.listIterator(index); it.hasNext();) {
-            Element element = it.next();
-            if (number != null && number.booleanValue() != element.isNumber()) {
-                break;
-            }
-
-            rel = element.compareTo(null);
-            if (rel != 0) {
-                break;
+                number = thisNumber;
             }
         }
 
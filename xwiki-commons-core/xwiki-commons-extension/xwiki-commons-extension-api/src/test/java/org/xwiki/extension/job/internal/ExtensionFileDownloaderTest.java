@@ -0,0 +1,168 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.job.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionFile;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.repository.internal.local.MovableLocalExtensionFile;
+import org.xwiki.extension.test.EmptyExtension;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Validate {@link ExtensionFileDownloader}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@WireMockTest
+class ExtensionFileDownloaderTest
+{
+    private static final byte[] CONTENT = new byte[] {1, 2, 3};
+
+    @XWikiTempDir
+    private File folder;
+
+    private static final class HTTPExtensionFile implements ExtensionFile
+    {
+        private final URI uri;
+
+        private final long length;
+
+        HTTPExtensionFile(URI uri, long length)
+        {
+            this.uri = uri;
+            this.length = length;
+        }
+
+        @Override
+        public long getLength()
+        {
+            return this.length;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException
+        {
+            return this.uri.toURL().openStream();
+        }
+    }
+
+    private static final class TestExtension extends EmptyExtension
+    {
+        TestExtension(WireMockRuntimeInfo wmRuntimeInfo, String id, long length)
+        {
+            super(new ExtensionId(id, "1.0"), "jar");
+
+            setFile(new HTTPExtensionFile(URI.create(wmRuntimeInfo.getHttpBaseUrl() + '/' + id), length));
+        }
+    }
+
+    @Test
+    void download(WireMockRuntimeInfo wmRuntimeInfo) throws IOException
+    {
+        stubFor(get("/extension1").willReturn(aResponse().withBody(CONTENT)));
+        stubFor(get("/extension2").willReturn(aResponse().withStatus(404)));
+        stubFor(get("/extension3").willReturn(aResponse().withBody(CONTENT)));
+        stubFor(get("/extension4").willReturn(aResponse().withBody(CONTENT)));
+        stubFor(get("/extension5").willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        Extension extension1 = new TestExtension(wmRuntimeInfo, "extension1", CONTENT.length);
+        Extension extension2 = new TestExtension(wmRuntimeInfo, "extension2", -1);
+        Extension extension3 = new TestExtension(wmRuntimeInfo, "extension3", CONTENT.length + 1);
+        Extension extension4 = new TestExtension(wmRuntimeInfo, "extension4", -1);
+        Extension extension5 = new TestExtension(wmRuntimeInfo, "extension5", -1);
+
+        ExtensionContext extensionContext = mock(ExtensionContext.class);
+        JobProgressManager progressManager = mock(JobProgressManager.class);
+
+        File downloadFolder;
+        try (ExtensionFileDownloader downloader = new ExtensionFileDownloader(this.folder, extensionContext,
+            progressManager, LoggerFactory.getLogger(ExtensionFileDownloaderTest.class))) {
+            List<Extension> downloaded = downloader
+                .download(Arrays.asList(extension1, extension2, extension3, extension4, extension5), 2);
+
+            assertEquals(5, downloaded.size());
+
+            assertNotSame(extension1, downloaded.get(0));
+            assertEquals(extension1.getId(), downloaded.get(0).getId());
+            assertInstanceOf(MovableLocalExtensionFile.class, downloaded.get(0).getFile());
+            try (InputStream stream = downloaded.get(0).getFile().openStream()) {
+                assertArrayEquals(CONTENT, IOUtils.toByteArray(stream));
+            }
+
+            // Failed downloads are left to the caller
+            assertSame(extension2, downloaded.get(1));
+            // Truncated downloads are ignored
+            assertSame(extension3, downloaded.get(2));
+
+            assertNotSame(extension4, downloaded.get(3));
+            assertEquals(CONTENT.length, downloaded.get(3).getFile().getLength());
+
+            // Interrupted connections are left to the caller
+            assertSame(extension5, downloaded.get(4));
+
+            downloadFolder = ((MovableLocalExtensionFile) downloaded.get(0).getFile()).getFile().getParentFile();
+            assertEquals(this.folder, downloadFolder.getParentFile());
+        }
+
+        // The downloaded files are removed
+        assertFalse(downloadFolder.exists());
+
+        // Each download runs in its own extension session
+        verify(extensionContext, times(5)).pushSession();
+        verify(extensionContext, times(5)).popSession();
+
+        // The progress moves forward with the downloads
+        verify(progressManager, times(5)).startStep(any());
+        verify(progressManager, times(5)).endStep(any());
+    }
+}
@@ -85,6 +85,23 @@ void testInstallOnRoot() throws Throwable
         assertTrue(installedExtension.isDependency("namespace"));
     }
 
+    @Test
+    void testInstallWithConcurrentDownload() throws Throwable
+    {
+        this.memoryConfigurationSource.setProperty("extension.install.downloadThreads", 4);
+
+        install(TestResources.REMOTE_WITHRANDCDEPENDENCIES_ID);
+
+        // The extension and its dependency are stored and installed the same way
+        InstalledExtension installedExtension = this.installedExtensionRepository
+            .getInstalledExtension(TestResources.REMOTE_WITHRANDCDEPENDENCIES_ID.getId(), null);
+        assertNotNull(installedExtension);
+        assertTrue(this.handler.getExtensions().get(null).contains(installedExtension));
+        assertNotNull(this.localExtensionRepository.resolve(TestResources.REMOTE_SIMPLE_ID).getFile());
+        assertTrue(this.installedExtensionRepository.getInstalledExtension(TestResources.REMOTE_SIMPLE_ID.getId(), null)
+            .isDependency(null));
+    }
+
     @Test
     void testInstallNoType() throws Throwable
     {
@@ -19,9 +19,11 @@
  */
 package org.xwiki.extension.job.internal;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -1214,4 +1216,35 @@ void testReplaceFeatureWithConflictingBackwardDependencyOnNamespace() throws Thr
             assertEquals(null, plan);
         });
     }
+
+    @Test
+    void testInstallPlanWithPrefetch() throws Throwable
+    {
+        // Prefetching is disabled by default
+        ExtensionPlan plan = installPlan(TestResources.REMOTE_WITH_MANAGED_TRANSITIVEDEPENDENY_ID);
+
+        this.memoryConfigurationSource.setProperty("extension.resolve.prefetchThreads", 4);
+
+        ExtensionPlan prefetchedPlan = installPlan(TestResources.REMOTE_WITH_MANAGED_TRANSITIVEDEPENDENY_ID);
+
+        // Prefetching the dependencies does not change the plan
+        List<String> expected = List.of("INSTALL rwithmanageddependency/version null",
+            "-INSTALL upgrade-withdependency/1.0 null", "--INSTALL upgrade/2.0 null");
+        assertEquals(expected, toActions(prefetchedPlan.getTree()));
+        assertEquals(expected, toActions(plan.getTree()));
+    }
+
+    private List<String> toActions(Collection<? extends ExtensionPlanNode> nodes)
+    {
+        List<String> actions = new ArrayList<>();
+        for (ExtensionPlanNode node : nodes) {
+            ExtensionPlanAction action = node.getAction();
+            actions.add(action.getAction() + " " + action.getExtension().getId() + " " + action.getNamespace());
+
+            // Indicate the depth of the children
+            toActions(node.getChildren()).forEach(child -> actions.add("-" + child));
+        }
+
+        return actions;
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.job.internal;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.xwiki.extension.DefaultExtensionDependency;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
+import org.xwiki.extension.InstallException;
+import org.xwiki.extension.InstalledExtension;
+import org.xwiki.extension.internal.ExtensionFactory;
+import org.xwiki.extension.job.internal.InstallPlanPrefetcher.DependencyResolver;
+import org.xwiki.extension.repository.CoreExtensionRepository;
+import org.xwiki.extension.repository.InstalledExtensionRepository;
+import org.xwiki.extension.version.internal.DefaultVersionConstraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link InstallPlanPrefetcher}.
+ *
+ * @version $Id$
+ */
+class InstallPlanPrefetcherTest
+{
+    private final CoreExtensionRepository coreExtensionRepository = mock(CoreExtensionRepository.class);
+
+    private final InstalledExtensionRepository installedExtensionRepository = mock(InstalledExtensionRepository.class);
+
+    private final ExtensionContext extensionContext = mock(ExtensionContext.class);
+
+    private final DependencyResolver resolver = mock(DependencyResolver.class);
+
+    private InstallPlanPrefetcher prefetcher;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.prefetcher = new InstallPlanPrefetcher(mock(ExtensionManagerConfiguration.class),
+            mock(ExtensionFactory.class), this.coreExtensionRepository, this.installedExtensionRepository,
+            this.extensionContext, mock(Logger.class));
+    }
+
+    private Extension extension(String id, ExtensionDependency... dependencies)
+    {
+        Extension extension = mock(Extension.class, id);
+        when(extension.getId()).thenReturn(new ExtensionId(id, "1.0"));
+        when(extension.getDependencies()).thenReturn((List) Arrays.asList(dependencies));
+
+        return extension;
+    }
+
+    private ExtensionDependency dependency(String id, boolean optional)
+    {
+        return new DefaultExtensionDependency(id, new DefaultVersionConstraint("1.0"), optional);
+    }
+
+    @Test
+    void prefetch() throws InstallException
+    {
+        ExtensionDependency mandatory = dependency("mandatory", false);
+        ExtensionDependency optional = dependency("optional", true);
+        ExtensionDependency core = dependency("core", false);
+        ExtensionDependency installed = dependency("installed", false);
+        ExtensionDependency transitive = dependency("transitive", false);
+        ExtensionDependency installedTransitive = dependency("installedtransitive", false);
+
+        Extension mandatoryExtension = extension("mandatory", transitive);
+        Extension transitiveExtension = extension("transitive");
+        Extension installedTransitiveExtension = extension("installedtransitive");
+        when(this.resolver.resolve(mandatory)).thenReturn(mandatoryExtension);
+        when(this.resolver.resolve(transitive)).thenReturn(transitiveExtension);
+        when(this.resolver.resolve(installedTransitive)).thenReturn(installedTransitiveExtension);
+
+        when(this.coreExtensionRepository.exists("core")).thenReturn(true);
+
+        InstalledExtension installedExtension = mock(InstalledExtension.class);
+        when(installedExtension.getId()).thenReturn(new ExtensionId("installed", "1.0"));
+        when(installedExtension.getDependencies()).thenReturn((List) List.of(installedTransitive));
+        when(this.installedExtensionRepository.getInstalledExtension("installed", null))
+            .thenReturn(installedExtension);
+
+        Map<ExtensionDependency, Extension> resolved =
+            this.prefetcher.prefetch(List.of(extension("root", mandatory, optional, core, installed)),
+                Set.of(), null, this.resolver, 2);
+
+        // Nothing is installed in an empty set of namespaces (and the resolver can't find the installed extension)
+        assertEquals(Set.of(mandatory, transitive), resolved.keySet());
+
+        resolved = this.prefetcher.prefetch(List.of(extension("root", mandatory, optional, core, installed)),
+            Arrays.asList((String) null), null, this.resolver, 2);
+
+        // The dependencies of the installed extension are still prefetched
+        assertEquals(Map.of(mandatory, mandatoryExtension, transitive, transitiveExtension, installedTransitive,
+            installedTransitiveExtension), resolved);
+
+        verify(this.resolver, times(2)).resolve(mandatory);
+        verify(this.resolver, times(2)).resolve(transitive);
+        verify(this.resolver, times(1)).resolve(installed);
+        verify(this.resolver, times(1)).resolve(installedTransitive);
+        verify(this.resolver, never()).resolve(optional);
+        verify(this.resolver, never()).resolve(core);
+
+        // Each resolution is done in an extension session
+        verify(this.extensionContext, times(6)).pushSession();
+        verify(this.extensionContext, times(6)).popSession();
+    }
+
+    @Test
+    void prefetchWithFailure() throws InstallException
+    {
+        ExtensionDependency dependency = dependency("dependency", false);
+        when(this.resolver.resolve(any())).thenThrow(new InstallException("error"));
+
+        assertEquals(Map.of(),
+            this.prefetcher.prefetch(List.of(extension("root", dependency)), Set.of(), null, this.resolver, 2));
+    }
+}
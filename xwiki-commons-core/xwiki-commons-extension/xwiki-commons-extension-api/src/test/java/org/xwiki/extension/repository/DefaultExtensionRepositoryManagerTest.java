@@ -32,16 +32,20 @@
 import org.xwiki.extension.Extension;
 import org.xwiki.extension.ResolveException;
 import org.xwiki.extension.repository.internal.DefaultExtensionRepositoryManager;
+import org.xwiki.extension.repository.internal.ExtensionRepositoryMetadataCache;
 import org.xwiki.extension.version.internal.DefaultVersionConstraint;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectComponentManager;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
 import org.xwiki.test.mockito.MockitoComponentManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -60,6 +64,9 @@
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
+    @MockComponent
+    private ExtensionRepositoryMetadataCache metadataCache;
+
     private ExtensionRepository testRepository;
 
     private ExtensionRepositoryDescriptor descriptor;
@@ -75,6 +82,8 @@
     @BeforeEach
     void before() throws Exception
     {
+        when(this.metadataCache.decorate(any())).then(returnsFirstArg());
+
         this.factory = this.componentManager.registerMockComponent(ExtensionRepositoryFactory.class, "test");
         this.testRepository = mock(ExtensionRepository.class);
 
@@ -561,6 +561,26 @@ void testBackwardDependenciesWithExtensionAndDepOnNamespace()
             this.installedExtensionRepository.getBackwardDependencies(TestResources.INSTALLED_ID.getId(), "namespace"));
     }
 
+    @Test
+    void testBackwardDependenciesWithDepInstalledAfterExtension()
+        throws InstallException, ResolveException, UninstallException
+    {
+        this.installedExtensionRepository.uninstallExtension(this.resources.installed, null);
+        this.installedExtensionRepository.uninstallExtension(this.resources.installedDependency, null);
+
+        this.installedExtensionRepository.installExtension(this.resources.installed, "namespace", false);
+        this.installedExtensionRepository.installExtension(this.resources.installedDependency, "namespace", true);
+
+        assertEquals(Arrays.asList(this.resources.installed), this.installedExtensionRepository
+            .getBackwardDependencies(TestResources.INSTALLED_DEPENDENCY_ID.getId(), "namespace", true));
+
+        this.installedExtensionRepository.installExtension(this.resources.installedDependency, "othernamespace",
+            true);
+
+        assertEquals(Arrays.asList(), this.installedExtensionRepository
+            .getBackwardDependencies(TestResources.INSTALLED_DEPENDENCY_ID.getId(), "othernamespace", true));
+    }
+
     @Test
     void testSearch() throws SearchException
     {
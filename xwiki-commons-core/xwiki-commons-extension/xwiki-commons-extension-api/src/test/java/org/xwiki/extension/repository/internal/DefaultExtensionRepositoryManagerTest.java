@@ -24,27 +24,49 @@
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections4.IterableUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.xwiki.extension.DefaultExtensionDependency;
 import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionManagerConfiguration;
+import org.xwiki.extension.ExtensionNotFoundException;
 import org.xwiki.extension.ResolveException;
 import org.xwiki.extension.repository.DefaultExtensionRepositoryDescriptor;
 import org.xwiki.extension.repository.ExtensionRepository;
 import org.xwiki.extension.repository.result.CollectionIterableResult;
+import org.xwiki.extension.repository.result.FederatedIterableResult;
 import org.xwiki.extension.repository.result.IterableResult;
+import org.xwiki.extension.repository.search.ExtensionQuery;
 import org.xwiki.extension.repository.search.SearchException;
 import org.xwiki.extension.repository.search.Searchable;
 import org.xwiki.extension.test.ExtensionUtils;
 import org.xwiki.extension.version.Version;
 import org.xwiki.extension.version.internal.DefaultVersion;
+import org.xwiki.extension.version.internal.DefaultVersionConstraint;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -59,6 +81,12 @@
     @InjectMockComponents
     private DefaultExtensionRepositoryManager manager;
 
+    @MockComponent
+    private ExtensionManagerConfiguration configuration;
+
+    @MockComponent
+    private ExtensionContext extensionContext;
+
     private ExtensionRepository mockRepository1;
 
     private Searchable mockSearchableRepository1;
@@ -185,4 +213,142 @@ void search() throws SearchException
         assertSearch(0, 1, this.extension1);
         assertSearch(1, -1, this.extension2, this.extension3, this.extension4);
     }
+
+    @Test
+    void searchInParallel() throws SearchException
+    {
+        when(this.configuration.isParallelSearchEnabled()).thenReturn(true);
+
+        when(this.mockSearchableRepository1.search("pattern", 0, -1))
+            .thenReturn(toIterableExtensions(this.extension1, this.extension2));
+        when(this.mockSearchableRepository1.search("pattern", 0, 1))
+            .thenReturn(toIterableExtensions(this.extension1));
+        when(this.mockSearchableRepository2.search("pattern", 0, -1))
+            .thenReturn(toIterableExtensions(this.extension3, this.extension4));
+        when(this.mockSearchableRepository2.search("pattern", 0, 1))
+            .thenReturn(toIterableExtensions(this.extension3));
+
+        assertSearch(0, -1, this.extension1, this.extension2, this.extension3, this.extension4);
+        assertSearch(0, 1, this.extension1);
+        assertSearch(1, -1, this.extension2, this.extension3, this.extension4);
+
+        IterableResult<Extension> result = this.manager.search(new ExtensionQuery("pattern"));
+
+        assertEquals(4, result.getTotalHits());
+        assertFalse(((FederatedIterableResult<Extension>) result).isPartial());
+    }
+
+    @Test
+    void searchInParallelWithTimeout() throws SearchException
+    {
+        when(this.configuration.isParallelSearchEnabled()).thenReturn(true);
+        when(this.configuration.getParallelSearchTimeout()).thenReturn(100L);
+
+        when(this.mockSearchableRepository1.search("pattern", 0, -1)).then(invocation -> {
+            Thread.sleep(60000);
+
+            return toIterableExtensions(this.extension1, this.extension2);
+        });
+        when(this.mockSearchableRepository2.search("pattern", 0, -1))
+            .thenReturn(toIterableExtensions(this.extension3, this.extension4));
+
+        FederatedIterableResult<Extension> result =
+            (FederatedIterableResult<Extension>) this.manager.search(new ExtensionQuery("pattern"));
+
+        // The slow repository is ignored
+        assertSameElements(Arrays.asList(this.extension3, this.extension4), result);
+        assertEquals(2, result.getTotalHits());
+        assertTrue(result.isPartial());
+        assertEquals(List.of(this.mockRepository1.getDescriptor()), List.copyOf(result.getIncompleteRepositories()));
+    }
+
+    @Test
+    void resolveInParallel() throws ResolveException
+    {
+        when(this.configuration.isParallelResolveEnabled()).thenReturn(true);
+
+        ExtensionId extensionId = new ExtensionId("id", "version");
+
+        // The repository with the highest priority wins even if it's slower
+        when(this.mockRepository1.resolve(extensionId)).then(invocation -> {
+            Thread.sleep(100);
+
+            return this.extension1;
+        });
+        when(this.mockRepository2.resolve(extensionId)).thenReturn(this.extension2);
+
+        assertSame(this.extension1, this.manager.resolve(extensionId));
+
+        // Each query is executed in its own extension session
+        verify(this.extensionContext, timeout(1000).times(2)).popSession();
+        verify(this.extensionContext, times(2)).pushSession();
+
+        doThrow(new ExtensionNotFoundException("not found")).when(this.mockRepository1).resolve(extensionId);
+
+        assertSame(this.extension2, this.manager.resolve(extensionId));
+
+        doThrow(new ExtensionNotFoundException("not found")).when(this.mockRepository2).resolve(extensionId);
+
+        assertThrows(ExtensionNotFoundException.class, () -> this.manager.resolve(extensionId));
+
+        doThrow(new ResolveException("error")).when(this.mockRepository2).resolve(extensionId);
+
+        ResolveException exception = assertThrows(ResolveException.class, () -> this.manager.resolve(extensionId));
+        assertEquals("Failed to resolve extension [id/version]", exception.getMessage());
+        assertEquals("error", exception.getCause().getMessage());
+    }
+
+    @Test
+    void resolveInParallelDoesNotInterruptQueries() throws Exception
+    {
+        when(this.configuration.isParallelResolveEnabled()).thenReturn(true);
+
+        ExtensionId extensionId = new ExtensionId("id", "version");
+
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        when(this.mockRepository1.resolve(extensionId)).then(invocation -> {
+            started.await();
+
+            return this.extension1;
+        });
+        when(this.mockRepository2.resolve(extensionId)).then(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(100);
+                interrupted.complete(false);
+            } catch (InterruptedException e) {
+                interrupted.complete(true);
+            }
+
+            return this.extension2;
+        });
+
+        assertSame(this.extension1, this.manager.resolve(extensionId));
+
+        // The query to the lower priority repository is allowed to finish
+        assertFalse(interrupted.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void resolveDependencyInParallelWithHedgingDelay() throws ResolveException
+    {
+        when(this.configuration.isParallelResolveEnabled()).thenReturn(true);
+        when(this.configuration.getParallelResolveHedgingDelay()).thenReturn(60000L);
+
+        ExtensionDependency dependency = new DefaultExtensionDependency("id", new DefaultVersionConstraint("1.0"));
+
+        when(this.mockRepository1.resolve(dependency)).thenReturn(this.extension1);
+
+        assertSame(this.extension1, this.manager.resolve(dependency));
+
+        // The second repository is not queried when the first one answers before the hedging delay
+        verify(this.mockRepository2, never()).resolve(dependency);
+
+        doThrow(new ExtensionNotFoundException("not found")).when(this.mockRepository1).resolve(dependency);
+        when(this.mockRepository2.resolve(dependency)).thenReturn(this.extension2);
+
+        // The second repository is queried as soon as the first one failed
+        assertSame(this.extension2, this.manager.resolve(dependency));
+    }
 }
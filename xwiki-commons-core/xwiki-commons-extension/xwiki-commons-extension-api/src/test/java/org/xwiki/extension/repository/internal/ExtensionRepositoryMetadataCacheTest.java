@@ -0,0 +1,292 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.environment.Environment;
+import org.xwiki.extension.AbstractExtension;
+import org.xwiki.extension.DefaultExtensionDependency;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionDependency;
+import org.xwiki.extension.ExtensionFile;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionLicenseManager;
+import org.xwiki.extension.ExtensionManagerConfiguration;
+import org.xwiki.extension.ExtensionNotFoundException;
+import org.xwiki.extension.ResolveException;
+import org.xwiki.extension.internal.ExtensionFactory;
+import org.xwiki.extension.repository.DefaultExtensionRepositoryDescriptor;
+import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.repository.rating.Ratable;
+import org.xwiki.extension.repository.rating.RatableExtensionRepository;
+import org.xwiki.extension.repository.search.AdvancedSearchable;
+import org.xwiki.extension.repository.search.Searchable;
+import org.xwiki.extension.version.internal.DefaultVersionConstraint;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Validate {@link ExtensionRepositoryMetadataCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@ComponentList({DefaultExtensionSerializer.class, ExtensionFactory.class})
+class ExtensionRepositoryMetadataCacheTest
+{
+    private static final ExtensionId EXTENSION_ID = new ExtensionId("id", "1.0");
+
+    private static final byte[] CONTENT = new byte[] {1, 2, 3};
+
+    @XWikiTempDir
+    private static File TMP_DIRECTORY;
+
+    @InjectMockComponents
+    private ExtensionRepositoryMetadataCache cache;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private ExtensionManagerConfiguration configuration;
+
+    @MockComponent
+    private ExtensionLicenseManager licenseManager;
+
+    private ExtensionRepository remoteRepository;
+
+    private Extension remoteExtension;
+
+    private static class RemoteExtension extends AbstractExtension
+    {
+        RemoteExtension(ExtensionRepository repository)
+        {
+            super(repository, EXTENSION_ID, "type");
+
+            setName("name");
+            addDependency(new DefaultExtensionDependency("dependency", new DefaultVersionConstraint("2.0")));
+            setFile(new ExtensionFile()
+            {
+                @Override
+                public InputStream openStream() throws IOException
+                {
+                    return new ByteArrayInputStream(CONTENT);
+                }
+
+                @Override
+                public long getLength()
+                {
+                    return CONTENT.length;
+                }
+            });
+        }
+    }
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(TMP_DIRECTORY);
+        when(this.configuration.getRemoteMetadataCacheTTL()).thenReturn(3600L);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.remoteRepository = mock(ExtensionRepository.class);
+        when(this.remoteRepository.getDescriptor())
+            .thenReturn(new DefaultExtensionRepositoryDescriptor("remote", "type", new URI("http://remote")));
+
+        this.remoteExtension = new RemoteExtension(this.remoteRepository);
+        when(this.remoteRepository.resolve(EXTENSION_ID)).thenReturn(this.remoteExtension);
+    }
+
+    private File getCacheFile()
+    {
+        File[] repositoryFolders = new File(TMP_DIRECTORY, "cache/extension/repository/").listFiles();
+
+        return new File(repositoryFolders[0], "id/1%2E0.xed");
+    }
+
+    @Test
+    void decorateWhenDisabled()
+    {
+        when(this.configuration.getRemoteMetadataCacheTTL()).thenReturn(0L);
+
+        assertSame(this.remoteRepository, this.cache.decorate(this.remoteRepository));
+    }
+
+    @Test
+    void resolve() throws Exception
+    {
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        // Not cached yet
+        assertSame(this.remoteExtension, repository.resolve(EXTENSION_ID));
+
+        // Cached
+        Extension cachedExtension = repository.resolve(EXTENSION_ID);
+
+        assertInstanceOf(CachedExtension.class, cachedExtension);
+        assertEquals(EXTENSION_ID, cachedExtension.getId());
+        assertEquals("name", cachedExtension.getName());
+        assertEquals(this.remoteExtension.getDependencies(), cachedExtension.getDependencies());
+        assertSame(repository, cachedExtension.getRepository());
+
+        verify(this.remoteRepository, times(1)).resolve(EXTENSION_ID);
+
+        // The file is taken from the remote repository
+        try (InputStream stream = cachedExtension.getFile().openStream()) {
+            assertArrayEquals(CONTENT, stream.readAllBytes());
+        }
+
+        verify(this.remoteRepository, times(2)).resolve(EXTENSION_ID);
+    }
+
+    @Test
+    void resolveExpired() throws Exception
+    {
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        repository.resolve(EXTENSION_ID);
+
+        File file = getCacheFile();
+        file.setLastModified(System.currentTimeMillis() - 7200 * 1000L);
+
+        // Expired and the remote repository fails
+        doThrow(new ResolveException("error")).when(this.remoteRepository).resolve(EXTENSION_ID);
+
+        assertInstanceOf(CachedExtension.class, repository.resolve(EXTENSION_ID));
+
+        // Expired and the extension does not exist anymore
+        doThrow(new ExtensionNotFoundException("not found")).when(this.remoteRepository).resolve(EXTENSION_ID);
+
+        assertThrows(ExtensionNotFoundException.class, () -> repository.resolve(EXTENSION_ID));
+        assertEquals(Arrays.asList(), Arrays.asList(file.getParentFile().listFiles()));
+    }
+
+    @Test
+    void decorateExposesTheWrappedInterfaces()
+    {
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        assertFalse(repository instanceof Searchable);
+        assertFalse(repository instanceof Ratable);
+
+        repository = this.cache.decorate(mock(RatableExtensionRepository.class));
+
+        assertFalse(repository instanceof Searchable);
+        assertTrue(repository instanceof Ratable);
+
+        repository = this.cache.decorate(mock(ExtensionRepository.class,
+            withSettings().extraInterfaces(AdvancedSearchable.class, Ratable.class)));
+
+        assertTrue(repository instanceof AdvancedSearchable);
+        assertTrue(repository instanceof Ratable);
+    }
+
+    @Test
+    void resolveWithoutURI() throws Exception
+    {
+        when(this.remoteRepository.getDescriptor())
+            .thenReturn(new DefaultExtensionRepositoryDescriptor("remote", "type", null));
+
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        assertSame(this.remoteExtension, repository.resolve(EXTENSION_ID));
+        assertInstanceOf(CachedExtension.class, repository.resolve(EXTENSION_ID));
+
+        verify(this.remoteRepository, times(1)).resolve(EXTENSION_ID);
+    }
+
+    @Test
+    void resolveSnapshot() throws Exception
+    {
+        ExtensionId snapshotId = new ExtensionId("id", "1.0-SNAPSHOT");
+        when(this.remoteRepository.resolve(snapshotId)).thenReturn(this.remoteExtension);
+
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        assertSame(this.remoteExtension, repository.resolve(snapshotId));
+        assertSame(this.remoteExtension, repository.resolve(snapshotId));
+
+        verify(this.remoteRepository, times(2)).resolve(snapshotId);
+    }
+
+    @Test
+    void resolveDependency() throws Exception
+    {
+        ExtensionDependency dependency = new DefaultExtensionDependency("id", new DefaultVersionConstraint("1.0"));
+        when(this.remoteRepository.resolve(dependency)).thenReturn(this.remoteExtension);
+
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        // Not cached yet
+        assertSame(this.remoteExtension, repository.resolve(dependency));
+
+        // Cached, including for the resolution of the extension identifier
+        assertInstanceOf(CachedExtension.class, repository.resolve(dependency));
+        assertInstanceOf(CachedExtension.class, repository.resolve(EXTENSION_ID));
+
+        verify(this.remoteRepository, times(1)).resolve(dependency);
+        verify(this.remoteRepository, never()).resolve(EXTENSION_ID);
+    }
+
+    @Test
+    void resolveDependencyWithRange() throws Exception
+    {
+        ExtensionDependency dependency =
+            new DefaultExtensionDependency("id", new DefaultVersionConstraint("[1.0,2.0)"));
+        when(this.remoteRepository.resolve(dependency)).thenReturn(this.remoteExtension);
+
+        ExtensionRepository repository = this.cache.decorate(this.remoteRepository);
+
+        assertSame(this.remoteExtension, repository.resolve(dependency));
+        assertSame(this.remoteExtension, repository.resolve(dependency));
+
+        verify(this.remoteRepository, times(2)).resolve(dependency);
+    }
+}
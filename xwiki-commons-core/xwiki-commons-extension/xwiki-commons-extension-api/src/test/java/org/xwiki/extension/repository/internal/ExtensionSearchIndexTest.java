@@ -0,0 +1,160 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.repository.result.IterableResult;
+import org.xwiki.extension.repository.search.ExtensionQuery;
+import org.xwiki.extension.repository.search.ExtensionQuery.COMPARISON;
+import org.xwiki.extension.repository.search.ExtensionQuery.ORDER;
+import org.xwiki.extension.test.EmptyExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Validate {@link ExtensionSearchIndex}.
+ *
+ * @version $Id$
+ */
+class ExtensionSearchIndexTest
+{
+    private ExtensionSearchIndex<Extension> index;
+
+    private EmptyExtension extension1;
+
+    private EmptyExtension extension2;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.index = new ExtensionSearchIndex<>();
+
+        this.extension1 = new EmptyExtension(new ExtensionId("org.xwiki:first", "1.0"), "jar");
+        this.extension1.setName("First Extension");
+        this.extension1.setDescription("Some long description");
+        this.extension1.setCategory("application");
+        this.extension1.setExtensionFeatures(List.of(new ExtensionId("feature", "2.0")));
+
+        this.extension2 = new EmptyExtension(new ExtensionId("org.xwiki:second", "1.0"), "xar");
+        this.extension2.setSummary("Another summary");
+    }
+
+    @Test
+    void getCandidates()
+    {
+        this.index.add(this.extension1);
+        this.index.add(this.extension2);
+
+        assertEquals(Set.of(this.extension1, this.extension2), this.index.getCandidates(new ExtensionQuery("XWIKI")));
+        assertEquals(Set.of(this.extension1), this.index.getCandidates(new ExtensionQuery("first ext")));
+        assertEquals(Set.of(this.extension2), this.index.getCandidates(new ExtensionQuery("summ")));
+        assertEquals(Set.of(this.extension1), this.index.getCandidates(new ExtensionQuery("long desc")));
+        assertEquals(Set.of(), this.index.getCandidates(new ExtensionQuery("unknown")));
+        assertEquals(Set.of(this.extension1), this.index.getCandidates(new ExtensionQuery("feature/2.0")));
+
+        assertEquals(Set.of(this.extension2), this.index.getCandidates(
+            new ExtensionQuery().addFilter(Extension.FIELD_TYPE, "xar", COMPARISON.EQUAL)));
+        assertEquals(Set.of(this.extension1), this.index.getCandidates(
+            new ExtensionQuery("xwiki").addFilter(Extension.FIELD_CATEGORY, "application", COMPARISON.EQUAL)));
+
+        // The index cannot help
+        assertNull(this.index.getCandidates(new ExtensionQuery("xw")));
+        assertNull(this.index.getCandidates(
+            new ExtensionQuery().addFilter(Extension.FIELD_NAME, "First Extension", COMPARISON.EQUAL)));
+    }
+
+    @Test
+    void remove()
+    {
+        // Indexed twice (for example for its id and one of its features)
+        this.index.add(this.extension1);
+        this.index.add(this.extension1);
+
+        this.index.remove(this.extension1);
+
+        assertEquals(Set.of(this.extension1), this.index.getCandidates(new ExtensionQuery("first")));
+
+        this.index.remove(this.extension1);
+
+        assertEquals(Set.of(), this.index.getCandidates(new ExtensionQuery("first")));
+        assertEquals(Set.of(), this.index.getCandidates(
+            new ExtensionQuery().addFilter(Extension.FIELD_TYPE, "jar", COMPARISON.EQUAL)));
+    }
+
+    @Test
+    void getSortedIterableResult()
+    {
+        List<Extension> extensions = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            EmptyExtension extension = new EmptyExtension(new ExtensionId("id" + i, "1.0"), null);
+            extension.setName("name" + (i % 7));
+            extensions.add(extension);
+        }
+
+        ExtensionQuery query = new ExtensionQuery().addSort(Extension.FIELD_NAME, ORDER.DESC).setOffset(2).setLimit(5);
+
+        List<Extension> expected = new ArrayList<>(extensions);
+        RepositoryUtils.sort(expected, query.getSortClauses());
+
+        IterableResult<Extension> result = RepositoryUtils.getSortedIterableResult(query.getOffset(),
+            query.getLimit(), new ArrayList<>(extensions), query.getSortClauses());
+
+        List<Extension> page = new ArrayList<>();
+        result.forEach(page::add);
+
+        assertEquals(20, result.getTotalHits());
+        assertEquals(2, result.getOffset());
+        assertEquals(expected.subList(2, 7), page);
+    }
+
+    @Test
+    void getSortedIterableResultWhenUnbounded()
+    {
+        List<Extension> extensions = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            EmptyExtension extension = new EmptyExtension(new ExtensionId("id" + i, "1.0"), null);
+            extension.setName("name" + (i % 7));
+            extensions.add(extension);
+        }
+
+        ExtensionQuery query = new ExtensionQuery().addSort(Extension.FIELD_NAME, ORDER.ASC);
+
+        List<Extension> expected = new ArrayList<>(extensions);
+        RepositoryUtils.sort(expected, query.getSortClauses());
+
+        for (int nb : new int[] {-1, Integer.MAX_VALUE}) {
+            IterableResult<Extension> result = RepositoryUtils.getSortedIterableResult(1, nb,
+                new ArrayList<>(extensions), query.getSortClauses());
+
+            List<Extension> page = new ArrayList<>();
+            result.forEach(page::add);
+
+            assertEquals(expected.subList(1, 20), page);
+        }
+    }
+}
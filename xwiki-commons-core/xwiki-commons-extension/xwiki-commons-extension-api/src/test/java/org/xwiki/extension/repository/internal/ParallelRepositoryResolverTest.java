@@ -0,0 +1,197 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionContext;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionNotFoundException;
+import org.xwiki.extension.ResolveException;
+import org.xwiki.extension.repository.DefaultExtensionRepositoryDescriptor;
+import org.xwiki.extension.repository.ExtensionRepository;
+import org.xwiki.extension.test.EmptyExtension;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link ParallelRepositoryResolver} against repositories served by a local HTTP server.
+ *
+ * @version $Id$
+ */
+@WireMockTest
+class ParallelRepositoryResolverTest
+{
+    private ParallelRepositoryResolver resolver;
+
+    private final List<String> failures = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.resolver = new ParallelRepositoryResolver(mock(ExtensionContext.class));
+    }
+
+    @AfterEach
+    void afterEach()
+    {
+        this.resolver.dispose();
+    }
+
+    private ExtensionRepository repository(WireMockRuntimeInfo wmRuntimeInfo, String id)
+    {
+        ExtensionRepository repository = mock(ExtensionRepository.class);
+        when(repository.getDescriptor()).thenReturn(new DefaultExtensionRepositoryDescriptor(id, "test",
+            URI.create(wmRuntimeInfo.getHttpBaseUrl() + '/' + id)));
+
+        return repository;
+    }
+
+    private void stubRepository(String id, int delay)
+    {
+        stubFor(get('/' + id).willReturn(aResponse().withBody(id).withFixedDelay(delay)));
+    }
+
+    /**
+     * Get the extension from the repository server, the extension id being the body of the response.
+     */
+    private Extension resolve(ExtensionRepository repository) throws ResolveException
+    {
+        try (InputStream stream = repository.getDescriptor().getURI().toURL().openStream()) {
+            return new EmptyExtension(new ExtensionId(IOUtils.toString(stream, StandardCharsets.UTF_8), "1.0"),
+                "jar");
+        } catch (FileNotFoundException e) {
+            throw new ExtensionNotFoundException("Not found", e);
+        } catch (IOException e) {
+            throw new ResolveException("Failed to query the repository", e);
+        }
+    }
+
+    private Extension resolve(long hedgingDelay, ExtensionRepository... repositories) throws ResolveException
+    {
+        return this.resolver.resolve(Arrays.asList(repositories), this::resolve, hedgingDelay,
+            (repository, e) -> this.failures.add(repository.getDescriptor().getId()));
+    }
+
+    @Test
+    void resolveInPriorityOrder(WireMockRuntimeInfo wmRuntimeInfo) throws ResolveException
+    {
+        stubRepository("repository1", 500);
+        stubRepository("repository2", 0);
+        stubFor(get("/repository3").willReturn(aResponse().withStatus(404)));
+
+        // The slower repository with the highest priority wins
+        assertEquals("repository1", resolve(0, repository(wmRuntimeInfo, "repository1"),
+            repository(wmRuntimeInfo, "repository2")).getId().getId());
+
+        // The repositories which don't have the extension are skipped and reported in order
+        assertEquals("repository2", resolve(0, repository(wmRuntimeInfo, "repository3"),
+            repository(wmRuntimeInfo, "repository2")).getId().getId());
+        assertEquals(List.of("repository3"), this.failures);
+
+        this.failures.clear();
+        assertNull(resolve(0, repository(wmRuntimeInfo, "repository3"), repository(wmRuntimeInfo, "missing")));
+        assertEquals(List.of("repository3", "missing"), this.failures);
+    }
+
+    @Test
+    void resolveWithHedging(WireMockRuntimeInfo wmRuntimeInfo) throws ResolveException
+    {
+        stubRepository("fast", 0);
+        stubRepository("slow", 1000);
+        stubRepository("other", 0);
+
+        // The next repository is not queried when the previous one answers within the hedging delay
+        assertEquals("fast",
+            resolve(500, repository(wmRuntimeInfo, "fast"), repository(wmRuntimeInfo, "other")).getId().getId());
+        verify(exactly(0), getRequestedFor(urlEqualTo("/other")));
+
+        // It is queried when the previous one is too slow, but the answer of the previous one is still preferred
+        assertEquals("slow",
+            resolve(200, repository(wmRuntimeInfo, "slow"), repository(wmRuntimeInfo, "other")).getId().getId());
+        verify(exactly(1), getRequestedFor(urlEqualTo("/other")));
+    }
+
+    @Test
+    void resolveCancelsRemainingQueries(WireMockRuntimeInfo wmRuntimeInfo) throws ResolveException
+    {
+        stubRepository("repository1", 400);
+        stubRepository("repository2", 3000);
+        stubRepository("repository3", 0);
+
+        long start = System.nanoTime();
+        Extension extension = resolve(300, repository(wmRuntimeInfo, "repository1"),
+            repository(wmRuntimeInfo, "repository2"), repository(wmRuntimeInfo, "repository3"));
+        long duration = (System.nanoTime() - start) / 1000000;
+
+        assertEquals("repository1", extension.getId().getId());
+
+        // The lower priority query which was already running is not waited for
+        assertTrue(duration < 2000, "The resolution took " + duration + "ms");
+        verify(exactly(1), getRequestedFor(urlEqualTo("/repository2")));
+
+        // The query which did not start yet is cancelled
+        verify(exactly(0), getRequestedFor(urlEqualTo("/repository3")));
+        assertTrue(this.failures.isEmpty());
+    }
+
+    @Test
+    void resolveWhenRepositoryFails(WireMockRuntimeInfo wmRuntimeInfo) throws ResolveException
+    {
+        stubFor(get("/broken").willReturn(aResponse().withStatus(500)));
+        stubRepository("repository", 0);
+
+        List<ResolveException> exceptions = new ArrayList<>();
+        Extension extension = this.resolver.resolve(
+            Arrays.asList(repository(wmRuntimeInfo, "broken"), repository(wmRuntimeInfo, "repository")),
+            this::resolve, 0, (repository, e) -> exceptions.add(e));
+
+        assertEquals("repository", extension.getId().getId());
+        assertEquals(1, exceptions.size());
+        assertInstanceOf(ResolveException.class, exceptions.get(0));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.extension.Extension;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.repository.search.ExtensionQuery.ORDER;
+import org.xwiki.extension.repository.search.ExtensionQuery.SortClause;
+import org.xwiki.extension.test.EmptyExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link SortClauseComparator}.
+ *
+ * @version $Id$
+ */
+class SortClauseComparatorTest
+{
+    private static EmptyExtension extension(String name)
+    {
+        EmptyExtension extension = new EmptyExtension(new ExtensionId(name, "1.0"), null);
+        extension.setName(name);
+
+        return extension;
+    }
+
+    @Test
+    void compare()
+    {
+        Extension a = extension("a");
+        Extension b = extension("b");
+
+        SortClauseComparator ascending =
+            new SortClauseComparator(List.of(new SortClause(Extension.FIELD_NAME, ORDER.ASC)));
+
+        assertTrue(ascending.compare(a, b) < 0);
+        assertTrue(ascending.compare(b, a) > 0);
+        assertEquals(0, ascending.compare(a, a));
+
+        SortClauseComparator descending =
+            new SortClauseComparator(List.of(new SortClause(Extension.FIELD_NAME, ORDER.DESC)));
+
+        assertTrue(descending.compare(a, b) > 0);
+        assertTrue(descending.compare(b, a) < 0);
+        assertEquals(0, descending.compare(a, a));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionLicenseManager;
+import org.xwiki.extension.internal.ExtensionFactory;
+import org.xwiki.extension.repository.internal.DefaultExtensionSerializer;
+import org.xwiki.extension.repository.internal.ExtensionSerializer;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link CoreExtensionSnapshot}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@ComponentList({DefaultExtensionSerializer.class, ExtensionFactory.class})
+class CoreExtensionSnapshotTest
+{
+    @XWikiTempDir
+    private File tmpDirectory;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    private ExtensionLicenseManager licenseManager;
+
+    @Test
+    void writeAndRead() throws Exception
+    {
+        ExtensionSerializer serializer = this.componentManager.getInstance(ExtensionSerializer.class);
+        DefaultCoreExtensionRepository repository = new DefaultCoreExtensionRepository();
+
+        File jar1 = new File(this.tmpDirectory, "extension1.jar");
+        Files.write(jar1.toPath(), new byte[] {1, 2, 3});
+        URL jarURL1 = jar1.toURI().toURL();
+        File jar2 = new File(this.tmpDirectory, "extension2.jar");
+        Files.write(jar2.toPath(), new byte[] {1, 2});
+        URL jarURL2 = jar2.toURI().toURL();
+
+        DefaultCoreExtension extension = new DefaultCoreExtension(repository, jarURL1, new ExtensionId("id", "1.0"), "jar");
+        extension.setName("name");
+        extension.setDescriptorURL(new URL("jar:" + jarURL1 + "!/META-INF/maven/group/id/pom.xml"));
+
+        CoreExtensionSnapshot snapshot = new CoreExtensionSnapshot();
+        assertTrue(snapshot.setExtensions(jarURL1, Arrays.asList(extension)));
+        assertTrue(snapshot.setExtensions(jarURL2, Collections.emptyList()));
+        // Folders cannot be part of the snapshot
+        assertFalse(snapshot.setExtensions(this.tmpDirectory.toURI().toURL(), Collections.emptyList()));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        snapshot.write(new DataOutputStream(output), serializer);
+
+        CoreExtensionSnapshot readSnapshot = CoreExtensionSnapshot
+            .read(new DataInputStream(new ByteArrayInputStream(output.toByteArray())), serializer, repository);
+
+        assertEquals(2, readSnapshot.size());
+        assertEquals(Collections.emptyList(), readSnapshot.getExtensions(jarURL2));
+
+        List<DefaultCoreExtension> extensions = readSnapshot.getExtensions(jarURL1);
+        assertEquals(1, extensions.size());
+        DefaultCoreExtension readExtension = extensions.get(0);
+        assertEquals(extension.getId(), readExtension.getId());
+        assertEquals("name", readExtension.getName());
+        assertEquals(jarURL1, readExtension.getURL());
+        assertEquals(extension.getDescriptorURL(), readExtension.getDescriptorURL());
+        assertFalse(readExtension.isComplete());
+
+        // Modified JAR
+        Files.write(jar1.toPath(), new byte[] {1, 2, 3, 4});
+
+        assertNull(readSnapshot.getExtensions(jarURL1));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.extension.repository.internal.local;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.extension.ExtensionId;
+import org.xwiki.extension.ExtensionLicenseManager;
+import org.xwiki.extension.internal.ExtensionFactory;
+import org.xwiki.extension.repository.internal.DefaultExtensionSerializer;
+import org.xwiki.test.annotation.ComponentList;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Validate {@link LocalExtensionStorage}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+@ComponentList({DefaultExtensionSerializer.class, ExtensionFactory.class})
+class LocalExtensionStorageTest
+{
+    @XWikiTempDir
+    private File rootFolder;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    private ExtensionLicenseManager licenseManager;
+
+    private DefaultLocalExtensionRepository repository;
+
+    private Set<ExtensionId> ids;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.repository = mock(DefaultLocalExtensionRepository.class);
+
+        LocalExtensionStorage storage =
+            new LocalExtensionStorage(this.repository, this.rootFolder, this.componentManager);
+
+        this.ids = new HashSet<>();
+        for (int i = 0; i < 20; ++i) {
+            ExtensionId id = new ExtensionId("id" + i, "1.0");
+            storage.saveDescriptor(new DefaultLocalExtension(this.repository, id, null));
+            this.ids.add(id);
+        }
+    }
+
+    private Set<ExtensionId> load(LocalExtensionStorage storage, int times) throws Exception
+    {
+        storage.loadExtensions();
+
+        ArgumentCaptor<DefaultLocalExtension> captor = ArgumentCaptor.forClass(DefaultLocalExtension.class);
+        verify(this.repository, times(times)).addLocalExtension(captor.capture());
+
+        Set<ExtensionId> loaded = new HashSet<>();
+        captor.getAllValues().forEach(extension -> loaded.add(extension.getId()));
+
+        return loaded;
+    }
+
+    @Test
+    void loadExtensions() throws Exception
+    {
+        LocalExtensionStorage storage =
+            new LocalExtensionStorage(this.repository, this.rootFolder, this.componentManager);
+
+        assertEquals(this.ids, load(storage, 20));
+        assertFalse(new File(this.rootFolder, "descriptors.index").exists());
+    }
+
+    @Test
+    void loadExtensionsWithIndex() throws Exception
+    {
+        LocalExtensionStorage storage =
+            new LocalExtensionStorage(this.repository, this.rootFolder, this.componentManager, true);
+
+        File indexFile = new File(this.rootFolder, "descriptors.index");
+
+        // Full load
+        assertEquals(this.ids, load(storage, 20));
+        assertTrue(indexFile.exists());
+
+        // Load from the index
+        assertEquals(this.ids, load(storage, 40));
+
+        // Any modification invalidates the index
+        storage.saveDescriptor(new DefaultLocalExtension(this.repository, new ExtensionId("other", "1.0"), null));
+
+        assertFalse(indexFile.exists());
+    }
+
+    @Test
+    void loadExtensionsWithIndexWhenDescriptorAddedOutside() throws Exception
+    {
+        LocalExtensionStorage storage =
+            new LocalExtensionStorage(this.repository, this.rootFolder, this.componentManager, true);
+
+        // Full load
+        assertEquals(this.ids, load(storage, 20));
+
+        // Add a descriptor without going through the storage using the index
+        ExtensionId id = new ExtensionId("other", "1.0");
+        new LocalExtensionStorage(this.repository, this.rootFolder, this.componentManager)
+            .saveDescriptor(new DefaultLocalExtension(this.repository, id, null));
+        this.ids.add(id);
+
+        // Make sure the folder modification is visible even with a coarse file system time resolution
+        this.rootFolder.setLastModified(this.rootFolder.lastModified() + 10000);
+
+        // The index is not up to date anymore
+        Set<ExtensionId> loaded = load(storage, 41);
+        loaded.retainAll(Set.of(id));
+        assertEquals(Set.of(id), loaded);
+        assertTrue(new File(this.rootFolder, "descriptors.index").exists());
+    }
+}
@@ -89,6 +89,33 @@ void compareTo()
 
         assertTrue(new DefaultVersion("1.1").compareTo(new DefaultVersion("1.1-milestone-1")) > 0);
         assertTrue(new DefaultVersion("1.1.1").compareTo(new DefaultVersion("1.1-milestone-1")) > 0);
+
+        assertTrue(new DefaultVersion("1.1-rc-1").compareTo(new DefaultVersion("1.1-milestone-2")) > 0);
+        assertTrue(new DefaultVersion("1.1-SNAPSHOT").compareTo(new DefaultVersion("1.1-rc-1")) > 0);
+        assertTrue(new DefaultVersion("1.1-sp-1").compareTo(new DefaultVersion("1.1")) > 0);
+        assertTrue(new DefaultVersion("1.1-a").compareTo(new DefaultVersion("1.1-B")) < 0);
+        assertTrue(new DefaultVersion("1.1-x").compareTo(new DefaultVersion("1.1-Y")) < 0);
+        assertTrue(new DefaultVersion("1.1-x").compareTo(new DefaultVersion("1.1.1")) < 0);
+        assertTrue(new DefaultVersion("1.1.1").compareTo(new DefaultVersion("1.1-x")) > 0);
+    }
+
+    @Test
+    void compareToIsConsistentWithEquals()
+    {
+        String[] versions = {"1", "1.0", "1.1", "1.1-milestone-1", "1.1-rc-1", "1.1-SNAPSHOT", "1.1-sp-1", "1.1-x",
+            "1.1.1", "2.0-beta", "10.0"};
+
+        for (String version1 : versions) {
+            for (String version2 : versions) {
+                DefaultVersion defaultVersion1 = new DefaultVersion(version1);
+                DefaultVersion defaultVersion2 = new DefaultVersion(version2);
+
+                int rel = defaultVersion1.compareTo(defaultVersion2);
+
+                assertEquals(Integer.signum(rel), -Integer.signum(defaultVersion2.compareTo(defaultVersion1)));
+                assertEquals(rel == 0, defaultVersion1.equals(defaultVersion2));
+            }
+        }
     }
 
     @Test
@@ -115,6 +142,12 @@ void getTypeForBigInteger()
         assertSame(Version.Type.STABLE, new DefaultVersion("1.2147483648").getType());
     }
 
+    @Test
+    void getTypeForNull()
+    {
+        assertSame(Version.Type.STABLE, new DefaultVersion((String) null).getType());
+    }
+
     @Test
     void testHashCode()
     {
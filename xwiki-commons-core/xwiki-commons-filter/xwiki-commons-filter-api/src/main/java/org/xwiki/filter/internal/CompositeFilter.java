@@ -20,12 +20,10 @@
 package org.xwiki.filter.internal;
 
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.xwiki.filter.FilterDescriptor;
 import org.xwiki.filter.FilterDescriptorManager;
 
 /**
@@ -38,20 +36,7 @@ public class CompositeFilter implements InvocationHandler
 {
     private FilterDescriptorManager filterManager;
 
-    private List<SubFilter> filters;
-
-    private static class SubFilter
-    {
-        private final Object filter;
-
-        private final FilterDescriptor descriptor;
-
-        SubFilter(Object filter, FilterDescriptor descriptor)
-        {
-            this.filter = filter;
-            this.descriptor = descriptor;
-        }
-    }
+    private List<FilterProxy> filters;
 
     /**
      * @param filters the filters
@@ -63,19 +48,15 @@ public CompositeFilter(FilterDescriptorManager filterManager, Object... filters)
 
         this.filters = new ArrayList<>(filters.length);
         for (Object filter : filters) {
-            this.filters.add(new SubFilter(filter, this.filterManager.getFilterDescriptor(filter.getClass())));
+            this.filters.add(new FilterProxy(filter, this.filterManager.getFilterDescriptor(filter.getClass())));
         }
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
     {
-        for (SubFilter filter : this.filters) {
-            try {
-                FilterProxy.invoke(filter.filter, filter.descriptor, method, args);
-            } catch (InvocationTargetException e) {
-                throw e.getCause();
-            }
+        for (FilterProxy filter : this.filters) {
+            filter.invoke(proxy, method, args);
         }
 
         return null;
@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Call the filter events implemented by a class through method handles resolved once per event method.
+ * <p>
+ * A dispatcher is shared by all the filters of the same class and each {@link FilterProxy} keeps the dispatcher of its
+ * target filter. The events sent through a proxy always have arguments matching the event method parameters so they
+ * are not checked again.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+final class FilterDispatcher
+{
+    /**
+     * Indicate that the target class does not implement an event method.
+     */
+    private static final MethodHandle UNSUPPORTED =
+        MethodHandles.empty(MethodType.methodType(void.class, Object.class, Object[].class));
+
+    private static final ClassValue<FilterDispatcher> DISPATCHERS = new ClassValue<>()
+    {
+        @Override
+        protected FilterDispatcher computeValue(Class<?> type)
+        {
+            return new FilterDispatcher(type);
+        }
+    };
+
+    private final Class<?> targetClass;
+
+    private final Map<Method, MethodHandle> handles = new ConcurrentHashMap<>();
+
+    private FilterDispatcher(Class<?> targetClass)
+    {
+        this.targetClass = targetClass;
+    }
+
+    /**
+     * @param targetClass the class of the filter receiving the events
+     * @return the dispatcher for the passed filter class
+     */
+    static FilterDispatcher get(Class<?> targetClass)
+    {
+        return DISPATCHERS.get(targetClass);
+    }
+
+    /**
+     * @param method the event method
+     * @return the handle calling the event method with the filter and the event arguments array, {@code null} if the
+     *     filter class does not implement it
+     * @throws IllegalAccessException if the method is inaccessible
+     */
+    MethodHandle getHandle(Method method) throws IllegalAccessException
+    {
+        MethodHandle handle = this.handles.get(method);
+        if (handle == null) {
+            handle = createHandle(method);
+            this.handles.put(method, handle);
+        }
+
+        return handle != UNSUPPORTED ? handle : null;
+    }
+
+    private MethodHandle createHandle(Method method) throws IllegalAccessException
+    {
+        if (!method.getDeclaringClass().isAssignableFrom(this.targetClass)) {
+            return UNSUPPORTED;
+        }
+
+        // Respects the accessibility of the method, like Method#invoke
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+
+        // (Object filter, Object[] args)void
+        return handle.asType(handle.type().generic().changeReturnType(void.class)).asSpreader(Object[].class,
+            method.getParameterCount());
+    }
+}
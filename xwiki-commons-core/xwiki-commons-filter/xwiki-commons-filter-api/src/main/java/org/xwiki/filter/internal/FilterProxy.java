@@ -19,6 +19,7 @@
  */
 package org.xwiki.filter.internal;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -46,6 +47,11 @@ public final class FilterProxy implements InvocationHandler
 
     private Object targetFilter;
 
+    /**
+     * The event methods of the target filter.
+     */
+    private final FilterDispatcher dispatcher;
+
     /**
      * @param filter the actual filter to send events to
      * @param descriptor the reference filter descriptor
@@ -54,15 +60,18 @@ public FilterProxy(Object filter, FilterDescriptor descriptor)
     {
         this.targetFilter = filter;
         this.descriptor = descriptor;
+        this.dispatcher = FilterDispatcher.get(filter.getClass());
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
     {
-        try {
-            invoke(this.targetFilter, this.descriptor, method, args);
-        } catch (InvocationTargetException e) {
-            throw e.getCause();
+        MethodHandle handle = this.dispatcher.getHandle(method);
+
+        if (handle != null) {
+            handle.invokeExact(this.targetFilter, args);
+        } else if (this.targetFilter instanceof UnknownFilter) {
+            invokeUnkown(this.targetFilter, this.descriptor, method, args);
         }
 
         return null;
@@ -0,0 +1,103 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.filter.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.filter.FilterDescriptor;
+import org.xwiki.filter.UnknownFilter;
+import org.xwiki.filter.test.TestFilter;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Validate {@link FilterDispatcher} and its use by {@link FilterProxy}.
+ *
+ * @version $Id$
+ */
+class FilterDispatcherTest
+{
+    @Test
+    void getHandle() throws Throwable
+    {
+        TestFilter filter = mock(TestFilter.class);
+        FilterDispatcher dispatcher = FilterDispatcher.get(filter.getClass());
+
+        Method method = TestFilter.class.getMethod("onChildWithParameters", String.class, int.class);
+        MethodHandle handle = dispatcher.getHandle(method);
+
+        // The handles are resolved once per filter class
+        assertSame(dispatcher, FilterDispatcher.get(filter.getClass()));
+        assertSame(handle, dispatcher.getHandle(method));
+
+        handle.invokeExact((Object) filter, new Object[] {"value", 42});
+        dispatcher.getHandle(TestFilter.class.getMethod("onChild")).invokeExact((Object) filter, (Object[]) null);
+
+        verify(filter).onChildWithParameters("value", 42);
+        verify(filter).onChild();
+    }
+
+    @Test
+    void getHandleWhenNotImplemented() throws Exception
+    {
+        FilterDispatcher dispatcher = FilterDispatcher.get(UnknownFilter.class);
+
+        assertNull(dispatcher.getHandle(TestFilter.class.getMethod("onChild")));
+        assertNull(dispatcher.getHandle(TestFilter.class.getMethod("onChild")));
+    }
+
+    @Test
+    void proxy()
+    {
+        TestFilter filter = mock(TestFilter.class);
+        RuntimeException exception = new RuntimeException();
+        doThrow(exception).when(filter).beginContainer();
+
+        TestFilter proxy = (TestFilter) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {TestFilter.class}, new FilterProxy(filter, new FilterDescriptor()));
+
+        proxy.onChildWithParameters("value", 42);
+        verify(filter).onChildWithParameters("value", 42);
+
+        // The exceptions thrown by the filter are not wrapped
+        assertSame(exception, assertThrows(RuntimeException.class, proxy::beginContainer));
+
+        // The events the filter does not implement are ignored
+        Object otherFilter = new Object();
+        TestFilter otherProxy = (TestFilter) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {TestFilter.class}, new FilterProxy(otherFilter, new FilterDescriptor()));
+        otherProxy.onChild();
+
+        UnknownFilter unknownFilter = mock(UnknownFilter.class);
+        TestFilter unknownProxy = (TestFilter) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {TestFilter.class}, new FilterProxy(unknownFilter, new FilterDescriptor()));
+        unknownProxy.onChild();
+        verifyNoInteractions(unknownFilter);
+    }
+}
@@ -200,7 +200,7 @@ public void startListening()
         this.observationManager.addListener(new WrappedThreadEventListener(this.progress));
 
         // Isolate log for the job status
-        this.logListener = new LoggerListener(LoggerListener.class.getName() + '_' + hashCode(), getLoggerTail());
+        this.logListener = createLoggerListener(LoggerListener.class.getName() + '_' + hashCode());
         if (isIsolated()) {
             this.loggerManager.pushLogListener(this.logListener);
         } else {
@@ -208,6 +208,14 @@ public void startListening()
         }
     }
 
+    private LoggerListener createLoggerListener(String name)
+    {
+        LoggerListener listener =
+            this.loggerManager != null ? this.loggerManager.createLoggerListener(name, getLoggerTail()) : null;
+
+        return listener != null ? listener : new LoggerListener(name, getLoggerTail());
+    }
+
     /**
      * @param ignore true to ignore logs produced by the job execution
      * @since 12.10
@@ -229,6 +237,9 @@ public void stopListening()
         }
         this.observationManager.removeListener(this.progress.getName());
 
+        // Make sure the folded logs are not lost
+        this.logListener.flush();
+
         // Make sure the progress is closed
         this.progress.getRootStep().finish();
 
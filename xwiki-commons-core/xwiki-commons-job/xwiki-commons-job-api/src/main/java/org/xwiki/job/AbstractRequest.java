@@ -250,6 +250,15 @@ public void setContext(Map<String, Serializable> context)
         setProperty(PROPERTY_CONTEXT, context);
     }
 
+    /**
+     * @param priority the priority of the job, the higher the priority, the sooner the job is executed in its group
+     * @since 18.8.0RC1
+     */
+    public void setPriority(int priority)
+    {
+        setProperty(PROPERTY_PRIORITY, priority);
+    }
+
     /**
      * @return the map of properties in an unmodifiableMap.
      * @since 10.11
@@ -50,6 +50,20 @@ public interface Request extends Serializable
      */
     String PROPERTY_CONTEXT = "context";
 
+    /**
+     * @see #getPriority()
+     * @since 18.8.0RC1
+     */
+    String PROPERTY_PRIORITY = "priority";
+
+    /**
+     * The priority of a job when none is provided.
+     *
+     * @see #getPriority()
+     * @since 18.8.0RC1
+     */
+    int DEFAULT_PRIORITY = 0;
+
     /**
      * @return list based identifier used to access the job. If none is provided the job will not be accessible by id
      *         and the status of the job will not be stored.
@@ -137,4 +151,30 @@ default void setContext(Map<String, Serializable> context)
     {
 
     }
+
+    /**
+     * The priority is used to order the jobs waiting in the same job group: the higher the priority, the sooner the job
+     * is executed. Jobs with the same priority are executed in the order they were submitted. The priority has no
+     * effect on the order of jobs waiting in different job groups.
+     *
+     * @return the priority of the job, {@link #DEFAULT_PRIORITY} by default or when the property is not a valid
+     *         integer
+     * @since 18.8.0RC1
+     */
+    default int getPriority()
+    {
+        Object priority = getProperty(PROPERTY_PRIORITY);
+
+        if (priority instanceof Number number) {
+            return number.intValue();
+        } else if (priority instanceof String string) {
+            try {
+                return Integer.parseInt(string.trim());
+            } catch (NumberFormatException e) {
+                // Fallback on the default priority
+            }
+        }
+
+        return DEFAULT_PRIORITY;
+    }
 }
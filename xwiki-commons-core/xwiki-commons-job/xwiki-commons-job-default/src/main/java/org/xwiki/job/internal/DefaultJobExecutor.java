@@ -30,12 +30,13 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -59,6 +60,7 @@
 import org.xwiki.job.JobGroupPath;
 import org.xwiki.job.JobManagerConfiguration;
 import org.xwiki.job.Request;
+import org.xwiki.job.event.status.JobStatus;
 
 /**
  * Default implementation of {@link JobExecutor}.
@@ -70,6 +72,53 @@
 @Singleton
 public class DefaultJobExecutor implements JobExecutor, Initializable, Disposable
 {
+    /**
+     * Wrap a grouped job waiting in its group queue to order it according to its priority and submission order.
+     */
+    private static final class QueuedJob implements Runnable, Comparable<QueuedJob>
+    {
+        private final Job job;
+
+        private final int priority;
+
+        private final long sequence;
+
+        private final long queuedTime = System.nanoTime();
+
+        QueuedJob(Job job, long sequence)
+        {
+            this.job = job;
+            this.priority = job.getRequest().getPriority();
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run()
+        {
+            this.job.run();
+        }
+
+        @Override
+        public int compareTo(QueuedJob other)
+        {
+            // Higher priority first
+            int result = Integer.compare(other.priority, this.priority);
+
+            // Oldest first
+            if (result == 0) {
+                result = Long.compare(this.sequence, other.sequence);
+            }
+
+            return result;
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.job.toString();
+        }
+    }
+
     private class JobGroupExecutor extends JobThreadExecutor implements ThreadFactory
     {
         private final ThreadFactory threadFactory = Executors.defaultThreadFactory();
@@ -83,11 +132,13 @@ private class JobGroupExecutor extends JobThreadExecutor implements ThreadFactor
 
         private final GroupedJobInitializer initializer;
 
+        private final JobGroupQueueStatistics statistics = new JobGroupQueueStatistics();
+
         JobGroupExecutor(JobGroupPath path, GroupedJobInitializer initializer)
         {
             super(initializer.getPoolSize(), initializer.getPoolSize(),
                 DefaultJobExecutor.this.jobManagerConfiguration.getGroupedJobThreadKeepAliveTime(),
-                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+                TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
 
             // We want to be sure to not keep idle threads.
             this.allowCoreThreadTimeOut(true);
@@ -110,12 +161,20 @@ protected String getExecutorThreadName(Runnable r)
             return this.groupThreadName;
         }
 
+        @Override
+        protected Job getJob(Runnable r)
+        {
+            return ((QueuedJob) r).job;
+        }
+
         @Override
         protected void beforeExecute(Thread t, Runnable r)
         {
             DefaultJobExecutor.this.lockTree.lock(this.path);
 
-            this.currentJobs.add((Job) r);
+            this.statistics.record(System.nanoTime() - ((QueuedJob) r).queuedTime);
+
+            this.currentJobs.add(getJob(r));
 
             super.beforeExecute(t, r);
         }
@@ -125,7 +184,7 @@ protected void afterExecute(Runnable r, Throwable t)
         {
             DefaultJobExecutor.this.lockTree.unlock(this.path);
 
-            Job job = (Job) r;
+            Job job = getJob(r);
 
             this.currentJobs.remove(job);
 
@@ -136,10 +195,9 @@ protected void afterExecute(Runnable r, Throwable t)
                 // Delete the job from the job group's queue. Remove the queue when it is empty.
                 // Use computeIfPresent for synchronization.
                 DefaultJobExecutor.this.groupedJobs.computeIfPresent(jobId, (k, v) -> {
-                    // Remove the job, but only when it is the first job in the queue.
-                    if (v.peek() == job) {
-                        v.poll();
-                    }
+                    // Remove the job instance (jobs with a higher priority might have been executed before the ones
+                    // submitted first).
+                    v.removeIf(j -> j == job);
 
                     // If the queue is empty, remove it from the map.
                     if (v.isEmpty()) {
@@ -173,6 +231,11 @@ private class JobThreadExecutor extends ThreadPoolExecutor
             super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
         }
 
+        protected Job getJob(Runnable r)
+        {
+            return (Job) r;
+        }
+
         protected String getThreadName(Runnable r)
         {
             return r.toString();
@@ -196,7 +259,7 @@ protected void beforeExecute(Thread t, Runnable r)
         @Override
         protected void afterExecute(Runnable r, Throwable t)
         {
-            Job job = (Job) r;
+            Job job = getJob(r);
 
             List<String> jobId = job.getRequest().getId();
             if (jobId != null) {
@@ -238,6 +301,11 @@ protected void afterExecute(Runnable r, Throwable t)
 
     private final Map<List<String>, Job> jobs = new ConcurrentHashMap<>();
 
+    /**
+     * Used to keep the submission order of grouped jobs with the same priority.
+     */
+    private final AtomicLong groupedJobSequence = new AtomicLong();
+
     /**
      * Handle care of hierarchical locking for grouped jobs.
      */
@@ -313,12 +381,40 @@ public Job getJob(List<String> id)
         // Is it in a group
         Queue<Job> jobQueue = this.groupedJobs.get(id);
         if (jobQueue != null) {
-            return jobQueue.peek();
+            return getGroupedJob(jobQueue);
         }
 
         return null;
     }
 
+    private Job getGroupedJob(Queue<Job> jobQueue)
+    {
+        // The jobs with the same id are not necessarily executed in submission order since the group executor orders
+        // them by priority: return the one which is currently running, if any.
+        for (Job job : jobQueue) {
+            JobStatus status = job.getStatus();
+            if (status != null && status.getState() != null && status.getState() != JobStatus.State.NONE) {
+                return job;
+            }
+        }
+
+        // Otherwise the first submitted job.
+        return jobQueue.peek();
+    }
+
+    /**
+     * @param path the path of the job group
+     * @return the statistics about the time spent by jobs waiting to be executed in the group, or {@code null} if no
+     *         job was ever submitted in this group
+     * @since 18.8.0RC1
+     */
+    public JobGroupQueueStatistics getQueueStatistics(JobGroupPath path)
+    {
+        JobGroupExecutor executor = this.groupExecutors.get(path);
+
+        return executor != null ? executor.statistics : null;
+    }
+
     /**
      * @param jobType the job id
      * @param request the request
@@ -386,7 +482,7 @@ private void executeSingleJob(Job job)
     private void executeGroupedJob(GroupedJob job)
     {
         // While synchronization isn't necessary for the insertion in the group executors, this ensures that jobs in
-        // the "groupedJobs" queues have the same order as in the executor's queue.
+        // the "groupedJobs" queues are in submission order (the executor's queue orders them by priority first).
         synchronized (this.groupExecutors) {
             JobGroupPath path = job.getGroupPath();
 
@@ -418,7 +514,7 @@ private void executeGroupedJob(GroupedJob job)
             // Execute the job only once it has been inserted in the groupedJobs to ensure that there is no race
             // condition when the job completes before it has been inserted into groupedJobs.
             try {
-                groupExecutor.execute(job);
+                groupExecutor.execute(new QueuedJob(job, this.groupedJobSequence.incrementAndGet()));
             } catch (Exception e) {
                 // Remove the queued job again.
                 if (jobId != null) {
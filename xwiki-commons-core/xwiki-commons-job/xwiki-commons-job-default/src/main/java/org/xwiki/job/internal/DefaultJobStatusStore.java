@@ -57,8 +57,8 @@
 import org.xwiki.job.JobManagerConfiguration;
 import org.xwiki.job.JobStatusStore;
 import org.xwiki.job.event.status.JobStatus;
-import org.xwiki.logging.LogQueue;
 import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.internal.tail.MemoryLoggerTail;
 import org.xwiki.logging.tail.LoggerTail;
 
 /**
@@ -540,7 +540,7 @@ public LoggerTail createLoggerTail(List<String> jobId, boolean readonly)
             }
         }
 
-        return new LogQueue();
+        return new MemoryLoggerTail();
     }
 
     private LoggerTail createLoggerTail(File logBaseFile, boolean readonly) throws IOException
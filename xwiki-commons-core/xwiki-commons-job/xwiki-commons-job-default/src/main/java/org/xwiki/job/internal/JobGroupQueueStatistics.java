@@ -0,0 +1,92 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.job.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the time jobs spent waiting in a job group before being executed (i.e. waiting in the group queue
+ * and for the group locks).
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class JobGroupQueueStatistics
+{
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    private final AtomicLong last = new AtomicLong();
+
+    void record(long waitNanos)
+    {
+        this.count.increment();
+        this.total.add(waitNanos);
+        this.max.accumulate(waitNanos);
+        this.last.set(waitNanos);
+    }
+
+    /**
+     * @return the number of jobs which started in the group
+     */
+    public long getCount()
+    {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the total time spent waiting by all the jobs which started in the group, in nanoseconds
+     */
+    public long getTotalWaitTime()
+    {
+        return this.total.sum();
+    }
+
+    /**
+     * @return the longest time a job waited in the group, in nanoseconds
+     */
+    public long getMaxWaitTime()
+    {
+        return this.max.get();
+    }
+
+    /**
+     * @return the time the last started job waited in the group, in nanoseconds
+     */
+    public long getLastWaitTime()
+    {
+        return this.last.get();
+    }
+
+    /**
+     * @return the average time a job waited in the group, in nanoseconds
+     */
+    public long getAverageWaitTime()
+    {
+        long currentCount = getCount();
+
+        return currentCount > 0 ? getTotalWaitTime() / currentCount : 0;
+    }
+}
@@ -21,6 +21,7 @@
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,8 +39,10 @@
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -410,8 +413,127 @@ void matchingGroupPathAreBlockedPoolMultiSizeChildrenFirst() throws InterruptedE
         assertSame(State.FINISHED, jobAB3.getStatus().getState());
     }
 
+    @Test
+    void higherPriorityJobsAreExecutedFirst()
+    {
+        GroupedJobInitializer groupedJobInitializer = mock();
+        when(groupedJobInitializer.getPoolSize()).thenReturn(1);
+        when(groupedJobInitializer.getDefaultPriority()).thenReturn(Thread.NORM_PRIORITY);
+        when(this.groupedJobInitializerManager.getGroupedJobInitializer(any())).thenReturn(groupedJobInitializer);
+
+        TestBasicGroupedJob job = groupedJob("P");
+        TestBasicGroupedJob jobLow1 = groupedJob(-1, "P");
+        TestBasicGroupedJob jobDefault = groupedJob("P");
+        TestBasicGroupedJob jobLow2 = groupedJob(-1, "P");
+        TestBasicGroupedJob jobHigh = groupedJob(10, "P");
+
+        // Pre-lock all jobs
+        job.lock();
+        jobLow1.lock();
+        jobDefault.lock();
+        jobLow2.lock();
+        jobHigh.lock();
+
+        this.executor.execute(job);
+        waitJobWaiting(job);
+
+        // Queue the other jobs while the first one is blocking the group
+        this.executor.execute(jobLow1);
+        this.executor.execute(jobDefault);
+        this.executor.execute(jobLow2);
+        this.executor.execute(jobHigh);
+
+        job.unlock();
+        waitJobFinished(job);
+        waitJobWaiting(jobHigh);
+        assertNull(jobDefault.getStatus().getState());
+        assertNull(jobLow1.getStatus().getState());
+        assertNull(jobLow2.getStatus().getState());
+
+        jobHigh.unlock();
+        waitJobFinished(jobHigh);
+        waitJobWaiting(jobDefault);
+        assertNull(jobLow1.getStatus().getState());
+        assertNull(jobLow2.getStatus().getState());
+
+        // Same priority jobs are executed in submission order
+        jobDefault.unlock();
+        waitJobFinished(jobDefault);
+        waitJobWaiting(jobLow1);
+        assertNull(jobLow2.getStatus().getState());
+
+        jobLow1.unlock();
+        waitJobFinished(jobLow1);
+        waitJobWaiting(jobLow2);
+
+        jobLow2.unlock();
+        waitJobFinished(jobLow2);
+
+        JobGroupQueueStatistics statistics = this.executor.getQueueStatistics(new JobGroupPath(List.of("P")));
+        assertEquals(5, statistics.getCount());
+        assertTrue(statistics.getMaxWaitTime() > 0);
+        assertTrue(statistics.getMaxWaitTime() <= statistics.getTotalWaitTime());
+        assertNull(this.executor.getQueueStatistics(new JobGroupPath(List.of("unknown"))));
+    }
+
+    @Test
+    void getJobReturnsTheRunningJobWithTheId()
+    {
+        GroupedJobInitializer groupedJobInitializer = mock();
+        when(groupedJobInitializer.getPoolSize()).thenReturn(1);
+        when(groupedJobInitializer.getDefaultPriority()).thenReturn(Thread.NORM_PRIORITY);
+        when(this.groupedJobInitializerManager.getGroupedJobInitializer(any())).thenReturn(groupedJobInitializer);
+
+        TestBasicGroupedJob job = groupedJob("I");
+        TestBasicGroupedJob jobLow = groupedJob("id", -1, "I");
+        TestBasicGroupedJob jobHigh = groupedJob("id", 1, "I");
+
+        job.lock();
+        jobLow.lock();
+        jobHigh.lock();
+
+        this.executor.execute(job);
+        waitJobWaiting(job);
+
+        this.executor.execute(jobLow);
+        this.executor.execute(jobHigh);
+
+        // Nothing is running yet with this id: the first submitted job is returned
+        assertSame(jobLow, this.executor.getJob(List.of("id")));
+
+        job.unlock();
+        waitJobWaiting(jobHigh);
+
+        assertSame(jobHigh, this.executor.getJob(List.of("id")));
+
+        jobHigh.unlock();
+        waitJobWaiting(jobLow);
+
+        assertSame(jobLow, this.executor.getJob(List.of("id")));
+
+        jobLow.unlock();
+        waitJobFinished(jobLow);
+    }
+
     private TestBasicGroupedJob groupedJob(String... path)
     {
         return new TestBasicGroupedJob("type", new JobGroupPath(Arrays.asList(path)), new DefaultRequest());
     }
+
+    private TestBasicGroupedJob groupedJob(int priority, String... path)
+    {
+        DefaultRequest request = new DefaultRequest();
+        request.setPriority(priority);
+
+        return new TestBasicGroupedJob("type", new JobGroupPath(Arrays.asList(path)), request);
+    }
+
+    private TestBasicGroupedJob groupedJob(String id, int priority, String... path)
+    {
+        DefaultRequest request = new DefaultRequest();
+        request.setId(id);
+        request.setPriority(priority);
+
+        return new TestBasicGroupedJob("type", new JobGroupPath(Arrays.asList(path)), request);
+    }
 }
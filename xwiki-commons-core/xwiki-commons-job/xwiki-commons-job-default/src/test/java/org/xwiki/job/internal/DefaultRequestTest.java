@@ -21,6 +21,7 @@
 
 import org.junit.jupiter.api.Test;
 import org.xwiki.job.DefaultRequest;
+import org.xwiki.job.Request;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -45,4 +46,21 @@ void createDefaultRequestWithPassedRequest()
         assertTrue(request2.isRemote());
         assertTrue(request2.isInteractive());
     }
+
+    @Test
+    void getPriority()
+    {
+        DefaultRequest request = new DefaultRequest();
+
+        assertEquals(Request.DEFAULT_PRIORITY, request.getPriority());
+
+        request.setPriority(5);
+        assertEquals(5, request.getPriority());
+
+        request.setProperty(Request.PROPERTY_PRIORITY, "7");
+        assertEquals(7, request.getPriority());
+
+        request.setProperty(Request.PROPERTY_PRIORITY, "high");
+        assertEquals(Request.DEFAULT_PRIORITY, request.getPriority());
+    }
 }
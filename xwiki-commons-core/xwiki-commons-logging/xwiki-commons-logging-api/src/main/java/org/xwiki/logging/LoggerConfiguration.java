@@ -34,4 +34,44 @@
      * @return true if logging about use of deprecated APIs or features is enabled
      */
     boolean isDeprecatedLogEnabled();
+
+    /**
+     * @return the format used to store the logs on disk (for example the log of the jobs), "xstream" for the XML based
+     *         format or "binary" for the memory mapped binary format
+     * @since 18.8.0RC1
+     */
+    default String getLoggerTailFormat()
+    {
+        return "xstream";
+    }
+
+    /**
+     * @return true if the logs captured for a thread with {@link LoggerManager#pushLogListener} should be converted and
+     *         sent to the listener in a background thread instead of the logging thread
+     * @since 18.8.0RC1
+     */
+    default boolean isLogCaptureAsynchronous()
+    {
+        return false;
+    }
+
+    /**
+     * @return the number of identical log events (same marker, level and message format) captured for a job before
+     *         the next ones are folded, 0 or less to never fold them
+     * @since 18.8.0RC1
+     */
+    default int getMaxRepeatedLogs()
+    {
+        return -1;
+    }
+
+    /**
+     * @return the maximum number of log events per logger and level captured for a job every second before the next
+     *         ones are folded, 0 or less for no limit
+     * @since 18.8.0RC1
+     */
+    default int getMaxLogsPerSecond()
+    {
+        return -1;
+    }
 }
@@ -25,6 +25,7 @@
 
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Role;
+import org.xwiki.logging.event.LoggerListener;
 import org.xwiki.logging.tail.LoggerTail;
 import org.xwiki.observation.EventListener;
 
@@ -63,6 +64,20 @@
      */
     EventListener popLogListener();
 
+    /**
+     * Create a listener sending the received log events to the passed logger, possibly folding repeated log events
+     * depending on the configuration.
+     *
+     * @param name the name of the listener
+     * @param logger the logger where to send the log events
+     * @return the listener
+     * @since 18.8.0RC1
+     */
+    default LoggerListener createLoggerListener(String name, org.xwiki.logging.Logger logger)
+    {
+        return new LoggerListener(name, logger);
+    }
+
     /**
      * Associate the passed logger to the passed log level.
      *
@@ -167,10 +167,12 @@ public String getFormattedMessage()
         if (this.formattedMessage != null) {
             return this.formattedMessage;
         }
-        if (this.argumentArray != null) {
-            this.formattedMessage = MessageFormatter.arrayFormat(this.message, this.argumentArray).getMessage();
+        // Use the getters since extending classes might provide lazy values
+        Object[] arguments = getArgumentArray();
+        if (arguments != null) {
+            this.formattedMessage = MessageFormatter.arrayFormat(getMessage(), arguments).getMessage();
         } else {
-            this.formattedMessage = this.message;
+            this.formattedMessage = getMessage();
         }
 
         return this.formattedMessage;
@@ -0,0 +1,239 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.Logger;
+import org.xwiki.observation.event.Event;
+
+/**
+ * A {@link LoggerListener} which folds repeated log events and limits the number of log events per logger and level.
+ * <p>
+ * Log events with the same marker, level and message format are sent as is until the maximum number of repetitions is
+ * reached. The following ones are folded into a {@link RepeatedLogEvent} which is sent when enough occurrences were
+ * accumulated, right before the next log event which is not folded or when {@link #flush()} is called. Since a
+ * {@link RepeatedLogEvent} has the date of the last folded occurrence, the log events are still sent in date order. Log
+ * events exceeding the maximum number of log events per second for a given logger and level are folded the same way.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class AggregatingLoggerListener extends LoggerListener
+{
+    /**
+     * The maximum number of folded occurrences kept before sending a {@link RepeatedLogEvent}.
+     */
+    private static final int MAX_FOLDED = 1000;
+
+    /**
+     * The maximum number of distinct log events to remember, the following ones are not aggregated.
+     */
+    private static final int MAX_KEYS = 10000;
+
+    private static final long SECOND = 1000L;
+
+    private final int maxRepeated;
+
+    private final int maxPerSecond;
+
+    private final Map<Key, Folded> folded = new LinkedHashMap<>();
+
+    private final Map<RateKey, Rate> rates = new HashMap<>();
+
+    /**
+     * The number of folded log events with pending occurrences.
+     */
+    private int pendingCount;
+
+    private record Key(Marker marker, LogLevel level, String message)
+    {
+    }
+
+    private record RateKey(Object source, LogLevel level)
+    {
+    }
+
+    private static final class Folded
+    {
+        private int sent;
+
+        private int occurrences;
+
+        private long firstTimeStamp;
+
+        private LogEvent last;
+    }
+
+    private static final class Rate
+    {
+        private long windowStart;
+
+        private int count;
+    }
+
+    /**
+     * @param name the name of the listener
+     * @param logger the logger where to send the received and aggregated events
+     * @param maxRepeated the number of identical log events to send as is before folding the next ones, 0 or less to
+     *            never fold them
+     * @param maxPerSecond the maximum number of log events per logger and level sent every second, 0 or less for no
+     *            limit
+     */
+    public AggregatingLoggerListener(String name, Logger logger, int maxRepeated, int maxPerSecond)
+    {
+        super(name, logger);
+
+        this.maxRepeated = maxRepeated;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof LogEvent logEvent) {
+            LogEvent sentEvent;
+            List<RepeatedLogEvent> pending;
+            synchronized (this) {
+                sentEvent = isAggregated(logEvent) ? aggregate(logEvent, source) : logEvent;
+
+                // Send the pending occurrences before the event to keep the date order
+                pending = sentEvent != null ? getPending() : List.of();
+            }
+
+            send(pending);
+
+            if (sentEvent != null) {
+                super.onEvent(sentEvent, source, data);
+            }
+        } else {
+            super.onEvent(event, source, data);
+        }
+    }
+
+    private void send(List<RepeatedLogEvent> repeatedEvents)
+    {
+        for (RepeatedLogEvent repeatedEvent : repeatedEvents) {
+            super.onEvent(repeatedEvent, null, null);
+        }
+    }
+
+    private boolean isAggregated(LogEvent logEvent)
+    {
+        // Never fold the events used to structure the log
+        if (logEvent instanceof BeginLogEvent || logEvent instanceof EndLogEvent) {
+            return false;
+        }
+
+        Marker marker = logEvent.getMarker();
+
+        return marker == null || !(marker.contains(LogEvent.MARKER_BEGIN) || marker.contains(LogEvent.MARKER_END));
+    }
+
+    /**
+     * @return the event to send or null if the event was folded
+     */
+    private LogEvent aggregate(LogEvent logEvent, Object source)
+    {
+        Key key = new Key(logEvent.getMarker(), logEvent.getLevel(), logEvent.getMessage());
+        Folded current = this.folded.get(key);
+        if (current == null) {
+            if (this.folded.size() >= MAX_KEYS) {
+                return logEvent;
+            }
+
+            current = new Folded();
+            this.folded.put(key, current);
+        }
+
+        boolean repeated = this.maxRepeated > 0 && current.sent >= this.maxRepeated;
+        if (!repeated && isAllowed(logEvent, source)) {
+            ++current.sent;
+
+            return logEvent;
+        }
+
+        if (current.occurrences == 0) {
+            current.firstTimeStamp = logEvent.getTimeStamp();
+            ++this.pendingCount;
+        }
+        ++current.occurrences;
+        current.last = logEvent;
+
+        return current.occurrences >= MAX_FOLDED ? toRepeatedLogEvent(current) : null;
+    }
+
+    private boolean isAllowed(LogEvent logEvent, Object source)
+    {
+        if (this.maxPerSecond <= 0) {
+            return true;
+        }
+
+        Rate rate = this.rates.computeIfAbsent(new RateKey(source, logEvent.getLevel()), k -> new Rate());
+        if (logEvent.getTimeStamp() - rate.windowStart >= SECOND || logEvent.getTimeStamp() < rate.windowStart) {
+            rate.windowStart = logEvent.getTimeStamp();
+            rate.count = 0;
+        }
+
+        return rate.count++ < this.maxPerSecond;
+    }
+
+    private RepeatedLogEvent toRepeatedLogEvent(Folded current)
+    {
+        RepeatedLogEvent repeatedEvent =
+            new RepeatedLogEvent(current.last, current.occurrences, current.firstTimeStamp);
+
+        current.occurrences = 0;
+        current.last = null;
+        --this.pendingCount;
+
+        return repeatedEvent;
+    }
+
+    @Override
+    public void flush()
+    {
+        send(getPending());
+    }
+
+    private synchronized List<RepeatedLogEvent> getPending()
+    {
+        if (this.pendingCount == 0) {
+            return List.of();
+        }
+
+        List<RepeatedLogEvent> pending = new ArrayList<>(this.pendingCount);
+        for (Folded current : this.folded.values()) {
+            if (current.occurrences > 0) {
+                pending.add(toRepeatedLogEvent(current));
+            }
+        }
+        pending.sort(Comparator.comparingLong(LogEvent::getTimeStamp));
+
+        return pending;
+    }
+}
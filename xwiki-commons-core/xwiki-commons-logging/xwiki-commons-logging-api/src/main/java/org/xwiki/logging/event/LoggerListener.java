@@ -82,4 +82,14 @@ public void onEvent(Event event, Object source, Object data)
             this.logger.log((LogEvent) event);
         }
     }
+
+    /**
+     * Send the events which might have been retained by the listener.
+     *
+     * @since 18.8.0RC1
+     */
+    public void flush()
+    {
+        // Nothing is retained by default
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.event;
+
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * A log event standing for several occurrences of the same log (same marker, level and message format) which were
+ * folded together.
+ * <p>
+ * The marker, level, message and arguments are the ones of the last folded occurrence.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class RepeatedLogEvent extends LogEvent
+{
+    /**
+     * Serialization identifier.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private int occurrences;
+
+    private long firstTimeStamp;
+
+    /**
+     * @param logEvent the last folded occurrence
+     * @param occurrences the number of folded occurrences
+     * @param firstTimeStamp the number of milliseconds elapsed from 1/1/1970 until the first folded occurrence was
+     *            created
+     */
+    public RepeatedLogEvent(LogEvent logEvent, int occurrences, long firstTimeStamp)
+    {
+        super(logEvent);
+
+        this.occurrences = occurrences;
+        this.firstTimeStamp = firstTimeStamp;
+    }
+
+    /**
+     * @return the number of folded occurrences
+     */
+    public int getOccurrences()
+    {
+        return this.occurrences;
+    }
+
+    /**
+     * @return the number of milliseconds elapsed from 1/1/1970 until the first folded occurrence was created
+     */
+    public long getFirstTimeStamp()
+    {
+        return this.firstTimeStamp;
+    }
+
+    /**
+     * @return the number of milliseconds elapsed from 1/1/1970 until the last folded occurrence was created
+     */
+    public long getLastTimeStamp()
+    {
+        return getTimeStamp();
+    }
+
+    // Object
+
+    @Override
+    public String toString()
+    {
+        return super.toString() + " (x" + getOccurrences() + ')';
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return new HashCodeBuilder(13, 17).append(getOccurrences()).appendSuper(super.hashCode()).toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        return super.equals(object) && object instanceof RepeatedLogEvent repeatedLogEvent
+            && getOccurrences() == repeatedLogEvent.getOccurrences();
+    }
+}
@@ -45,4 +45,32 @@ public boolean isDeprecatedLogEnabled()
     {
         return this.configurationSource.get().getProperty("logging.deprecated.enabled", true);
     }
+
+    @Override
+    public String getLoggerTailFormat()
+    {
+        return this.configurationSource.get().getProperty("logging.tail.format", LoggerConfiguration.super
+            .getLoggerTailFormat());
+    }
+
+    @Override
+    public boolean isLogCaptureAsynchronous()
+    {
+        return this.configurationSource.get().getProperty("logging.capture.async", LoggerConfiguration.super
+            .isLogCaptureAsynchronous());
+    }
+
+    @Override
+    public int getMaxRepeatedLogs()
+    {
+        return this.configurationSource.get().getProperty("logging.aggregation.maxRepeated",
+            LoggerConfiguration.super.getMaxRepeatedLogs());
+    }
+
+    @Override
+    public int getMaxLogsPerSecond()
+    {
+        return this.configurationSource.get().getProperty("logging.aggregation.maxPerSecond",
+            LoggerConfiguration.super.getMaxLogsPerSecond());
+    }
 }
@@ -19,6 +19,12 @@
  */
 package org.xwiki.logging.tail;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.xwiki.logging.LogLevel;
 import org.xwiki.logging.Logger;
 import org.xwiki.logging.event.LogEvent;
@@ -99,6 +105,39 @@ default LogTailResult getLogEvents(LogLevel from)
      */
     LogTailResult getLogEvents(LogLevel from, int offset, int limit);
 
+    /**
+     * @param from the log level from which to select log events
+     * @param limit the maximum number of results to return
+     * @return the last log events with the passed level or more, in the order they were logged
+     * @since 18.8.0RC1
+     */
+    default LogTailResult getLastLogEvents(LogLevel from, int limit)
+    {
+        List<LogEvent> events = new ArrayList<>();
+        for (int i = size() - 1; i >= 0 && events.size() < limit; --i) {
+            LogEvent logEvent = getLogEvent(i);
+            if (logEvent != null && (from == null || logEvent.getLevel().compareTo(from) <= 0)) {
+                events.add(logEvent);
+            }
+        }
+        Collections.reverse(events);
+
+        return new LogTailResult()
+        {
+            @Override
+            public Stream<LogEvent> stream()
+            {
+                return events.stream();
+            }
+
+            @Override
+            public Iterator<LogEvent> iterator()
+            {
+                return events.iterator();
+            }
+        };
+    }
+
     /**
      * @param from the log level from which to select log events
      * @return true if a log event with the passed log level or more was found
@@ -0,0 +1,144 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.event;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.LogQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Validate {@link AggregatingLoggerListener}.
+ *
+ * @version $Id$
+ */
+class AggregatingLoggerListenerTest
+{
+    private static final String SOURCE = "logger";
+
+    private final LogQueue queue = new LogQueue();
+
+    private LogEvent event(LogLevel level, String message, long timeStamp, Object... arguments)
+    {
+        return new LogEvent(null, level, message, arguments, null, timeStamp);
+    }
+
+    @Test
+    void foldRepeated()
+    {
+        AggregatingLoggerListener listener = new AggregatingLoggerListener("name", this.queue, 2, 0);
+
+        for (int i = 0; i < 5; ++i) {
+            listener.onEvent(event(LogLevel.WARN, "warning {}", i, i), SOURCE, null);
+            listener.onEvent(event(LogLevel.INFO, "info {}", i, i), SOURCE, null);
+        }
+
+        // Only the two first occurrences of each log are sent as is
+        assertEquals(4, this.queue.size());
+
+        listener.flush();
+
+        assertEquals(6, this.queue.size());
+
+        RepeatedLogEvent repeated = assertInstanceOf(RepeatedLogEvent.class, this.queue.getLogEvent(4));
+        assertEquals(LogLevel.WARN, repeated.getLevel());
+        assertEquals("warning 4", repeated.getFormattedMessage());
+        assertEquals(3, repeated.getOccurrences());
+        assertEquals(2, repeated.getFirstTimeStamp());
+        assertEquals(4, repeated.getLastTimeStamp());
+
+        // Nothing left to flush
+        listener.flush();
+
+        assertEquals(6, this.queue.size());
+    }
+
+    @Test
+    void sendFoldedBeforeNextEvent()
+    {
+        AggregatingLoggerListener listener = new AggregatingLoggerListener("name", this.queue, 1, 0);
+
+        listener.onEvent(event(LogLevel.WARN, "warning", 0), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info", 1), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info", 2), SOURCE, null);
+        listener.onEvent(event(LogLevel.WARN, "warning", 3), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info", 4), SOURCE, null);
+
+        assertEquals(2, this.queue.size());
+
+        listener.onEvent(new BeginLogEvent(null, LogLevel.INFO, "begin", null, null, 5), SOURCE, null);
+        listener.onEvent(event(LogLevel.ERROR, "error", 6), SOURCE, null);
+
+        assertEquals(6, this.queue.size());
+
+        // The folded occurrences are sent in place, before the next event, in date order
+        RepeatedLogEvent repeated = assertInstanceOf(RepeatedLogEvent.class, this.queue.getLogEvent(2));
+        assertEquals("warning", repeated.getMessage());
+        assertEquals(3, repeated.getTimeStamp());
+        repeated = assertInstanceOf(RepeatedLogEvent.class, this.queue.getLogEvent(3));
+        assertEquals("info", repeated.getMessage());
+        assertEquals(2, repeated.getOccurrences());
+        assertEquals(4, repeated.getTimeStamp());
+        assertInstanceOf(BeginLogEvent.class, this.queue.getLogEvent(4));
+        assertEquals("error", this.queue.getLogEvent(5).getMessage());
+    }
+
+    @Test
+    void rateLimit()
+    {
+        AggregatingLoggerListener listener = new AggregatingLoggerListener("name", this.queue, 0, 2);
+
+        listener.onEvent(event(LogLevel.INFO, "info0", 0), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info1", 10), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info2", 20), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info0", 30), SOURCE, null);
+        // Other logger
+        listener.onEvent(event(LogLevel.INFO, "info2", 40), "other", null);
+        // Other level
+        listener.onEvent(event(LogLevel.ERROR, "error", 50), SOURCE, null);
+        // Next second
+        listener.onEvent(event(LogLevel.INFO, "info3", 1000), SOURCE, null);
+
+        // The folded events are sent before the next event which is not folded
+        assertEquals(7, this.queue.size());
+        assertEquals("info2", this.queue.getLogEvent(2).getMessage());
+        assertEquals("info0", this.queue.getLogEvent(3).getMessage());
+        assertEquals(40, this.queue.getLogEvent(4).getTimeStamp());
+
+        listener.flush();
+
+        assertEquals(7, this.queue.size());
+    }
+
+    @Test
+    void ignore()
+    {
+        AggregatingLoggerListener listener = new AggregatingLoggerListener("name", this.queue, 1, 0);
+        listener.setIgnore(true);
+
+        listener.onEvent(event(LogLevel.INFO, "info", 0), SOURCE, null);
+        listener.onEvent(event(LogLevel.INFO, "info", 0), SOURCE, null);
+        listener.flush();
+
+        assertEquals(0, this.queue.size());
+    }
+}
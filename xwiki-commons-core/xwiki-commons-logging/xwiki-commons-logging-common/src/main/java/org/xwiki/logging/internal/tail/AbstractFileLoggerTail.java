@@ -156,6 +156,37 @@ protected static File getLogFile(Path path, String extension)
         return logFile;
     }
 
+    private static File getIndexFile(File logFile, String extension)
+    {
+        return new File(logFile.getParentFile(),
+            logFile.getName().substring(0, logFile.getName().length() - extension.length()) + ".index");
+    }
+
+    /**
+     * @param path the base path of the log
+     * @param extension the extension of the file containing the log
+     * @return the date of the last modification of the log stored at this location, 0 if it does not exist
+     * @since 18.8.0RC1
+     */
+    public static long lastModified(Path path, String extension)
+    {
+        return getLogFile(path, extension).lastModified();
+    }
+
+    /**
+     * @param path the base path of the log
+     * @param extension the extension of the file containing the log
+     * @throws IOException when failing to delete the log files
+     * @since 18.8.0RC1
+     */
+    public static void delete(Path path, String extension) throws IOException
+    {
+        File file = getLogFile(path, extension);
+
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(getIndexFile(file, extension).toPath());
+    }
+
     /**
      * @param path the base path of the log
      * @param readonly true of the log is readonly
@@ -173,8 +204,7 @@ public void initialize(Path path, boolean readonly) throws IOException
             this.logFile.getParentFile().mkdirs();
 
             // The index file
-            this.indexFile = new File(this.logFile.getParentFile(),
-                this.logFile.getName().substring(0, this.logFile.getName().length() - extension.length()) + ".index");
+            this.indexFile = getIndexFile(this.logFile, extension);
 
             if (!readonly) {
                 // Overwrite the current one if it exist
@@ -0,0 +1,760 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.inject.Inject;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.Logger;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.logging.event.RepeatedLogEvent;
+import org.xwiki.logging.internal.ListLogTailResult;
+import org.xwiki.logging.tail.EmptyLogTailResult;
+import org.xwiki.logging.tail.LogTailResult;
+import org.xwiki.xstream.internal.SafeXStream;
+
+/**
+ * Read and write the log in a compact binary format accessed through a memory mapped file.
+ * <p>
+ * Each log event is stored as a record made of the size of the record, the level, the date and the message of the
+ * event followed by the XStream serialization of the marker, the arguments and the throwable (which are only decoded
+ * when requested). The records of {@link RepeatedLogEvent}s also contain the number of occurrences and the date of the
+ * first occurrence. The log file is self-describing so the index of the records (global and per level) is rebuilt in
+ * memory from the records headers when opening an existing log.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = BinaryFileLoggerTail.class)
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
+public class BinaryFileLoggerTail extends AbstractLoggerTail implements Disposable
+{
+    protected static final String FILE_EXTENSION = ".bin";
+
+    private static final String FAILED_STORE_LOG = "Failed to store the log";
+
+    private static final String FAILED_RETRIEVE_LOG = "Failed to retrieve log for [{}]";
+
+    /**
+     * The size of the record length followed by the level.
+     */
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + 1;
+
+    /**
+     * The flag set on the level of the record when it's followed by the occurrences and the first date of a
+     * {@link RepeatedLogEvent}.
+     */
+    private static final int REPEATED_FLAG = 0x40;
+
+    /**
+     * The minimum size of the part of the log file mapped in memory.
+     */
+    private static final int MAPPING_WINDOW = 4 * 1024 * 1024;
+
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private static final Object[] EMPTY_EXTRA = new Object[3];
+
+    @Inject
+    protected org.slf4j.Logger componentLogger;
+
+    protected File logFile;
+
+    protected FileChannel logStore;
+
+    @Inject
+    private SafeXStream xstream;
+
+    private MappedByteBuffer mapped;
+
+    private long mappedStart;
+
+    /**
+     * The position right after the last known complete record.
+     */
+    private long logStoreLength;
+
+    private long[] positions = new long[16];
+
+    private int size;
+
+    private IndexList[] levelIndexes = newLevelIndexes();
+
+    /**
+     * A growable list of log event indexes.
+     *
+     * @version $Id$
+     */
+    private static final class IndexList
+    {
+        private int[] values = new int[16];
+
+        private int size;
+
+        void add(int value)
+        {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+
+            this.values[this.size++] = value;
+        }
+
+        int get(int i)
+        {
+            return this.values[i];
+        }
+
+        /**
+         * @return the position of the first value greater or equal to the passed value
+         */
+        int lowerBound(int value)
+        {
+            int low = 0;
+            int high = this.size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (this.values[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    private final class BinaryFileLoggerTailIterator implements Iterator<LogEvent>
+    {
+        private int current;
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.current < size();
+        }
+
+        @Override
+        public LogEvent next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return getLogEvent(this.current++);
+        }
+    }
+
+    /**
+     * @param path the base path of the log
+     * @return true of a log has been stored at this location
+     */
+    public static boolean exist(Path path)
+    {
+        return AbstractFileLoggerTail.exist(path, FILE_EXTENSION);
+    }
+
+    /**
+     * @param path the base path of the log
+     * @return the date of the last modification of the log stored at this location, 0 if it does not exist
+     */
+    public static long lastModified(Path path)
+    {
+        return AbstractFileLoggerTail.lastModified(path, FILE_EXTENSION);
+    }
+
+    /**
+     * @param path the base path of the log
+     * @throws IOException when failing to delete the log file
+     */
+    public static void delete(Path path) throws IOException
+    {
+        Files.deleteIfExists(AbstractFileLoggerTail.getLogFile(path, FILE_EXTENSION).toPath());
+    }
+
+    private static IndexList[] newLevelIndexes()
+    {
+        IndexList[] indexes = new IndexList[LEVELS.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            indexes[i] = new IndexList();
+        }
+
+        return indexes;
+    }
+
+    /**
+     * @param path the base path of the log
+     * @param readonly true of the log is readonly
+     * @throws IOException when failing to create the log files
+     */
+    public void initialize(Path path, boolean readonly) throws IOException
+    {
+        synchronized (this) {
+            this.logFile = AbstractFileLoggerTail.getLogFile(path, FILE_EXTENSION);
+            this.logFile.getParentFile().mkdirs();
+
+            resetIndex();
+
+            if (!readonly) {
+                // Overwrite the current one if it exist
+                Files.deleteIfExists(this.logFile.toPath());
+
+                this.logStore = FileChannel.open(this.logFile.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } else {
+                loadIndex();
+            }
+        }
+    }
+
+    private void resetIndex()
+    {
+        this.size = 0;
+        this.levelIndexes = newLevelIndexes();
+        this.logStoreLength = 0;
+        this.mapped = null;
+        this.mappedStart = 0;
+    }
+
+    private void addIndex(long position, LogLevel level)
+    {
+        if (this.size == this.positions.length) {
+            this.positions = Arrays.copyOf(this.positions, this.size * 2);
+        }
+
+        this.levelIndexes[level.ordinal()].add(this.size);
+        this.positions[this.size++] = position;
+    }
+
+    /**
+     * Read the headers of the records added since the last known position.
+     */
+    private void loadIndex()
+    {
+        if (!this.logFile.exists()) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(this.logFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            long fileLength = channel.size();
+            while (this.logStoreLength + RECORD_HEADER_SIZE <= fileLength) {
+                header.clear();
+                channel.read(header, this.logStoreLength);
+                header.flip();
+                int recordLength = header.getInt();
+                int level = header.get() & ~REPEATED_FLAG;
+
+                long next = this.logStoreLength + Integer.BYTES + recordLength;
+                if (next > fileLength || level < 0 || level >= LEVELS.length) {
+                    // Incomplete or corrupted record
+                    break;
+                }
+
+                addIndex(this.logStoreLength, LEVELS[level]);
+                this.logStoreLength = next;
+            }
+        } catch (Exception e) {
+            this.componentLogger.warn("Failed to read log file [{}]: {}", this.logFile, e.getMessage());
+        }
+    }
+
+    private boolean isReadOnly()
+    {
+        return this.logStore == null;
+    }
+
+    private void checkChanged()
+    {
+        if (isReadOnly() && this.logFile != null) {
+            long fileLength = this.logFile.exists() ? this.logFile.length() : 0;
+
+            if (fileLength < this.logStoreLength) {
+                // Something else started modifying the log file
+                resetIndex();
+                loadIndex();
+            } else if (fileLength > this.logStoreLength) {
+                // Something else appended records to the log file
+                loadIndex();
+            }
+        }
+    }
+
+    @Override
+    public void log(LogEvent logEvent)
+    {
+        // We can't store this log since it has a good chance of creating a infinite loop
+        // We don't use #equals for performance reason, it works because it's the exact same String instance
+        if (this.logStore != null && FAILED_STORE_LOG != logEvent.getMessage()) {
+            synchronized (this) {
+                try {
+                    ByteBuffer record = ByteBuffer.wrap(encode(logEvent));
+
+                    long position = this.logStoreLength;
+                    while (record.hasRemaining()) {
+                        this.logStore.write(record, position + record.position());
+                    }
+
+                    addIndex(position, logEvent.getLevel());
+                    this.logStoreLength += record.capacity();
+                } catch (Exception e) {
+                    this.componentLogger.error(Logger.ROOT_MARKER, FAILED_STORE_LOG, e);
+                }
+            }
+        }
+    }
+
+    private byte[] encode(LogEvent logEvent) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        // Reserve the record length
+        output.writeInt(0);
+
+        if (logEvent instanceof RepeatedLogEvent repeatedLogEvent) {
+            output.writeByte(logEvent.getLevel().ordinal() | REPEATED_FLAG);
+            output.writeLong(logEvent.getTimeStamp());
+            output.writeInt(repeatedLogEvent.getOccurrences());
+            output.writeLong(repeatedLogEvent.getFirstTimeStamp());
+        } else {
+            output.writeByte(logEvent.getLevel().ordinal());
+            output.writeLong(logEvent.getTimeStamp());
+        }
+        writeBytes(logEvent.getMessage() != null ? logEvent.getMessage().getBytes(StandardCharsets.UTF_8) : null,
+            output);
+        writeBytes(encodeExtra(logEvent), output);
+
+        output.flush();
+
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(record.length - Integer.BYTES);
+
+        return record;
+    }
+
+    private void writeBytes(byte[] value, DataOutputStream output) throws IOException
+    {
+        if (value != null) {
+            output.writeInt(value.length);
+            output.write(value);
+        } else {
+            output.writeInt(-1);
+        }
+    }
+
+    private byte[] encodeExtra(LogEvent logEvent) throws IOException
+    {
+        if (logEvent.getMarker() == null && logEvent.getArgumentArray() == null && logEvent.getThrowable() == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            this.xstream.toXML(
+                new Object[] { logEvent.getMarker(), logEvent.getArgumentArray(), logEvent.getThrowable() }, writer);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private Object[] decodeExtra(byte[] extra)
+    {
+        if (extra == null) {
+            return EMPTY_EXTRA;
+        }
+
+        try {
+            return (Object[]) this.xstream
+                .fromXML(new InputStreamReader(new ByteArrayInputStream(extra), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            this.componentLogger.error(FAILED_RETRIEVE_LOG, this.logFile, e);
+
+            return EMPTY_EXTRA;
+        }
+    }
+
+    private ByteBuffer getRecord(long position) throws IOException
+    {
+        ByteBuffer buffer = getMapped(position, RECORD_HEADER_SIZE);
+        int recordLength = buffer.getInt(buffer.position());
+
+        buffer = getMapped(position, Integer.BYTES + recordLength);
+        buffer.position(buffer.position() + Integer.BYTES);
+
+        return buffer;
+    }
+
+    private ByteBuffer getMapped(long position, int length) throws IOException
+    {
+        if (this.mapped == null || position < this.mappedStart
+            || position + length > this.mappedStart + this.mapped.capacity()) {
+            if (position + length > this.logStoreLength) {
+                throw new IOException("Record at position [%s] is outside of the log file".formatted(position));
+            }
+
+            // Map a window starting at the requested position (records are generally read in sequence) instead of
+            // the whole file which would have to be remapped each time it grows
+            long start = position;
+            long mapLength = Math.min(Math.max(MAPPING_WINDOW, length), this.logStoreLength - start);
+
+            if (this.logStore != null) {
+                this.mapped = this.logStore.map(FileChannel.MapMode.READ_ONLY, start, mapLength);
+            } else {
+                try (FileChannel channel = FileChannel.open(this.logFile.toPath(), StandardOpenOption.READ)) {
+                    this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, mapLength);
+                }
+            }
+            this.mappedStart = start;
+        }
+
+        // Return an independent view of the mapped file to not share the position between threads
+        ByteBuffer buffer = this.mapped.duplicate();
+        buffer.position((int) (position - this.mappedStart));
+
+        return buffer;
+    }
+
+    private LogEvent readLogEvent(int index)
+    {
+        try {
+            ByteBuffer buffer;
+            synchronized (this) {
+                buffer = getRecord(this.positions[index]);
+            }
+
+            int levelByte = buffer.get();
+            LogLevel level = LEVELS[levelByte & ~REPEATED_FLAG];
+            long timeStamp = buffer.getLong();
+            int occurrences = 0;
+            long firstTimeStamp = 0;
+            if ((levelByte & REPEATED_FLAG) != 0) {
+                occurrences = buffer.getInt();
+                firstTimeStamp = buffer.getLong();
+            }
+            byte[] message = readBytes(buffer);
+            byte[] extra = readBytes(buffer);
+
+            LogEvent logEvent = new BinaryLogEvent(level,
+                message != null ? new String(message, StandardCharsets.UTF_8) : null, timeStamp, extra,
+                this::decodeExtra);
+
+            if ((levelByte & REPEATED_FLAG) != 0) {
+                logEvent = new RepeatedLogEvent(logEvent, occurrences, firstTimeStamp);
+            }
+
+            return logEvent;
+        } catch (Exception e) {
+            this.componentLogger.error(FAILED_RETRIEVE_LOG, this.logFile, e);
+
+            return null;
+        }
+    }
+
+    private byte[] readBytes(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return bytes;
+    }
+
+    @Override
+    public LogEvent getLogEvent(int index)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            if (index < 0 || index >= this.size) {
+                // Not entry associated with this index
+                return null;
+            }
+        }
+
+        return readLogEvent(index);
+    }
+
+    @Override
+    public LogEvent getFirstLogEvent(LogLevel from)
+    {
+        int first = -1;
+
+        synchronized (this) {
+            checkChanged();
+
+            for (int level = 0; level < getLevelCount(from); ++level) {
+                IndexList levelIndex = this.levelIndexes[level];
+                if (levelIndex.size > 0 && (first == -1 || levelIndex.get(0) < first)) {
+                    first = levelIndex.get(0);
+                }
+            }
+        }
+
+        return first != -1 ? readLogEvent(first) : null;
+    }
+
+    @Override
+    public LogEvent getLastLogEvent(LogLevel from)
+    {
+        int last = -1;
+
+        synchronized (this) {
+            checkChanged();
+
+            for (int level = 0; level < getLevelCount(from); ++level) {
+                IndexList levelIndex = this.levelIndexes[level];
+                if (levelIndex.size > 0 && levelIndex.get(levelIndex.size - 1) > last) {
+                    last = levelIndex.get(levelIndex.size - 1);
+                }
+            }
+        }
+
+        return last != -1 ? readLogEvent(last) : null;
+    }
+
+    /**
+     * @return the number of levels (starting from the first one) matching the passed level
+     */
+    private int getLevelCount(LogLevel from)
+    {
+        return from != null ? from.ordinal() + 1 : LEVELS.length;
+    }
+
+    @Override
+    public LogTailResult getLogEvents(LogLevel from, int offset, int limit)
+    {
+        int[] indexes;
+
+        synchronized (this) {
+            checkChanged();
+
+            if (this.size <= offset) {
+                return EmptyLogTailResult.INSTANCE;
+            }
+
+            int fromIndex = Math.max(offset, 0);
+            int toIndex = fromIndex + limit;
+            if (toIndex <= fromIndex || toIndex > this.size) {
+                toIndex = this.size;
+            }
+
+            indexes = getIndexes(from, fromIndex, toIndex);
+        }
+
+        return readLogEvents(indexes);
+    }
+
+    /**
+     * Merge the level indexes matching the passed level in the passed range.
+     */
+    private int[] getIndexes(LogLevel from, int fromIndex, int toIndex)
+    {
+        int levelCount = getLevelCount(from);
+
+        if (levelCount == LEVELS.length) {
+            int[] indexes = new int[toIndex - fromIndex];
+            for (int i = 0; i < indexes.length; ++i) {
+                indexes[i] = fromIndex + i;
+            }
+
+            return indexes;
+        }
+
+        int[] cursors = new int[levelCount];
+        int[] ends = new int[levelCount];
+        int count = 0;
+        for (int level = 0; level < levelCount; ++level) {
+            cursors[level] = this.levelIndexes[level].lowerBound(fromIndex);
+            ends[level] = this.levelIndexes[level].lowerBound(toIndex);
+            count += ends[level] - cursors[level];
+        }
+
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; ++i) {
+            int selectedLevel = -1;
+            for (int level = 0; level < levelCount; ++level) {
+                if (cursors[level] < ends[level] && (selectedLevel == -1 || this.levelIndexes[level]
+                    .get(cursors[level]) < this.levelIndexes[selectedLevel].get(cursors[selectedLevel]))) {
+                    selectedLevel = level;
+                }
+            }
+
+            indexes[i] = this.levelIndexes[selectedLevel].get(cursors[selectedLevel]++);
+        }
+
+        return indexes;
+    }
+
+    @Override
+    public LogTailResult getLastLogEvents(LogLevel from, int limit)
+    {
+        int[] indexes;
+        int count = 0;
+
+        synchronized (this) {
+            checkChanged();
+
+            indexes = new int[Math.max(Math.min(limit, this.size), 0)];
+
+            int levelCount = getLevelCount(from);
+            int[] cursors = new int[levelCount];
+            for (int level = 0; level < levelCount; ++level) {
+                cursors[level] = this.levelIndexes[level].size - 1;
+            }
+
+            // Walk the matching level indexes backward
+            while (count < indexes.length) {
+                int selectedLevel = -1;
+                for (int level = 0; level < levelCount; ++level) {
+                    if (cursors[level] >= 0 && (selectedLevel == -1 || this.levelIndexes[level]
+                        .get(cursors[level]) > this.levelIndexes[selectedLevel].get(cursors[selectedLevel]))) {
+                        selectedLevel = level;
+                    }
+                }
+
+                if (selectedLevel == -1) {
+                    break;
+                }
+
+                indexes[indexes.length - ++count] = this.levelIndexes[selectedLevel].get(cursors[selectedLevel]--);
+            }
+        }
+
+        return readLogEvents(Arrays.copyOfRange(indexes, indexes.length - count, indexes.length));
+    }
+
+    private LogTailResult readLogEvents(int[] indexes)
+    {
+        List<LogEvent> events = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            LogEvent logEvent = readLogEvent(index);
+            if (logEvent != null) {
+                events.add(logEvent);
+            }
+        }
+
+        return new ListLogTailResult(events);
+    }
+
+    @Override
+    public boolean hasLogLevel(LogLevel from)
+    {
+        synchronized (this) {
+            checkChanged();
+
+            for (int level = 0; level < getLevelCount(from); ++level) {
+                if (this.levelIndexes[level].size > 0) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int size()
+    {
+        synchronized (this) {
+            checkChanged();
+
+            return this.size;
+        }
+    }
+
+    @Override
+    public Iterator<LogEvent> iterator()
+    {
+        return new BinaryFileLoggerTailIterator();
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        synchronized (this) {
+            if (this.logStore != null) {
+                this.logStore.force(false);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this) {
+            if (this.logStore != null) {
+                flush();
+
+                this.logStore.close();
+                this.logStore = null;
+            }
+
+            // Release the mapped file (it's actually unmapped when garbage collected)
+            this.mapped = null;
+        }
+    }
+
+    @Override
+    public void dispose() throws ComponentLifecycleException
+    {
+        try {
+            close();
+        } catch (Exception e) {
+            throw new ComponentLifecycleException("Failed to close the logger", e);
+        }
+
+        synchronized (this) {
+            resetIndex();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.util.function.Function;
+
+import org.slf4j.Marker;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.event.LogEvent;
+
+/**
+ * A {@link LogEvent} read from a {@link BinaryFileLoggerTail} which decode the marker, the arguments and the throwable
+ * only when they are actually needed.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class BinaryLogEvent extends LogEvent
+{
+    private static final long serialVersionUID = 1L;
+
+    private transient byte[] extra;
+
+    private transient Function<byte[], Object[]> decoder;
+
+    private transient Object[] decoded;
+
+    /**
+     * @param level the log level
+     * @param message the log message
+     * @param timeStamp the number of milliseconds elapsed from 1/1/1970 until logging event was created
+     * @param extra the encoded marker, arguments and throwable
+     * @param decoder the decoder to use to convert the extra into an array containing the marker, the arguments and
+     *            the throwable
+     */
+    public BinaryLogEvent(LogLevel level, String message, long timeStamp, byte[] extra,
+        Function<byte[], Object[]> decoder)
+    {
+        super(null, level, message, null, null, timeStamp);
+
+        this.extra = extra;
+        this.decoder = decoder;
+    }
+
+    private synchronized Object[] getDecoded()
+    {
+        if (this.decoded == null) {
+            this.decoded = this.decoder.apply(this.extra);
+
+            // Not needed anymore
+            this.extra = null;
+            this.decoder = null;
+        }
+
+        return this.decoded;
+    }
+
+    @Override
+    public Marker getMarker()
+    {
+        return (Marker) getDecoded()[0];
+    }
+
+    @Override
+    public Object[] getArgumentArray()
+    {
+        return (Object[]) getDecoded()[1];
+    }
+
+    @Override
+    public Throwable getThrowable()
+    {
+        return (Throwable) getDecoded()[2];
+    }
+
+    /**
+     * Make sure the decoded version of the log is serialized.
+     *
+     * @return the object to serialize
+     */
+    private Object writeReplace()
+    {
+        return new LogEvent(this);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.logging.internal.ListLogTailResult;
+import org.xwiki.logging.tail.EmptyLogTailResult;
+import org.xwiki.logging.tail.LogTailResult;
+
+/**
+ * An in memory {@link org.xwiki.logging.tail.LoggerTail} storing the log events in an append-only chunked array.
+ * <p>
+ * Contrary to {@link org.xwiki.logging.LogQueue}, indexed access, size and level checks don't need to go through all
+ * the stored events. Neither appending nor reading takes any lock: each log event reserves its index with an atomic
+ * counter, is stored, and the size is then advanced in order once all the preceding log events are stored too, so
+ * that readers only see a contiguous sequence of stored log events.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class MemoryLoggerTail extends AbstractLoggerTail implements Serializable
+{
+    /**
+     * Serialization identifier.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The size of the first chunk is 2^{@value}, each following chunk being twice as big as the previous one.
+     */
+    private static final int FIRST_CHUNK_SHIFT = 5;
+
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_SHIFT;
+
+    /**
+     * Enough chunks to store {@link Integer#MAX_VALUE} log events.
+     */
+    private static final int CHUNK_COUNT = Integer.SIZE - FIRST_CHUNK_SHIFT;
+
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    /**
+     * The maximum number of log events which can be stored.
+     */
+    private static final int MAX_SIZE = Integer.MAX_VALUE - FIRST_CHUNK_SIZE;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<LogEvent>> chunks =
+        new AtomicReferenceArray<>(CHUNK_COUNT);
+
+    private final AtomicIntegerArray levelCounts = new AtomicIntegerArray(LEVELS.length);
+
+    private final AtomicIntegerArray levelFirsts = new AtomicIntegerArray(LEVELS.length);
+
+    private final AtomicIntegerArray levelLasts = new AtomicIntegerArray(LEVELS.length);
+
+    /**
+     * The number of reserved indexes.
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /**
+     * The number of log events visible to the readers, all the log events before it being stored.
+     */
+    private final AtomicInteger published = new AtomicInteger();
+
+    private final class MemoryLoggerTailIterator implements Iterator<LogEvent>
+    {
+        private int index;
+
+        @Override
+        public boolean hasNext()
+        {
+            return this.index < size();
+        }
+
+        @Override
+        public LogEvent next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return getPublishedLogEvent(this.index++);
+        }
+    }
+
+    /**
+     * Default constructor.
+     */
+    public MemoryLoggerTail()
+    {
+        for (int i = 0; i < LEVELS.length; ++i) {
+            this.levelFirsts.set(i, -1);
+            this.levelLasts.set(i, -1);
+        }
+    }
+
+    private static int getChunkIndex(int index)
+    {
+        return (Integer.SIZE - 1 - Integer.numberOfLeadingZeros(index + FIRST_CHUNK_SIZE)) - FIRST_CHUNK_SHIFT;
+    }
+
+    private static int getChunkOffset(int index, int chunkIndex)
+    {
+        return index + FIRST_CHUNK_SIZE - (FIRST_CHUNK_SIZE << chunkIndex);
+    }
+
+    /**
+     * @return the number of levels (starting from the first one) matching the passed level
+     */
+    private static int getLevelCount(LogLevel from)
+    {
+        return from != null ? from.ordinal() + 1 : LEVELS.length;
+    }
+
+    @Override
+    public void log(LogEvent logEvent)
+    {
+        // Don't store more than what can be indexed
+        int index = this.reserved.getAndUpdate(i -> i < MAX_SIZE ? i + 1 : MAX_SIZE);
+        if (index >= MAX_SIZE) {
+            return;
+        }
+
+        // The level pointers are updated before the log event is stored so that they are up to date when the log event
+        // is published (readers ignore the indexes which are not published yet)
+        int level = logEvent.getLevel().ordinal();
+        this.levelFirsts.accumulateAndGet(level, index, (first, i) -> first < 0 ? i : Math.min(first, i));
+        this.levelLasts.accumulateAndGet(level, index, Math::max);
+        this.levelCounts.incrementAndGet(level);
+
+        int chunkIndex = getChunkIndex(index);
+        AtomicReferenceArray<LogEvent> chunk = this.chunks.get(chunkIndex);
+        if (chunk == null) {
+            this.chunks.compareAndSet(chunkIndex, null, new AtomicReferenceArray<>(FIRST_CHUNK_SIZE << chunkIndex));
+            chunk = this.chunks.get(chunkIndex);
+        }
+        chunk.set(getChunkOffset(index, chunkIndex), logEvent);
+
+        publish();
+    }
+
+    /**
+     * Advance the published size over all the stored log events following it. Whichever thread stores the log event
+     * following the published size last will see it stored and advance over it.
+     */
+    private void publish()
+    {
+        int size = this.published.get();
+        while (size < MAX_SIZE && getStoredLogEvent(size) != null) {
+            this.published.compareAndSet(size, size + 1);
+            size = this.published.get();
+        }
+    }
+
+    private LogEvent getStoredLogEvent(int index)
+    {
+        int chunkIndex = getChunkIndex(index);
+        AtomicReferenceArray<LogEvent> chunk = this.chunks.get(chunkIndex);
+
+        return chunk != null ? chunk.get(getChunkOffset(index, chunkIndex)) : null;
+    }
+
+    private LogEvent getPublishedLogEvent(int index)
+    {
+        int chunkIndex = getChunkIndex(index);
+
+        return this.chunks.get(chunkIndex).get(getChunkOffset(index, chunkIndex));
+    }
+
+    @Override
+    public LogEvent getLogEvent(int index)
+    {
+        if (index < 0 || index >= size()) {
+            return null;
+        }
+
+        return getPublishedLogEvent(index);
+    }
+
+    @Override
+    public LogEvent getFirstLogEvent(LogLevel from)
+    {
+        int first = getFirstIndex(from);
+
+        // The first log event of the levels is not published yet so none is
+        return first >= 0 && first < size() ? getPublishedLogEvent(first) : null;
+    }
+
+    private int getFirstIndex(LogLevel from)
+    {
+        int first = -1;
+        for (int level = 0; level < getLevelCount(from); ++level) {
+            int levelFirst = this.levelFirsts.get(level);
+            if (levelFirst >= 0 && (first < 0 || levelFirst < first)) {
+                first = levelFirst;
+            }
+        }
+
+        return first;
+    }
+
+    @Override
+    public LogEvent getLastLogEvent(LogLevel from)
+    {
+        int size = size();
+
+        int last = -1;
+        for (int level = 0; level < getLevelCount(from); ++level) {
+            last = Math.max(last, this.levelLasts.get(level));
+        }
+
+        if (last < size) {
+            return last >= 0 ? getPublishedLogEvent(last) : null;
+        }
+
+        // The last log event of the levels is still being published, look for the last published one
+        for (int index = size - 1; index >= 0; --index) {
+            LogEvent logEvent = getPublishedLogEvent(index);
+            if (from == null || logEvent.getLevel().compareTo(from) <= 0) {
+                return logEvent;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public LogTailResult getLogEvents(LogLevel from, int offset, int limit)
+    {
+        int size = size();
+
+        if (size <= offset) {
+            return EmptyLogTailResult.INSTANCE;
+        }
+
+        // Like file based tails, the offset and limit are applied to all the log events, then the level is filtered
+        int fromIndex = Math.max(offset, 0);
+        int toIndex = fromIndex + limit;
+        if (limit <= 0 || toIndex <= fromIndex || toIndex > size) {
+            toIndex = size;
+        }
+
+        boolean all = getLevelCount(from) == LEVELS.length;
+
+        List<LogEvent> events = new ArrayList<>(toIndex - fromIndex);
+        if (all || hasLogLevel(from)) {
+            for (int index = fromIndex; index < toIndex; ++index) {
+                LogEvent logEvent = getPublishedLogEvent(index);
+                if (all || logEvent.getLevel().compareTo(from) <= 0) {
+                    events.add(logEvent);
+                }
+            }
+        }
+
+        return new ListLogTailResult(events);
+    }
+
+    @Override
+    public boolean hasLogLevel(LogLevel from)
+    {
+        int first = getFirstIndex(from);
+
+        return first >= 0 && first < size();
+    }
+
+    /**
+     * @param level the log level
+     * @return the number of log events with exactly the passed level, including the ones being appended
+     */
+    public int getLogLevelCount(LogLevel level)
+    {
+        return this.levelCounts.get(level.ordinal());
+    }
+
+    @Override
+    public int size()
+    {
+        return this.published.get();
+    }
+
+    @Override
+    public Iterator<LogEvent> iterator()
+    {
+        return new MemoryLoggerTailIterator();
+    }
+
+    @Override
+    public void flush()
+    {
+        // Nothing to flush
+    }
+
+    @Override
+    public void close()
+    {
+        // Nothing to close
+    }
+}
@@ -70,6 +70,26 @@ public static boolean exist(Path path)
         return exist(path, FILE_EXTENSION);
     }
 
+    /**
+     * @param path the base path of the log
+     * @return the date of the last modification of the log stored at this location, 0 if it does not exist
+     * @since 18.8.0RC1
+     */
+    public static long lastModified(Path path)
+    {
+        return lastModified(path, FILE_EXTENSION);
+    }
+
+    /**
+     * @param path the base path of the log
+     * @throws IOException when failing to delete the log files
+     * @since 18.8.0RC1
+     */
+    public static void delete(Path path) throws IOException
+    {
+        delete(path, FILE_EXTENSION);
+    }
+
     @Override
     protected LogEvent read(Reader reader)
     {
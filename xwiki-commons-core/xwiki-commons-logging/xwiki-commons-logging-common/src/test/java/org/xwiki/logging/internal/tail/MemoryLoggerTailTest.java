@@ -0,0 +1,236 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.internal.tail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.jupiter.api.Test;
+import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.event.LogEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validate {@link MemoryLoggerTail}.
+ *
+ * @version $Id$
+ */
+class MemoryLoggerTailTest
+{
+    private final MemoryLoggerTail tail = new MemoryLoggerTail();
+
+    private List<String> getMessages(Iterable<LogEvent> events)
+    {
+        return StreamSupport.stream(events.spliterator(), false).map(LogEvent::getMessage).toList();
+    }
+
+    @Test
+    void getLogEvent()
+    {
+        assertNull(this.tail.getLogEvent(0));
+
+        for (int i = 0; i < 1000; ++i) {
+            this.tail.info("info" + i);
+        }
+
+        assertEquals(1000, this.tail.size());
+        assertEquals("info0", this.tail.getLogEvent(0).getMessage());
+        assertEquals("info31", this.tail.getLogEvent(31).getMessage());
+        assertEquals("info32", this.tail.getLogEvent(32).getMessage());
+        assertEquals("info999", this.tail.getLogEvent(999).getMessage());
+        assertNull(this.tail.getLogEvent(1000));
+        assertNull(this.tail.getLogEvent(-1));
+
+        assertEquals(1000, getMessages(this.tail).size());
+    }
+
+    @Test
+    void getFirstLastLogEvent()
+    {
+        assertNull(this.tail.getFirstLogEvent());
+        assertNull(this.tail.getLastLogEvent(LogLevel.ERROR));
+
+        this.tail.info("info0");
+        this.tail.error("error0");
+        this.tail.warn("warn0");
+        this.tail.error("error1");
+        this.tail.info("info1");
+
+        assertEquals("info0", this.tail.getFirstLogEvent().getMessage());
+        assertEquals("error0", this.tail.getFirstLogEvent(LogLevel.WARN).getMessage());
+        assertEquals("error0", this.tail.getFirstLogEvent(LogLevel.ERROR).getMessage());
+        assertEquals("info1", this.tail.getLastLogEvent().getMessage());
+        assertEquals("error1", this.tail.getLastLogEvent(LogLevel.WARN).getMessage());
+        assertNull(this.tail.getFirstLogEvent(LogLevel.ERROR).getThrowable());
+        assertEquals("info0", this.tail.getFirstLogEvent(null).getMessage());
+        assertEquals("info1", this.tail.getLastLogEvent(null).getMessage());
+    }
+
+    @Test
+    void getLogEvents()
+    {
+        this.tail.info("info0");
+        this.tail.warn("warn0");
+        this.tail.error("error0");
+        this.tail.info("info1");
+        this.tail.warn("warn1");
+        this.tail.error("error1");
+        this.tail.info("info2");
+        this.tail.warn("warn2");
+        this.tail.error("error2");
+
+        assertEquals(9, this.tail.getLogEvents(null).stream().count());
+        assertEquals(9, this.tail.getLogEvents(LogLevel.TRACE).stream().count());
+        assertEquals(6, this.tail.getLogEvents(LogLevel.WARN).stream().count());
+        assertEquals(3, this.tail.getLogEvents(LogLevel.ERROR).stream().count());
+        assertEquals(0, this.tail.getLogEvents(42, -1).stream().count());
+
+        assertEquals(List.of("warn1", "error1", "info2"), getMessages(this.tail.getLogEvents(4, 3)));
+        // The offset and the limit apply to all the log events, not only to the ones matching the level
+        assertEquals(List.of("warn1", "error1"), getMessages(this.tail.getLogEvents(LogLevel.WARN, 4, 3)));
+        assertEquals(List.of("error1", "error2"), getMessages(this.tail.getLogEvents(LogLevel.ERROR, 3, -1)));
+        assertEquals(List.of("warn2", "error2"), getMessages(this.tail.getLogEvents(null, 7, Integer.MAX_VALUE)));
+        assertEquals(List.of("warn2", "error2"), getMessages(this.tail.getLastLogEvents(null, 2)));
+    }
+
+    @Test
+    void hasLogLevel()
+    {
+        assertFalse(this.tail.hasLogLevel(LogLevel.TRACE));
+        assertFalse(this.tail.hasLogLevel(null));
+
+        this.tail.warn("warn");
+
+        assertFalse(this.tail.hasLogLevel(LogLevel.ERROR));
+        assertTrue(this.tail.hasLogLevel(LogLevel.WARN));
+        assertTrue(this.tail.hasLogLevel(LogLevel.DEBUG));
+        assertTrue(this.tail.hasLogLevel(null));
+        assertEquals(1, this.tail.getLogLevelCount(LogLevel.WARN));
+        assertEquals(0, this.tail.getLogLevelCount(LogLevel.INFO));
+    }
+
+    @Test
+    void serialize()
+    {
+        this.tail.info("info");
+        this.tail.error("error");
+
+        MemoryLoggerTail tailCopy = SerializationUtils.roundtrip(this.tail);
+
+        assertEquals(List.of("info", "error"), getMessages(tailCopy));
+        assertEquals(1, tailCopy.getLogLevelCount(LogLevel.ERROR));
+        assertEquals("error", tailCopy.getLastLogEvent(LogLevel.WARN).getMessage());
+
+        tailCopy.warn("warn");
+
+        assertEquals(3, tailCopy.size());
+        assertEquals(2, this.tail.size());
+    }
+
+    @Test
+    void concurrentLog() throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; ++thread) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; ++i) {
+                        this.tail.error("error");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(40000, this.tail.size());
+        assertEquals(40000, this.tail.getLogLevelCount(LogLevel.ERROR));
+        for (int i = 0; i < 40000; ++i) {
+            assertNotNull(this.tail.getLogEvent(i));
+        }
+    }
+
+    @Test
+    void concurrentLogAndRead() throws Exception
+    {
+        LogLevel[] levels = {LogLevel.ERROR, LogLevel.WARN, LogLevel.INFO, LogLevel.DEBUG};
+        ExecutorService executor = Executors.newFixedThreadPool(levels.length + 1);
+
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (LogLevel level : levels) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; ++i) {
+                        this.tail.log(new LogEvent(level, level.name() + i, null, null));
+                    }
+                }));
+            }
+
+            // The published log events are always stored, and appear in the order each thread logged them
+            Future<?> reader = executor.submit(() -> {
+                while (this.tail.size() < 40000) {
+                    int size = this.tail.size();
+                    for (int i = 0; i < size; ++i) {
+                        assertNotNull(this.tail.getLogEvent(i));
+                    }
+                    if (this.tail.hasLogLevel(LogLevel.ERROR)) {
+                        assertEquals(LogLevel.ERROR, this.tail.getLastLogEvent(LogLevel.ERROR).getLevel());
+                        assertEquals("ERROR0", this.tail.getFirstLogEvent(LogLevel.ERROR).getMessage());
+                    }
+                }
+            });
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            reader.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(40000, this.tail.size());
+        for (LogLevel level : levels) {
+            assertEquals(10000, this.tail.getLogLevelCount(level));
+
+            List<String> messages = this.tail.getLogEvents(level, 0, -1).stream()
+                .filter(logEvent -> logEvent.getLevel() == level).map(LogEvent::getMessage).toList();
+            assertEquals(10000, messages.size());
+            for (int i = 0; i < messages.size(); ++i) {
+                assertEquals(level.name() + i, messages.get(i));
+            }
+        }
+        assertEquals("ERROR9999", this.tail.getLastLogEvent(LogLevel.ERROR).getMessage());
+    }
+}
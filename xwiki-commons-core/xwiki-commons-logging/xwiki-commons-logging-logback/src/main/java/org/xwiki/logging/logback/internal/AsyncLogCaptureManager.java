@@ -0,0 +1,245 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.logging.logback.internal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.logging.event.LogEvent;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.ObservationManager;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Capture the logs of some threads in a bounded buffer and convert/deliver them to the current log listener of the
+ * thread in a background thread.
+ * <p>
+ * The logging thread only pays for an offer in the buffer. When the buffer is full the logging thread delivers the
+ * pending events itself so that no log is lost.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = AsyncLogCaptureManager.class)
+@Singleton
+public class AsyncLogCaptureManager implements Initializable, Disposable
+{
+    private static final int BUFFER_SIZE = 1024;
+
+    @Inject
+    private Provider<ObservationManager> observation;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The capture of the current thread. A {@link ThreadLocal} makes sure nothing is kept for a thread which ended
+     * without stopping its capture (the pending events are delivered by the scheduled task which still references the
+     * capture).
+     */
+    private final ThreadLocal<Capture> captures = new ThreadLocal<>();
+
+    private final LogbackUtils utils = new LogbackUtils();
+
+    private ExecutorService executor;
+
+    private record CapturedEvent(ILoggingEvent event, EventListener listener)
+    {
+    }
+
+    private final class Capture implements Runnable
+    {
+        private final BlockingQueue<CapturedEvent> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile EventListener listener;
+
+        Capture(EventListener listener)
+        {
+            this.listener = listener;
+        }
+
+        boolean add(ILoggingEvent event)
+        {
+            EventListener currentListener = this.listener;
+
+            if (currentListener == null) {
+                // Nobody to send the event to
+                return false;
+            }
+
+            CapturedEvent capturedEvent = new CapturedEvent(event, currentListener);
+            if (this.buffer.offer(capturedEvent)) {
+                schedule();
+            } else {
+                // The consumer is late, deliver the pending events in the logging thread
+                synchronized (this) {
+                    flush();
+                    deliver(capturedEvent);
+                }
+            }
+
+            return true;
+        }
+
+        private void schedule()
+        {
+            if (this.scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // The manager is being disposed
+                    this.scheduled.set(false);
+                    flush();
+                }
+            }
+        }
+
+        synchronized void flush()
+        {
+            for (CapturedEvent capturedEvent = this.buffer.poll(); capturedEvent != null; capturedEvent =
+                this.buffer.poll()) {
+                deliver(capturedEvent);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            this.scheduled.set(false);
+
+            flush();
+        }
+    }
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        BasicThreadFactory threadFactory = new BasicThreadFactory.Builder().namingPattern("Log capture")
+            .daemon(true).priority(Thread.NORM_PRIORITY).build();
+        this.executor =
+            new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    private void deliver(CapturedEvent capturedEvent)
+    {
+        ILoggingEvent event = capturedEvent.event();
+
+        try {
+            LogEvent logEvent = this.utils.toLogEvent(event);
+
+            capturedEvent.listener().onEvent(logEvent, event.getLoggerName(), null);
+
+            // Other log listeners are not bound to the captured thread
+            this.observation.get().notify(logEvent, event.getLoggerName(), null);
+        } catch (IllegalArgumentException e) {
+            this.logger.debug("Unsupported log level [{}]", event.getLevel());
+        }
+    }
+
+    /**
+     * @param event the Logback event
+     * @return true if the event was captured, false if the current thread logs are not captured asynchronously
+     */
+    public boolean capture(ILoggingEvent event)
+    {
+        Capture capture = this.captures.get();
+
+        return capture != null && capture.add(event);
+    }
+
+    /**
+     * @return true if the logs of the current thread are captured asynchronously
+     */
+    public boolean isCapturing()
+    {
+        return this.captures.get() != null;
+    }
+
+    /**
+     * Start capturing the logs of the current thread or change the listener receiving them. The events logged before
+     * the call are still delivered to the previous listener.
+     *
+     * @param listener the listener to send the current thread logs to, null to not send them to any listener
+     */
+    public void setListener(EventListener listener)
+    {
+        Capture capture = this.captures.get();
+
+        if (capture != null) {
+            capture.listener = listener;
+        } else {
+            this.captures.set(new Capture(listener));
+        }
+    }
+
+    /**
+     * Wait until all the events logged by the current thread have been delivered.
+     */
+    public void flush()
+    {
+        Capture capture = this.captures.get();
+
+        if (capture != null) {
+            capture.flush();
+        }
+    }
+
+    /**
+     * Deliver the pending events and stop capturing the logs of the current thread.
+     */
+    public void stop()
+    {
+        Capture capture = this.captures.get();
+
+        if (capture != null) {
+            try {
+                capture.flush();
+            } finally {
+                this.captures.remove();
+            }
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        // Already scheduled deliveries are still executed and new ones are delivered in the logging thread
+        this.executor.shutdown();
+    }
+}
@@ -36,7 +36,11 @@
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.logging.LogLevel;
 import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.LoggerConfiguration;
 import org.xwiki.logging.LoggerManager;
+import org.xwiki.logging.event.AggregatingLoggerListener;
+import org.xwiki.logging.event.LoggerListener;
+import org.xwiki.logging.internal.tail.BinaryFileLoggerTail;
 import org.xwiki.logging.internal.tail.XStreamFileLoggerTail;
 import org.xwiki.logging.tail.LoggerTail;
 import org.xwiki.observation.EventListener;
@@ -55,8 +59,11 @@
  */
 @Component
 @Singleton
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
 public class DefaultLoggerManager implements LoggerManager, Initializable
 {
+    private static final String BINARY_FORMAT = "binary";
+
     /**
      * Used to register/unregister {@link org.xwiki.logging.event.LogEvent} listeners.
      */
@@ -66,6 +73,15 @@ public class DefaultLoggerManager implements LoggerManager, Initializable
     @Inject
     private Provider<XStreamFileLoggerTail> loggerTailProvider;
 
+    @Inject
+    private Provider<BinaryFileLoggerTail> binaryLoggerTailProvider;
+
+    @Inject
+    private Provider<LoggerConfiguration> configuration;
+
+    @Inject
+    private AsyncLogCaptureManager asyncCaptures;
+
     /**
      * The logger.
      */
@@ -109,6 +125,36 @@ public void initialize() throws InitializationException
         }
     }
 
+    @Override
+    public LoggerListener createLoggerListener(String name, org.xwiki.logging.Logger logger)
+    {
+        LoggerConfiguration loggerConfiguration;
+        try {
+            loggerConfiguration = this.configuration.get();
+        } catch (Exception e) {
+            // No configuration available (for example in a minimal environment)
+            return LoggerManager.super.createLoggerListener(name, logger);
+        }
+
+        int maxRepeated = loggerConfiguration.getMaxRepeatedLogs();
+        int maxPerSecond = loggerConfiguration.getMaxLogsPerSecond();
+        if (maxRepeated > 0 || maxPerSecond > 0) {
+            return new AggregatingLoggerListener(name, logger, maxRepeated, maxPerSecond);
+        }
+
+        return LoggerManager.super.createLoggerListener(name, logger);
+    }
+
+    private boolean isLogCaptureAsynchronous()
+    {
+        try {
+            return this.configuration.get().isLogCaptureAsynchronous();
+        } catch (Exception e) {
+            // No configuration available (for example in a minimal environment), stay synchronous
+            return false;
+        }
+    }
+
     @Override
     public void pushLogListener(EventListener listener)
     {
@@ -119,12 +165,17 @@ public void pushLogListener(EventListener listener)
             this.listeners.set(listenerStack);
         }
 
-        if (!listenerStack.isEmpty()) {
-            this.observation.removeListener(listenerStack.peek().getName());
-        }
+        // The capture mode is decided when the first listener is pushed and kept for the whole stack
+        if (listenerStack.isEmpty() ? isLogCaptureAsynchronous() : this.asyncCaptures.isCapturing()) {
+            this.asyncCaptures.setListener(listener);
+        } else {
+            if (!listenerStack.isEmpty()) {
+                this.observation.removeListener(listenerStack.peek().getName());
+            }
 
-        if (listener != null) {
-            this.observation.addListener(new WrappedThreadEventListener(listener));
+            if (listener != null) {
+                this.observation.addListener(new WrappedThreadEventListener(listener));
+            }
         }
         if (listenerStack.isEmpty()) {
             grabLog(Thread.currentThread());
@@ -140,16 +191,10 @@ public EventListener popLogListener()
         EventListener listener;
         if (listenerStack != null && !listenerStack.isEmpty()) {
             listener = listenerStack.pop();
-            if (listener != null) {
-                this.observation.removeListener(listener.getName());
-            }
-            if (listenerStack.isEmpty()) {
-                ungrabLog(Thread.currentThread());
+            if (this.asyncCaptures.isCapturing()) {
+                popAsynchronousLogListener(listenerStack);
             } else {
-                EventListener topListener = listenerStack.peek();
-                if (topListener != null) {
-                    this.observation.addListener(new WrappedThreadEventListener(topListener));
-                }
+                popSynchronousLogListener(listener, listenerStack);
             }
         } else {
             listener = null;
@@ -158,6 +203,33 @@ public EventListener popLogListener()
         return listener;
     }
 
+    private void popAsynchronousLogListener(Deque<EventListener> listenerStack)
+    {
+        if (listenerStack.isEmpty()) {
+            // Make sure all the captured logs have been delivered before giving back the control
+            this.asyncCaptures.stop();
+            ungrabLog(Thread.currentThread());
+        } else {
+            this.asyncCaptures.flush();
+            this.asyncCaptures.setListener(listenerStack.peek());
+        }
+    }
+
+    private void popSynchronousLogListener(EventListener listener, Deque<EventListener> listenerStack)
+    {
+        if (listener != null) {
+            this.observation.removeListener(listener.getName());
+        }
+        if (listenerStack.isEmpty()) {
+            ungrabLog(Thread.currentThread());
+        } else {
+            EventListener topListener = listenerStack.peek();
+            if (topListener != null) {
+                this.observation.addListener(new WrappedThreadEventListener(topListener));
+            }
+        }
+    }
+
     /**
      * Isolate all appender from provided thread except the event generator one.
      *
@@ -230,14 +302,47 @@ protected LoggerContext getLoggerContext()
     @Override
     public LoggerTail createLoggerTail(Path path, boolean readonly) throws IOException
     {
-        if (readonly && !XStreamFileLoggerTail.exist(path)) {
+        if (readonly) {
+            boolean binary = BinaryFileLoggerTail.exist(path);
+            boolean xstream = XStreamFileLoggerTail.exist(path);
+
+            // If both formats exist (the format was changed in the configuration after the log was written), use the
+            // most recent one
+            if (binary && (!xstream || BinaryFileLoggerTail.lastModified(path) >= XStreamFileLoggerTail
+                .lastModified(path))) {
+                return createBinaryLoggerTail(path, true);
+            } else if (xstream) {
+                return createXStreamLoggerTail(path, true);
+            }
+
             return new LogQueue();
-        } else {
-            XStreamFileLoggerTail loggerTail = this.loggerTailProvider.get();
+        } else if (BINARY_FORMAT.equals(this.configuration.get().getLoggerTailFormat())) {
+            // Make sure an old log stored in a different format is not found instead of the new one
+            XStreamFileLoggerTail.delete(path);
 
-            loggerTail.initialize(path, readonly);
+            return createBinaryLoggerTail(path, false);
+        } else {
+            BinaryFileLoggerTail.delete(path);
 
-            return loggerTail;
+            return createXStreamLoggerTail(path, false);
         }
     }
+
+    private LoggerTail createXStreamLoggerTail(Path path, boolean readonly) throws IOException
+    {
+        XStreamFileLoggerTail loggerTail = this.loggerTailProvider.get();
+
+        loggerTail.initialize(path, readonly);
+
+        return loggerTail;
+    }
+
+    private LoggerTail createBinaryLoggerTail(Path path, boolean readonly) throws IOException
+    {
+        BinaryFileLoggerTail loggerTail = this.binaryLoggerTailProvider.get();
+
+        loggerTail.initialize(path, readonly);
+
+        return loggerTail;
+    }
 }
@@ -34,16 +34,12 @@
 import org.xwiki.component.phase.Disposable;
 import org.xwiki.component.phase.Initializable;
 import org.xwiki.component.phase.InitializationException;
-import org.xwiki.logging.LogLevel;
-import org.xwiki.logging.LogUtils;
 import org.xwiki.logging.event.LogEvent;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.event.Event;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.classic.spi.IThrowableProxy;
-import ch.qos.logback.classic.spi.ThrowableProxy;
 import ch.qos.logback.core.UnsynchronizedAppenderBase;
 
 /**
@@ -84,6 +80,8 @@ public class LogbackEventGenerator extends UnsynchronizedAppenderBase<ILoggingEv
      */
     private LogbackUtils utils = new LogbackUtils();
 
+    private AsyncLogCaptureManager asyncLogCaptureManager;
+
     @Override
     public String getName()
     {
@@ -130,20 +128,30 @@ private ObservationManager getObservationManager() throws ComponentLookupExcepti
         return this.componentManager.getInstance(ObservationManager.class);
     }
 
+    private AsyncLogCaptureManager getAsyncLogCaptureManager()
+    {
+        if (this.asyncLogCaptureManager == null && this.componentManager.hasComponent(AsyncLogCaptureManager.class)) {
+            try {
+                this.asyncLogCaptureManager = this.componentManager.getInstance(AsyncLogCaptureManager.class);
+            } catch (ComponentLookupException e) {
+                this.logger.error("Failed to get the asynchronous log capture manager", e);
+            }
+        }
+
+        return this.asyncLogCaptureManager;
+    }
+
     @Override
     protected void append(ILoggingEvent event)
     {
-        Throwable throwable = null;
-        IThrowableProxy throwableProxy = event.getThrowableProxy();
-        if (throwableProxy instanceof ThrowableProxy proxy) {
-            throwable = proxy.getThrowable();
+        // Delay the conversion and the notification when the logs of the current thread are captured asynchronously
+        AsyncLogCaptureManager captureManager = getAsyncLogCaptureManager();
+        if (captureManager != null && captureManager.capture(event)) {
+            return;
         }
 
         try {
-            LogLevel logLevel = this.utils.toLogLevel(event.getLevel());
-
-            LogEvent logevent = LogUtils.newLogEvent(event.getMarker(), logLevel, event.getMessage(),
-                event.getArgumentArray(), throwable, event.getTimeStamp());
+            LogEvent logevent = this.utils.toLogEvent(event);
 
             getObservationManager().notify(logevent, event.getLoggerName(), null);
         } catch (IllegalArgumentException e) {
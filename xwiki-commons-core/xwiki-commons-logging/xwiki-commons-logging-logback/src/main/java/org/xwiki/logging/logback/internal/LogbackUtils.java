@@ -23,9 +23,14 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xwiki.logging.LogLevel;
+import org.xwiki.logging.LogUtils;
+import org.xwiki.logging.event.LogEvent;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxy;
 
 /**
  * Provide several Logback related utility methods.
@@ -73,6 +78,24 @@ public Level toLevel(LogLevel logLevel)
         return logLevel != null ? Level.toLevel(logLevel.toString(), null) : null;
     }
 
+    /**
+     * @param event the Logback event
+     * @return the XWiki log event
+     * @throws IllegalArgumentException when the level of the event is not supported
+     * @since 18.8.0RC1
+     */
+    public LogEvent toLogEvent(ILoggingEvent event)
+    {
+        Throwable throwable = null;
+        IThrowableProxy throwableProxy = event.getThrowableProxy();
+        if (throwableProxy instanceof ThrowableProxy proxy) {
+            throwable = proxy.getThrowable();
+        }
+
+        return LogUtils.newLogEvent(event.getMarker(), toLogLevel(event.getLevel()), event.getMessage(),
+            event.getArgumentArray(), throwable, event.getTimeStamp());
+    }
+
     /**
      * @return the SLF4J Logger Factory used for logging
      */
@@ -29,9 +29,12 @@
 import org.slf4j.LoggerFactory;
 import org.xwiki.logging.LogLevel;
 import org.xwiki.logging.LogQueue;
+import org.xwiki.logging.LoggerConfiguration;
 import org.xwiki.logging.LoggerManager;
 import org.xwiki.logging.event.LoggerListener;
+import org.xwiki.logging.internal.tail.BinaryFileLoggerTail;
 import org.xwiki.logging.internal.tail.XStreamFileLoggerTail;
+import org.xwiki.observation.ObservationManager;
 import org.xwiki.observation.internal.DefaultObservationManager;
 import org.xwiki.test.XWikiTempDirUtil;
 import org.xwiki.test.annotation.ComponentList;
@@ -67,10 +70,12 @@
 // @formatter:off
 @ComponentTest
 @ComponentList({
+    AsyncLogCaptureManager.class,
     DefaultLoggerManager.class,
     DefaultObservationManager.class,
     LogbackEventGenerator.class,
-    XStreamFileLoggerTail.class
+    XStreamFileLoggerTail.class,
+    BinaryFileLoggerTail.class
 })
 // @formatter:on
 class DefaultLoggerManagerTest
@@ -214,6 +219,54 @@ void stackedListeners()
         this.loggerManager.popLogListener();
     }
 
+    @Test
+    void pushPopAsynchronousLogListener() throws Exception
+    {
+        LoggerConfiguration configuration = this.componentManager.registerMockComponent(LoggerConfiguration.class);
+        when(configuration.isLogCaptureAsynchronous()).thenReturn(true);
+
+        // Make sure the event generator is initialized (it's done when the observation manager listeners are loaded)
+        assertNotNull(this.componentManager.<ObservationManager>getInstance(ObservationManager.class)
+            .getListener("LogbackEventGenerator"));
+
+        LogQueue queue1 = new LogQueue();
+        LogQueue queue2 = new LogQueue();
+
+        this.loggerManager.pushLogListener(new LoggerListener("loglistenerid1", queue1));
+
+        for (int i = 0; i < 2000; ++i) {
+            this.logger.error("[test] log queue1 {}", i);
+        }
+
+        this.loggerManager.pushLogListener(new LoggerListener("loglistenerid2", queue2));
+
+        this.logger.error("[test] log queue2");
+
+        // Make sure the log has not been sent to the logback appender
+        assertTrue(this.listAppender.list.isEmpty());
+
+        this.loggerManager.popLogListener();
+
+        // Make sure everything was delivered to the right listener when the listener is popped
+        assertEquals(1, queue2.size());
+        assertEquals("[test] log queue2", queue2.poll().getMessage());
+
+        this.logger.error("[test] log queue1 after pop");
+
+        this.loggerManager.popLogListener();
+
+        assertEquals(2001, queue1.size());
+        assertEquals("[test] log queue1 {}", queue1.peek().getMessage());
+        assertEquals(0, queue1.poll().getArgumentArray()[0]);
+        assertEquals(1, queue1.poll().getArgumentArray()[0]);
+        assertEquals("[test] log queue1 after pop", queue1.getLastLogEvent().getMessage());
+
+        this.logger.error("[test] after pop");
+
+        assertEquals(1999, queue1.size());
+        assertEquals("[test] after pop", this.listAppender.list.get(0).getMessage());
+    }
+
     @Test
     void nullListeners()
     {
@@ -300,6 +353,7 @@ void getLoggerLevelWhenNoLogback()
     void createLoggerTail() throws Exception
     {
         this.componentManager.registerMockComponent(SafeXStream.class);
+        this.componentManager.registerMockComponent(LoggerConfiguration.class);
 
         File logFile = new File(XWikiTempDirUtil.createTemporaryDirectory(), "log");
 
@@ -309,4 +363,44 @@ void createLoggerTail() throws Exception
 
         assertInstanceOf(XStreamFileLoggerTail.class, this.loggerManager.createLoggerTail(logFile.toPath(), true));
     }
+
+    @Test
+    void createBinaryLoggerTail() throws Exception
+    {
+        this.componentManager.registerMockComponent(SafeXStream.class);
+        LoggerConfiguration configuration = this.componentManager.registerMockComponent(LoggerConfiguration.class);
+        when(configuration.getLoggerTailFormat()).thenReturn("binary");
+
+        File logFile = new File(XWikiTempDirUtil.createTemporaryDirectory(), "log");
+
+        assertInstanceOf(LogQueue.class, this.loggerManager.createLoggerTail(logFile.toPath(), true));
+
+        assertInstanceOf(BinaryFileLoggerTail.class, this.loggerManager.createLoggerTail(logFile.toPath(), false));
+
+        assertInstanceOf(BinaryFileLoggerTail.class, this.loggerManager.createLoggerTail(logFile.toPath(), true));
+    }
+
+    @Test
+    void createLoggerTailWhenFormatChanged() throws Exception
+    {
+        this.componentManager.registerMockComponent(SafeXStream.class);
+        LoggerConfiguration configuration = this.componentManager.registerMockComponent(LoggerConfiguration.class);
+
+        File logFile = new File(XWikiTempDirUtil.createTemporaryDirectory(), "log");
+
+        when(configuration.getLoggerTailFormat()).thenReturn("binary");
+        this.loggerManager.createLoggerTail(logFile.toPath(), false).close();
+
+        when(configuration.getLoggerTailFormat()).thenReturn("xml");
+        this.loggerManager.createLoggerTail(logFile.toPath(), false).close();
+
+        assertFalse(BinaryFileLoggerTail.exist(logFile.toPath()));
+        assertInstanceOf(XStreamFileLoggerTail.class, this.loggerManager.createLoggerTail(logFile.toPath(), true));
+
+        when(configuration.getLoggerTailFormat()).thenReturn("binary");
+        this.loggerManager.createLoggerTail(logFile.toPath(), false).close();
+
+        assertFalse(XStreamFileLoggerTail.exist(logFile.toPath()));
+        assertInstanceOf(BinaryFileLoggerTail.class, this.loggerManager.createLoggerTail(logFile.toPath(), true));
+    }
 }
@@ -20,7 +20,11 @@
 package org.xwiki.xml.internal.html;
 
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -35,11 +39,13 @@
 import org.htmlcleaner.TrimAttributeTagTransformation;
 import org.htmlcleaner.XWikiDOMSerializer;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.xml.html.HTMLCleaner;
 import org.xwiki.xml.html.HTMLCleanerConfiguration;
 import org.xwiki.xml.html.HTMLConstants;
 import org.xwiki.xml.html.filter.HTMLFilter;
+import org.xwiki.xml.internal.html.filter.HTMLElementFilter;
 
 /**
  * Default implementation for {@link org.xwiki.xml.html.HTMLCleaner} using the <a href="HTML Cleaner
@@ -49,9 +55,24 @@
  * @since 1.6M1
  */
 @Component
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
 @Singleton
 public class DefaultHTMLCleaner implements HTMLCleaner
 {
+    /**
+     * The configuration parameters which have an impact on the {@link HtmlCleaner} setup.
+     *
+     * @param html5 see {@link HTMLCleanerConfiguration#HTML_VERSION}
+     * @param namespacesAware see {@link HTMLCleanerConfiguration#NAMESPACES_AWARE}
+     * @param useCharacterReferences see {@link HTMLCleanerConfiguration#USE_CHARACTER_REFERENCES}
+     * @param translateSpecialEntities see {@link HTMLCleanerConfiguration#TRANSLATE_SPECIAL_ENTITIES}
+     * @param restricted see {@link HTMLCleanerConfiguration#RESTRICTED}
+     */
+    private record CleanerSetup(boolean html5, boolean namespacesAware, boolean useCharacterReferences,
+        boolean translateSpecialEntities, boolean restricted)
+    {
+    }
+
     /**
      * {@link HTMLFilter} for filtering html lists.
      */
@@ -82,7 +103,7 @@ public class DefaultHTMLCleaner implements HTMLCleaner
 
     /**
      * {@link HTMLFilter} for filtering HTML attributes that are used by many different elements and for which we cannot
-     * write simple transformations like in {@link #getDefaultCleanerTransformations(HTMLCleanerConfiguration)}.
+     * write simple transformations like in {@link #getDefaultCleanerTransformations(CleanerSetup)}.
      */
     @Inject
     @Named("attribute")
@@ -105,6 +126,12 @@ public class DefaultHTMLCleaner implements HTMLCleaner
     @Inject
     private XWikiHTML5TagProvider html5TagInfoProvider;
 
+    /**
+     * The cleaners are configured once and reused since the configuration only depends on a few parameters (HTML
+     * Cleaner is thread safe as long as its properties are not modified).
+     */
+    private final Map<CleanerSetup, HtmlCleaner> cleaners = new ConcurrentHashMap<>();
+
     @Override
     public Document clean(Reader originalHtmlContent)
     {
@@ -116,17 +143,8 @@ public Document clean(Reader originalHtmlContent, HTMLCleanerConfiguration confi
     {
         Document result;
 
-        // Note: Instantiation of an HtmlCleaner object is cheap so there's no need to cache an instance of it,
-        // especially since this makes it extra safe with regards to multithreading (even though HTML Cleaner is
-        // already supposed to be thread safe).
-        CleanerProperties cleanerProperties = getDefaultCleanerProperties(configuration);
-        HtmlCleaner cleaner;
-        if (isHTML5(configuration)) {
-            // Use our custom provider to fix bugs, should be checked on each upgrade if still necessary.
-            cleaner = new HtmlCleaner(this.html5TagInfoProvider, cleanerProperties);
-        } else {
-            cleaner = new HtmlCleaner(cleanerProperties);
-        }
+        HtmlCleaner cleaner = this.cleaners.computeIfAbsent(getCleanerSetup(configuration), this::createCleaner);
+        CleanerProperties cleanerProperties = cleaner.getProperties();
 
         TagNode cleanedNode;
         try {
@@ -158,11 +176,40 @@ public Document clean(Reader originalHtmlContent, HTMLCleanerConfiguration confi
         }
 
         // Finally apply filters.
+        applyFilters(result, configuration);
+
+        return result;
+    }
+
+    private void applyFilters(Document document, HTMLCleanerConfiguration configuration)
+    {
+        // Consecutive element filters are applied in a single traversal of the document.
+        List<HTMLElementFilter> elementFilters = new ArrayList<>();
         for (HTMLFilter filter : configuration.getFilters()) {
-            filter.filter(result, configuration.getParameters());
+            if (filter instanceof HTMLElementFilter elementFilter) {
+                elementFilters.add(elementFilter);
+            } else {
+                applyElementFilters(document, elementFilters, configuration.getParameters());
+                elementFilters.clear();
+
+                filter.filter(document, configuration.getParameters());
+            }
         }
+        applyElementFilters(document, elementFilters, configuration.getParameters());
+    }
 
-        return result;
+    private void applyElementFilters(Document document, List<HTMLElementFilter> filters,
+        Map<String, String> cleaningParameters)
+    {
+        if (filters.size() == 1) {
+            filters.get(0).filter(document, cleaningParameters);
+        } else if (!filters.isEmpty()) {
+            for (Element element : HTMLElementFilter.getElements(document)) {
+                for (HTMLElementFilter filter : filters) {
+                    filter.filterElement(element, cleaningParameters);
+                }
+            }
+        }
     }
 
     @Override
@@ -180,11 +227,42 @@ public HTMLCleanerConfiguration getDefaultConfiguration()
         return configuration;
     }
 
+    private CleanerSetup getCleanerSetup(HTMLCleanerConfiguration configuration)
+    {
+        Map<String, String> parameters = configuration.getParameters();
+
+        // If the caller has defined NAMESPACE_AWARE configuration property then use it, otherwise use our default.
+        String param = parameters.get(HTMLCleanerConfiguration.NAMESPACES_AWARE);
+        boolean namespacesAware = (param == null) || Boolean.parseBoolean(param);
+
+        // Use character references rather than entity references if needed (for instance if you need to parse the
+        // output as XML)
+        param = parameters.get(HTMLCleanerConfiguration.USE_CHARACTER_REFERENCES);
+        boolean useCharacterReferences = (param != null) && Boolean.parseBoolean(param);
+
+        param = parameters.get(HTMLCleanerConfiguration.TRANSLATE_SPECIAL_ENTITIES);
+        boolean translateSpecialEntities = (param != null) && Boolean.parseBoolean(param);
+
+        return new CleanerSetup(isHTML5(configuration), namespacesAware, useCharacterReferences,
+            translateSpecialEntities, isRestricted(configuration));
+    }
+
+    private HtmlCleaner createCleaner(CleanerSetup setup)
+    {
+        CleanerProperties cleanerProperties = getDefaultCleanerProperties(setup);
+        if (setup.html5()) {
+            // Use our custom provider to fix bugs, should be checked on each upgrade if still necessary.
+            return new HtmlCleaner(this.html5TagInfoProvider, cleanerProperties);
+        } else {
+            return new HtmlCleaner(cleanerProperties);
+        }
+    }
+
     /**
-     * @param configuration the configuration to use for the cleaning
+     * @param setup the configuration to use for the cleaning
      * @return the default {@link CleanerProperties} to be used for cleaning.
      */
-    private CleanerProperties getDefaultCleanerProperties(HTMLCleanerConfiguration configuration)
+    private CleanerProperties getDefaultCleanerProperties(CleanerSetup setup)
     {
         CleanerProperties defaultProperties = new CleanerProperties();
         defaultProperties.setOmitUnknownTags(true);
@@ -203,25 +281,20 @@ private CleanerProperties getDefaultCleanerProperties(HTMLCleanerConfiguration c
         // Remove CDATA outside of script and style since according to the spec it has no effect there.
         defaultProperties.setOmitCdataOutsideScriptAndStyle(true);
 
-        // If the caller has defined NAMESPACE_AWARE configuration property then use it, otherwise use our default.
-        String param = configuration.getParameters().get(HTMLCleanerConfiguration.NAMESPACES_AWARE);
-        boolean namespacesAware = (param == null) || Boolean.parseBoolean(param);
-        defaultProperties.setNamespacesAware(namespacesAware);
+        defaultProperties.setNamespacesAware(setup.namespacesAware());
 
         // Set Cleaner transformations
-        defaultProperties.setCleanerTransformations(getDefaultCleanerTransformations(configuration));
+        defaultProperties.setCleanerTransformations(getDefaultCleanerTransformations(setup));
 
         // Don't convert special HTML entities (i.e. &ocirc;, &permil;, &times;) with unicode characters they represent.
         defaultProperties.setTranslateSpecialEntities(false);
 
         // Use character references rather than entity references if needed (for instance if you need to parse the
         // output as XML)
-        param = configuration.getParameters().get(HTMLCleanerConfiguration.USE_CHARACTER_REFERENCES);
-        boolean useCharacterReferences = (param != null) && Boolean.parseBoolean(param);
-        defaultProperties.setTransResCharsToNCR(useCharacterReferences);
+        defaultProperties.setTransResCharsToNCR(setup.useCharacterReferences());
 
         // Sets the HTML version from the configuration (by default 4).
-        defaultProperties.setHtmlVersion(getHTMLVersion(configuration));
+        defaultProperties.setHtmlVersion(setup.html5() ? 5 : 4);
 
         // We trim values by default for all attributes but the input value attribute.
         // The only way to currently do that is to switch off this flag, and to create a dedicated TagTransformation.
@@ -231,9 +304,7 @@ private CleanerProperties getDefaultCleanerProperties(HTMLCleanerConfiguration c
         // Replace all unicode character entities by their actual unicode character, if possible.
         defaultProperties.setRecognizeUnicodeChars(true);
 
-        param = configuration.getParameters().get(HTMLCleanerConfiguration.TRANSLATE_SPECIAL_ENTITIES);
-        boolean translateSpecialEntities = (param != null) && Boolean.parseBoolean(param);
-        defaultProperties.setTranslateSpecialEntities(translateSpecialEntities);
+        defaultProperties.setTranslateSpecialEntities(setup.translateSpecialEntities());
 
         defaultProperties.setDeserializeEntities(true);
 
@@ -242,24 +313,24 @@ private CleanerProperties getDefaultCleanerProperties(HTMLCleanerConfiguration c
         // parser confusion. Comments, style and script elements seem to be frequently found ingredients in successful
         // attacks against good sanitizers. We're already removing style and script elements, so removing comments
         // seems like a good defense against future attacks.
-        defaultProperties.setOmitComments(isRestricted(configuration));
+        defaultProperties.setOmitComments(setup.restricted());
 
         return defaultProperties;
     }
 
     /**
-     * @param configuration The cleaner configuration.
+     * @param setup The cleaner configuration.
      * @return the default cleaning transformations to perform on tags, in addition to the base transformations done by
      *     HTML Cleaner
      */
-    private TrimAttributeCleanerTransformations getDefaultCleanerTransformations(HTMLCleanerConfiguration configuration)
+    private TrimAttributeCleanerTransformations getDefaultCleanerTransformations(CleanerSetup setup)
     {
         TrimAttributeCleanerTransformations defaultTransformations = new TrimAttributeCleanerTransformations();
 
         TagTransformation tt;
 
         // note that we do not care here to use a TrimAttributeTagTransformation, since the attributes are not preserved
-        if (!isHTML5(configuration)) {
+        if (!setup.html5()) {
             // These tags are not obsolete in HTML5.
             tt = new TagTransformation(HTMLConstants.TAG_B, HTMLConstants.TAG_STRONG, false);
             defaultTransformations.addTransformation(tt);
@@ -281,7 +352,7 @@ private TrimAttributeCleanerTransformations getDefaultCleanerTransformations(HTM
         tt.addAttributeTransformation(HTMLConstants.ATTRIBUTE_STYLE, "text-align:center");
         defaultTransformations.addTransformation(tt);
 
-        if (isHTML5(configuration)) {
+        if (setup.html5()) {
             // Font tags are removed before the filters are applied in HTML5, we thus need a transformation here.
             defaultTransformations.addTransformation(new FontTagTransformation());
 
@@ -291,7 +362,7 @@ private TrimAttributeCleanerTransformations getDefaultCleanerTransformations(HTM
             defaultTransformations.addTransformation(tt);
         }
 
-        if (isRestricted(configuration)) {
+        if (setup.restricted()) {
 
             tt = new TagTransformation(HTMLConstants.TAG_SCRIPT, HTMLConstants.TAG_PRE, false);
             defaultTransformations.addTransformation(tt);
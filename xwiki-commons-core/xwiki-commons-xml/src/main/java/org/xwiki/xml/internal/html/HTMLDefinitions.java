@@ -24,6 +24,7 @@
 package org.xwiki.xml.internal.html;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -125,6 +126,24 @@ public boolean isAllowedAttribute(String attributeName)
         return this.htmlAttributes.contains(attributeName);
     }
 
+    /**
+     * @return the tags considered safe
+     * @since 18.8.0RC1
+     */
+    public Set<String> getSafeTags()
+    {
+        return Collections.unmodifiableSet(this.htmlTags);
+    }
+
+    /**
+     * @return the allowed attributes
+     * @since 18.8.0RC1
+     */
+    public Set<String> getAllowedAttributes()
+    {
+        return Collections.unmodifiableSet(this.htmlAttributes);
+    }
+
     /**
      * @return for each attribute that is only allowed on certain elements, the set of elements on which it is allowed;
      *     attributes that aren't keys in this map are allowed on any element
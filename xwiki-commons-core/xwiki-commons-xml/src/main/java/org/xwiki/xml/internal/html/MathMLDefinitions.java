@@ -24,6 +24,7 @@
 package org.xwiki.xml.internal.html;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -284,6 +285,24 @@ public boolean isSafeTag(String tagName)
         return this.safeTags.contains(tagName);
     }
 
+    /**
+     * @return the tags considered safe
+     * @since 18.8.0RC1
+     */
+    public Set<String> getSafeTags()
+    {
+        return Collections.unmodifiableSet(this.safeTags);
+    }
+
+    /**
+     * @return the allowed attributes
+     * @since 18.8.0RC1
+     */
+    public Set<String> getAllowedAttributes()
+    {
+        return Collections.unmodifiableSet(this.allowedAttributes);
+    }
+
     /**
      * @param tagName the name of the tag to check
      * @return if the tag is a MathML tag
@@ -24,6 +24,7 @@
 package org.xwiki.xml.internal.html;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -136,6 +137,27 @@ public boolean isSafeTag(String tagName)
         return this.safeTags.contains(tagName) || isFilterTag(tagName);
     }
 
+    /**
+     * @return the tags considered safe, including the filter tags
+     * @since 18.8.0RC1
+     */
+    public Set<String> getSafeTags()
+    {
+        Set<String> tags = new HashSet<>(this.safeTags);
+        tags.addAll(this.filterTags);
+
+        return Collections.unmodifiableSet(tags);
+    }
+
+    /**
+     * @return the allowed attributes
+     * @since 18.8.0RC1
+     */
+    public Set<String> getAllowedAttributes()
+    {
+        return Collections.unmodifiableSet(this.allowedAttributes);
+    }
+
     /**
      * @param tagName the name of the tag to check
      * @return if the tag is an SVG filter
@@ -26,6 +26,7 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -62,9 +63,6 @@ public class SecureHTMLElementSanitizer implements HTMLElementSanitizer, Initial
 
     static final Pattern IS_SCRIPT_OR_DATA = Pattern.compile("^(?:\\w+script|data):", Pattern.CASE_INSENSITIVE);
 
-    static final Pattern ATTR_WHITESPACE =
-        Pattern.compile("[\\u0000-\\u0020\\u00A0\\u1680\\u180E\\u2000-\\u2029\\u205F\\u3000]");
-
     /**
      * Pattern that matches valid data-attributes.
      * <p>
@@ -83,11 +81,24 @@ public class SecureHTMLElementSanitizer implements HTMLElementSanitizer, Initial
     static final Pattern IS_ALLOWED_URI = Pattern.compile("^(?:(?:f|ht)tps?|mailto|tel|callto|cid|xmpp):",
         Pattern.CASE_INSENSITIVE);
 
-    static final Pattern IS_NO_URI = Pattern.compile("^(?:[^a-z]|[a-z+.\\-]+(?:[^a-z+.\\-:]|$))",
-        Pattern.CASE_INSENSITIVE);
+    /**
+     * The schemes matched by {@link #IS_ALLOWED_URI}.
+     */
+    static final Set<String> ALLOWED_URI_SCHEMES =
+        Set.of("ftp", "ftps", "http", "https", "mailto", "tel", "callto", "cid", "xmpp");
 
     private static final String XLINK_HREF = "xlink:href";
 
+    private static final String DATA_ATTR_PREFIX = "data-";
+
+    private static final String ARIA_ATTR_PREFIX = "aria-";
+
+    /**
+     * XML attributes that should be allowed.
+     */
+    private static final Set<String> XML_ATTRIBUTES =
+        Set.of(XLINK_HREF, "xml:id", "xlink:title", "xml:space", "xmlns:xlink");
+
     @Inject
     private HTMLElementSanitizerConfiguration htmlElementSanitizerConfiguration;
 
@@ -101,19 +112,14 @@ public class SecureHTMLElementSanitizer implements HTMLElementSanitizer, Initial
     private MathMLDefinitions mathMLDefinitions;
 
     /**
-     * Additionally allowed elements.
-     */
-    private final Set<String> extraAllowedTags;
-
-    /**
-     * Additionally allowed attributes.
+     * The allowed elements, computed from the definitions and the configuration when initializing the component.
      */
-    private final Set<String> extraAllowedAttributes;
+    private Set<String> allowedTags;
 
     /**
-     * XML attributes that should be allowed.
+     * The allowed attributes, computed from the definitions and the configuration when initializing the component.
      */
-    private final Set<String> xmlAttributes;
+    private Set<String> allowedAttributes;
 
     /**
      * Tags that are safe for data: URIs.
@@ -125,8 +131,6 @@ public class SecureHTMLElementSanitizer implements HTMLElementSanitizer, Initial
      */
     private final Set<String> uriSafeAttributes;
 
-    private final Set<String> forbidTags;
-
     private final Set<String> forbidAttributes;
 
     /**
@@ -139,6 +143,11 @@ public class SecureHTMLElementSanitizer implements HTMLElementSanitizer, Initial
 
     private Pattern allowedUriPattern;
 
+    /**
+     * The allowed URI schemes when the default {@link #IS_ALLOWED_URI} pattern is used, {@code null} otherwise.
+     */
+    private Set<String> allowedUriSchemes;
+
     /**
      * Default constructor.
      */
@@ -150,39 +159,54 @@ public SecureHTMLElementSanitizer()
             Arrays.asList("alt", "class", "for", "id", "label", "name", "pattern", "placeholder", "role", "summary",
                 "title", "value", "style", "xmlns"));
 
-        this.xmlAttributes =
-            new HashSet<>(Arrays.asList(XLINK_HREF, "xml:id", "xlink:title", "xml:space", "xmlns:xlink"));
-
-        this.extraAllowedTags = new HashSet<>();
-
-        this.extraAllowedAttributes = new HashSet<>();
-
-        this.forbidTags = new HashSet<>();
-
         this.forbidAttributes = new HashSet<>();
 
         this.elementRestrictedAttributes = new HashMap<>();
 
         this.allowedUriPattern = IS_ALLOWED_URI;
+        this.allowedUriSchemes = ALLOWED_URI_SCHEMES;
     }
 
     @Override
     public void initialize() throws InitializationException
     {
-        this.extraAllowedTags.addAll(this.htmlElementSanitizerConfiguration.getExtraAllowedTags());
-        this.extraAllowedAttributes.addAll(this.htmlElementSanitizerConfiguration.getExtraAllowedAttributes());
+        initializeAllowedTags();
+        initializeAllowedAttributes();
         this.uriSafeAttributes.addAll(this.htmlElementSanitizerConfiguration.getExtraUriSafeAttributes());
         this.dataUriTags.addAll(this.htmlElementSanitizerConfiguration.getExtraDataUriTags());
         this.allowUnknownProtocols = this.htmlElementSanitizerConfiguration.isAllowUnknownProtocols();
-        this.forbidTags.addAll(this.htmlElementSanitizerConfiguration.getForbidTags());
         this.forbidAttributes.addAll(this.htmlElementSanitizerConfiguration.getForbidAttributes());
         initializeElementRestrictedAttributes();
         String configuredRegexp = this.htmlElementSanitizerConfiguration.getAllowedUriRegexp();
         if (StringUtils.isNotBlank(configuredRegexp)) {
             this.allowedUriPattern = Pattern.compile(configuredRegexp, Pattern.CASE_INSENSITIVE);
+            this.allowedUriSchemes = null;
         }
     }
 
+    private void initializeAllowedTags()
+    {
+        Set<String> tags = new HashSet<>(this.htmlElementSanitizerConfiguration.getExtraAllowedTags());
+        tags.addAll(this.htmlDefinitions.getSafeTags());
+        tags.addAll(this.svgDefinitions.getSafeTags());
+        tags.addAll(this.mathMLDefinitions.getSafeTags());
+        tags.removeAll(this.htmlElementSanitizerConfiguration.getForbidTags());
+
+        // Immutable sets are more compact and faster to look up.
+        this.allowedTags = Set.copyOf(tags);
+    }
+
+    private void initializeAllowedAttributes()
+    {
+        Set<String> attributes = new HashSet<>(this.htmlElementSanitizerConfiguration.getExtraAllowedAttributes());
+        attributes.addAll(this.htmlDefinitions.getAllowedAttributes());
+        attributes.addAll(this.svgDefinitions.getAllowedAttributes());
+        attributes.addAll(this.mathMLDefinitions.getAllowedAttributes());
+        attributes.addAll(XML_ATTRIBUTES);
+
+        this.allowedAttributes = Set.copyOf(attributes);
+    }
+
     private void initializeElementRestrictedAttributes()
     {
         this.htmlDefinitions.getElementRestrictedAttributes()
@@ -195,14 +219,7 @@ private void initializeElementRestrictedAttributes()
     @Override
     public boolean isElementAllowed(String elementName)
     {
-        return !this.forbidTags.contains(elementName)
-            && (this.extraAllowedTags.contains(elementName) || isElementSafe(elementName));
-    }
-
-    private boolean isElementSafe(String elementName)
-    {
-        return this.htmlDefinitions.isSafeTag(elementName) || this.svgDefinitions.isSafeTag(elementName)
-            || this.mathMLDefinitions.isSafeTag(elementName);
+        return this.allowedTags.contains(elementName);
     }
 
     @Override
@@ -214,9 +231,9 @@ public boolean isAttributeAllowed(String elementName, String attributeName, Stri
         String lowerAttribute = attributeName.toLowerCase();
 
         if (isAttributePermittedOnElement(lowerElement, lowerAttribute)) {
-            if (DATA_ATTR.matcher(lowerAttribute).matches() || ARIA_ATTR.matcher(lowerAttribute).matches()) {
+            if (isDataOrAriaAttribute(lowerAttribute)) {
                 result = true;
-            } else if (isAttributeAllowed(lowerAttribute)) {
+            } else if (this.allowedAttributes.contains(lowerAttribute)) {
                 result = isAllowedValue(lowerElement, lowerAttribute, attributeValue);
             }
         }
@@ -224,6 +241,17 @@ public boolean isAttributeAllowed(String elementName, String attributeName, Stri
         return result;
     }
 
+    private boolean isDataOrAriaAttribute(String lowercaseAttributeName)
+    {
+        // Only run the patterns on the attributes which can match them.
+        if (lowercaseAttributeName.startsWith(DATA_ATTR_PREFIX)) {
+            return DATA_ATTR.matcher(lowercaseAttributeName).matches();
+        }
+
+        return lowercaseAttributeName.startsWith(ARIA_ATTR_PREFIX)
+            && ARIA_ATTR.matcher(lowercaseAttributeName).matches();
+    }
+
     /**
      * @return {@code true} if the attribute is neither globally forbidden nor restricted to elements other than the
      *     given one
@@ -241,31 +269,100 @@ private boolean isAttributePermittedOnElement(String lowercaseElementName, Strin
     private boolean isAllowedValue(String lowercaseElementName, String lowercaseAttributeName, String attributeValue)
     {
         // Break into several statements to avoid too long boolean expression.
-        boolean result = StringUtils.isBlank(attributeValue);
+        boolean result = StringUtils.isBlank(attributeValue) || this.uriSafeAttributes.contains(lowercaseAttributeName);
         if (!result) {
-            String valueNoWhitespace = ATTR_WHITESPACE.matcher(attributeValue).replaceAll("");
-            result = this.uriSafeAttributes.contains(lowercaseAttributeName);
-            result = result || IS_NO_URI.matcher(valueNoWhitespace).find();
-            result = result || this.allowedUriPattern.matcher(valueNoWhitespace).find();
+            String valueNoWhitespace = removeWhitespace(attributeValue);
+            result = isAllowedURI(valueNoWhitespace);
             result = result || isAllowedDataValue(lowercaseElementName, lowercaseAttributeName, attributeValue);
-            result = result || (this.allowUnknownProtocols && !isScriptOrData(attributeValue));
+            result = result || (this.allowUnknownProtocols && !IS_SCRIPT_OR_DATA.matcher(valueNoWhitespace).find());
         }
         return result;
     }
 
-    private boolean isAttributeAllowed(String attributeName)
+    private boolean isAllowedURI(String valueNoWhitespace)
     {
-        boolean result = this.extraAllowedAttributes.contains(attributeName);
-        result = result || this.htmlDefinitions.isAllowedAttribute(attributeName);
-        result = result || this.svgDefinitions.isAllowedAttribute(attributeName);
-        result = result || this.mathMLDefinitions.isAllowedAttribute(attributeName);
-        result = result || this.xmlAttributes.contains(attributeName);
+        String scheme = getScheme(valueNoWhitespace);
+
+        boolean result;
+        if (scheme == null) {
+            // Not a URI
+            result = true;
+        } else if (this.allowedUriSchemes != null) {
+            result = this.allowedUriSchemes.contains(scheme.toLowerCase(Locale.ROOT));
+        } else {
+            result = this.allowedUriPattern.matcher(valueNoWhitespace).find();
+        }
+
         return result;
     }
 
-    private boolean isScriptOrData(String attributeValue)
+    /**
+     * Scan the scheme of the passed URI instead of matching it against a pattern since it's done for most attribute
+     * values.
+     *
+     * @param value the value to scan
+     * @return the scheme of the URI (empty when the value is empty), or {@code null} if the value is not a URI, i.e.,
+     *     it doesn't start with an ASCII letter followed by ASCII letters, "+", "." or "-" and then ":"
+     */
+    static String getScheme(String value)
+    {
+        int length = value.length();
+        if (length == 0) {
+            return "";
+        }
+
+        if (!isASCIILetter(value.charAt(0))) {
+            return null;
+        }
+
+        int index = 1;
+        while (index < length && isSchemeCharacter(value.charAt(index))) {
+            ++index;
+        }
+
+        return index < length && value.charAt(index) == ':' ? value.substring(0, index) : null;
+    }
+
+    private static boolean isASCIILetter(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSchemeCharacter(char c)
+    {
+        return isASCIILetter(c) || c == '+' || c == '.' || c == '-';
+    }
+
+    /**
+     * @param value the value from which to remove the whitespace
+     * @return the value without the characters which are ignored by browsers when parsing a URI, the same instance
+     *     when there is none
+     */
+    static String removeWhitespace(String value)
+    {
+        StringBuilder builder = null;
+
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (isAttributeWhitespace(c)) {
+                if (builder == null) {
+                    builder = new StringBuilder(value.length());
+                    builder.append(value, 0, i);
+                }
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
+
+        return builder != null ? builder.toString() : value;
+    }
+
+    private static boolean isAttributeWhitespace(char c)
     {
-        return IS_SCRIPT_OR_DATA.matcher(ATTR_WHITESPACE.matcher(attributeValue).replaceAll("")).find();
+        return switch (c) {
+            case '\u00A0', '\u1680', '\u180E', '\u205F', '\u3000' -> true;
+            default -> c <= ' ' || (c >= '\u2000' && c <= '\u2029');
+        };
     }
 
     private boolean isAllowedDataValue(String elementName, String attributeName, String attributeValue)
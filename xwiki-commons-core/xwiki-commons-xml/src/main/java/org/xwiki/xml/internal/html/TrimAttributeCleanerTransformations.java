@@ -19,6 +19,9 @@
  */
 package org.xwiki.xml.internal.html;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.htmlcleaner.CleanerTransformations;
 import org.htmlcleaner.TagTransformation;
 import org.htmlcleaner.TrimAttributeTagTransformation;
@@ -27,23 +30,28 @@
  * This class allows to create on the fly a new tag transformation to trim leading space.
  * See {@link TrimAttributeTagTransformation} for more information.
  * Note that this class aims at being removed once https://sourceforge.net/p/htmlcleaner/bugs/213/ is fixed.
+ * <p>
+ * The transformations created on the fly are kept apart from the ones explicitly added so that the same instance can
+ * safely be used by several threads once configured.
  *
  * @version $Id$
  * @since 11.1RC1
  */
 public class TrimAttributeCleanerTransformations extends CleanerTransformations
 {
+    private final Map<String, TagTransformation> trimTransformations = new ConcurrentHashMap<>();
+
     @Override
     public TagTransformation getTransformation(String tagName)
     {
         TagTransformation transformation = super.getTransformation(tagName);
-        if (transformation == null) {
-
+        if (transformation == null && tagName != null) {
             // we only create the transformation if it doesn't exist yet
             // and we keep it to avoid creating multiple objects for the same tag over and over.
-            transformation = new TrimAttributeTagTransformation(tagName, tagName);
-            this.addTransformation(transformation);
+            transformation = this.trimTransformations.computeIfAbsent(tagName,
+                name -> new TrimAttributeTagTransformation(name, name));
         }
+
         return transformation;
     }
 }
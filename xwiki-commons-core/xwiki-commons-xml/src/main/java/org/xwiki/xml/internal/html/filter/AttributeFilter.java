@@ -28,7 +28,6 @@
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.xml.html.HTMLConstants;
 import org.xwiki.xml.html.filter.AbstractHTMLFilter;
@@ -50,7 +49,7 @@
 @Component
 @Named("attribute")
 @Singleton
-public class AttributeFilter extends AbstractHTMLFilter
+public class AttributeFilter extends AbstractHTMLFilter implements HTMLElementFilter
 {
     /**
      * The map between HTML attribute names and the corresponding CSS property name.
@@ -71,21 +70,11 @@ public class AttributeFilter extends AbstractHTMLFilter
     @Override
     public void filter(Document document, Map<String, String> cleaningParameters)
     {
-        // Take a snapshot of the matching elements before filtering. The NodeList returned by getElementsByTagName is
-        // live and its internal cache is invalidated whenever an attribute is modified, which would turn the iteration
-        // below into a quadratic operation (each item() call would re-traverse the document).
-        NodeList nodeList = document.getElementsByTagName("*");
-        int length = nodeList.getLength();
-        Element[] elements = new Element[length];
-        for (int i = 0; i < length; i++) {
-            elements[i] = (Element) nodeList.item(i);
-        }
-        for (Element element : elements) {
-            filterElement(element);
-        }
+        HTMLElementFilter.super.filter(document, cleaningParameters);
     }
 
-    private void filterElement(Element element)
+    @Override
+    public void filterElement(Element element, Map<String, String> cleaningParameters)
     {
         if (element.hasAttributes()) {
             for (String attrName : ATTRIBUTE_TO_CSS_PROPERTY.keySet()) {
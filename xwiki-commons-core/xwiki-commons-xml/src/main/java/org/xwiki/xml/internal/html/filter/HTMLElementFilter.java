@@ -0,0 +1,73 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.xml.internal.html.filter;
+
+import java.util.Map;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xwiki.xml.html.filter.HTMLFilter;
+
+/**
+ * An {@link HTMLFilter} which works on each element independently and only modifies the attributes of the element it
+ * is given. Consecutive element filters can be applied in a single traversal of the document.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public interface HTMLElementFilter extends HTMLFilter
+{
+    /**
+     * Filter the passed element.
+     *
+     * @param element the element to filter
+     * @param cleaningParameters any parameters to use for customizing the filtering
+     */
+    void filterElement(Element element, Map<String, String> cleaningParameters);
+
+    @Override
+    default void filter(Document document, Map<String, String> cleaningParameters)
+    {
+        for (Element element : getElements(document)) {
+            filterElement(element, cleaningParameters);
+        }
+    }
+
+    /**
+     * Take a snapshot of the elements of the document. The NodeList returned by getElementsByTagName is live and its
+     * internal cache is invalidated whenever an attribute is modified, which would turn iterating it while filtering
+     * into a quadratic operation (each item() call would re-traverse the document).
+     *
+     * @param document the document
+     * @return all the elements of the document, in document order
+     */
+    static Element[] getElements(Document document)
+    {
+        NodeList nodeList = document.getElementsByTagName("*");
+        int length = nodeList.getLength();
+        Element[] elements = new Element[length];
+        for (int i = 0; i < length; i++) {
+            elements[i] = (Element) nodeList.item(i);
+        }
+
+        return elements;
+    }
+}
@@ -54,7 +54,7 @@
 @Component
 @Named("link")
 @Singleton
-public class LinkFilter extends AbstractHTMLFilter
+public class LinkFilter extends AbstractHTMLFilter implements HTMLElementFilter
 {
     private static final String NOOPENER = "noopener";
 
@@ -69,6 +69,14 @@ public void filter(Document document, Map<String, String> cleaningParameters)
         }
     }
 
+    @Override
+    public void filterElement(Element element, Map<String, String> cleaningParameters)
+    {
+        if (TAG_A.equals(element.getNodeName())) {
+            filter(element);
+        }
+    }
+
     private void filter(Element link)
     {
         // Do not handle internal link
@@ -528,6 +528,34 @@ void verifyExternalLinksAreSecure()
             "<a href=\"http://xwiki.org\" target=\"_blank\" rel=\"hello\">label</a>");
     }
 
+    @Test
+    void attributeAndLinkFiltersOnSameElement()
+    {
+        assertHTML("<p><a href=\"http://xwiki.org\" rel=\" noopener noreferrer\" style=\"vertical-align:top\" "
+            + "target=\"_blank\">label</a></p>",
+            "<a href=\"http://xwiki.org\" target=\"_blank\" valign=\"top\">label</a>");
+    }
+
+    /**
+     * Verify that the cleaner setups reused between cleanings don't leak from one configuration to the other.
+     */
+    @Test
+    void alternateConfigurations()
+    {
+        HTMLCleanerConfiguration defaultConfiguration = this.cleanerConfiguration;
+        HTMLCleanerConfiguration restrictedConfiguration = this.cleaner.getDefaultConfiguration();
+        Map<String, String> parameters = new HashMap<>(defaultConfiguration.getParameters());
+        parameters.put(HTMLCleanerConfiguration.RESTRICTED, "true");
+        restrictedConfiguration.setParameters(parameters);
+
+        for (int i = 0; i < 2; i++) {
+            this.cleanerConfiguration = restrictedConfiguration;
+            assertHTML("<p>hello</p>", "<!-- comment --><p>hello</p>");
+            this.cleanerConfiguration = defaultConfiguration;
+            assertHTML("<!-- comment --><p>hello</p>", "<!-- comment --><p>hello</p>");
+        }
+    }
+
     @Test
     void verifyEntitiesAreNotBroken()
     {
@@ -37,6 +37,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -221,4 +222,29 @@ void dataAttributes(String attribute, boolean accepted)
         assertEquals(accepted, this.secureHTMLElementSanitizer.isAttributeAllowed(HTMLConstants.TAG_DIV, attribute,
             "hello"));
     }
+
+    @ParameterizedTest
+    @CsvSource({
+        "https://www.xwiki.org, https",
+        "XWiki:test, XWiki",
+        "svn+ssh:test, svn+ssh",
+        "'', ''",
+        "/xwiki/bin/view/Main/,",
+        "1http:test,",
+        "page,",
+        "page#x:y,",
+        "http.x-y+z,"
+    })
+    void getScheme(String value, String scheme)
+    {
+        assertEquals(scheme, SecureHTMLElementSanitizer.getScheme(value));
+    }
+
+    @Test
+    void removeWhitespace()
+    {
+        String value = "javascript:alert(1)";
+        assertSame(value, SecureHTMLElementSanitizer.removeWhitespace(value));
+        assertEquals(value, SecureHTMLElementSanitizer.removeWhitespace(" java\tscript\u00A0:\u2000alert(1)\u3000\n"));
+    }
 }